@@ -0,0 +1,74 @@
+package com.code.englishnotes.data.source.local;
+
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.utils.schedulers.ImmediateSchedulerProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.subscribers.TestSubscriber;
+
+/**
+ * Integration tests for {@link VocabularyLocalDataSource}, on the database of the app under test.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VocabularyLocalDataSourceTest {
+
+    private VocabularyLocalDataSource mLocalDataSource;
+
+    @Before
+    public void setUp() {
+        VocabularyLocalDataSource.destroyInstance();
+        mLocalDataSource = VocabularyLocalDataSource.getInstance(
+                InstrumentationRegistry.getTargetContext(), new ImmediateSchedulerProvider());
+        mLocalDataSource.deleteAllVocabularys();
+    }
+
+    @After
+    public void tearDown() {
+        mLocalDataSource.deleteAllVocabularys();
+        VocabularyLocalDataSource.destroyInstance();
+    }
+
+    @Test
+    public void saveVocabularies_emitsAChangePerRowOfABatchWrittenDirectly() {
+        for (int size = 1; size <= 4; size++) {
+            assertEmitsAChangePerRow(newVocabularies("direct" + size, size));
+        }
+    }
+
+    @Test
+    public void saveVocabularies_emitsAChangePerRowOfAStagedBatch() {
+        assertEmitsAChangePerRow(newVocabularies("staged", 5));
+    }
+
+    private void assertEmitsAChangePerRow(List<Vocabulary> vocabularies) {
+        List<VocabularyChange> expected = new ArrayList<>();
+        for (Vocabulary vocabulary : vocabularies) {
+            expected.add(VocabularyChange.upsert(vocabulary));
+        }
+        TestSubscriber<VocabularyChange> changes = mLocalDataSource.getVocabularyChanges().test();
+
+        mLocalDataSource.saveVocabularies(vocabularies);
+
+        changes.assertValueSequence(expected);
+        changes.dispose();
+    }
+
+    private static List<Vocabulary> newVocabularies(String prefix, int count) {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            vocabularies.add(new Vocabulary(prefix + " word " + i, "description " + i));
+        }
+        return vocabularies;
+    }
+}
@@ -19,11 +19,10 @@ package com.code.englishnotes.data.data;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import com.code.englishnotes.data.model.Ids;
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
 
-import java.util.UUID;
-
 /**
  * Immutable model class for a Task.
  */
@@ -40,6 +39,9 @@ public final class Task {
 
     private final boolean mCompleted;
 
+    // Computed on first use, 0 until then.
+    private int mHashCode;
+
     /**
      * Use this constructor to create a new active Task.
      *
@@ -47,7 +49,7 @@ public final class Task {
      * @param description description of the task
      */
     public Task(@Nullable String title, @Nullable String description) {
-        this(title, description, UUID.randomUUID().toString(), false);
+        this(title, description, Ids.nextId().toString(), false);
     }
 
     /**
@@ -70,7 +72,7 @@ public final class Task {
      * @param completed   true if the task is completed, false if it's active
      */
     public Task(@Nullable String title, @Nullable String description, boolean completed) {
-        this(title, description, UUID.randomUUID().toString(), completed);
+        this(title, description, Ids.nextId().toString(), completed);
     }
 
     /**
@@ -139,7 +141,14 @@ public final class Task {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(mId, mTitle, mDescription);
+        int hashCode = mHashCode;
+        if (hashCode == 0) {
+            hashCode = mId.hashCode();
+            hashCode = 31 * hashCode + (mTitle == null ? 0 : mTitle.hashCode());
+            hashCode = 31 * hashCode + (mDescription == null ? 0 : mDescription.hashCode());
+            mHashCode = hashCode;
+        }
+        return hashCode;
     }
 
     @Override
@@ -16,7 +16,6 @@
 
 package com.code.englishnotes.data.data.source.local;
 
-import android.arch.persistence.db.SupportSQLiteOpenHelper;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
@@ -27,6 +26,9 @@ import android.text.TextUtils;
 
 import com.code.englishnotes.data.data.Task;
 import com.code.englishnotes.data.data.source.TasksDataSource;
+import com.code.englishnotes.data.database.EnglishNotesDatabase;
+import com.code.englishnotes.utils.database.CursorMapper;
+import com.code.englishnotes.utils.database.MapToListOperator;
 import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
 import com.google.common.base.Optional;
 import com.squareup.sqlbrite3.BriteDatabase;
@@ -36,7 +38,10 @@ import java.util.List;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
-import io.reactivex.functions.Function;
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -46,35 +51,30 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class TasksLocalDataSource implements TasksDataSource {
 
+    private static final String[] PROJECTION = {
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED
+    };
+
     @Nullable
     private static TasksLocalDataSource INSTANCE;
 
+    // Opened on the io scheduler the first time it is needed.
     @NonNull
-    private final BriteDatabase mDatabaseHelper;
+    private final Single<BriteDatabase> mDatabaseHelper;
 
     @NonNull
-    private Function<Cursor, Task> mTaskMapperFunction;
+    private final Scheduler mDatabaseWriteScheduler;
 
     // Prevent direct instantiation.
     private TasksLocalDataSource(@NonNull Context context,
                                  @NonNull BaseSchedulerProvider schedulerProvider) {
         checkNotNull(context, "context cannot be null");
         checkNotNull(schedulerProvider, "scheduleProvider cannot be null");
-        TasksDbHelper dbHelper = new TasksDbHelper(context);
-        SqlBrite sqlBrite = new SqlBrite.Builder().build();
-        mDatabaseHelper = sqlBrite.wrapDatabaseHelper((SupportSQLiteOpenHelper) dbHelper, schedulerProvider.io());
-        mTaskMapperFunction = this::getTask;
-    }
-
-    @NonNull
-    private Task getTask(@NonNull Cursor c) {
-        String itemId = c.getString(c.getColumnIndexOrThrow(TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID));
-        String title = c.getString(c.getColumnIndexOrThrow(TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE));
-        String description =
-                c.getString(c.getColumnIndexOrThrow(TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION));
-        boolean completed =
-                c.getInt(c.getColumnIndexOrThrow(TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED)) == 1;
-        return new Task(title, description, itemId, completed);
+        mDatabaseHelper = EnglishNotesDatabase.getInstance(context, schedulerProvider);
+        mDatabaseWriteScheduler = schedulerProvider.databaseWrite();
     }
 
     public static TasksLocalDataSource getInstance(
@@ -90,32 +90,35 @@ public class TasksLocalDataSource implements TasksDataSource {
         INSTANCE = null;
     }
 
+    @NonNull
+    private Observable<SqlBrite.Query> createQuery(@NonNull String table, @NonNull String sql,
+                                                   @NonNull Object... args) {
+        return mDatabaseHelper.flatMapObservable(database -> database.createQuery(table, sql, args));
+    }
+
+    /**
+     * Runs a write on the databaseWrite scheduler once the database is open, after the writes
+     * submitted before it, so the calling thread never waits for the open. A failing write is
+     * reported to the RxJava error handler.
+     */
+    private void write(@NonNull Consumer<BriteDatabase> write) {
+        mDatabaseHelper.observeOn(mDatabaseWriteScheduler).subscribe(write);
+    }
+
     @Override
     public Flowable<List<Task>> getTasks() {
-        String[] projection = {
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s", TextUtils.join(",", projection), TasksPersistenceContract.TaskEntry.TABLE_NAME);
-        return mDatabaseHelper.createQuery(TasksPersistenceContract.TaskEntry.TABLE_NAME, sql)
-                .mapToList(mTaskMapperFunction)
+        String sql = String.format("SELECT %s FROM %s", TextUtils.join(",", PROJECTION), TasksPersistenceContract.TaskEntry.TABLE_NAME);
+        return createQuery(TasksPersistenceContract.TaskEntry.TABLE_NAME, sql)
+                .lift(new MapToListOperator<>(TaskMapper::new))
                 .toFlowable(BackpressureStrategy.BUFFER);
     }
 
     @Override
     public Flowable<Optional<Task>> getTask(@NonNull String taskId) {
-        String[] projection = {
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION,
-                TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s WHERE %s LIKE ?",
-                TextUtils.join(",", projection), TasksPersistenceContract.TaskEntry.TABLE_NAME, TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID);
-        return mDatabaseHelper.createQuery(TasksPersistenceContract.TaskEntry.TABLE_NAME, sql, taskId)
-                .mapToOneOrDefault(cursor -> Optional.of(mTaskMapperFunction.apply(cursor)), Optional.<Task>absent())
+        String sql = String.format("SELECT %s FROM %s WHERE %s = ?",
+                TextUtils.join(",", PROJECTION), TasksPersistenceContract.TaskEntry.TABLE_NAME, TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID);
+        return createQuery(TasksPersistenceContract.TaskEntry.TABLE_NAME, sql, taskId)
+                .lift(SqlBrite.Query.mapToOneOrDefault(cursor -> Optional.of(new TaskMapper().apply(cursor)), Optional.<Task>absent()))
                 .toFlowable(BackpressureStrategy.BUFFER);
     }
 
@@ -127,7 +130,7 @@ public class TasksLocalDataSource implements TasksDataSource {
         values.put(TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE, task.getTitle());
         values.put(TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION, task.getDescription());
         values.put(TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED, task.isCompleted());
-        mDatabaseHelper.insert(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values);
+        write(database -> database.insert(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values));
     }
 
     @Override
@@ -140,9 +143,9 @@ public class TasksLocalDataSource implements TasksDataSource {
         ContentValues values = new ContentValues();
         values.put(TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED, true);
 
-        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {taskId};
-        mDatabaseHelper.update(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs);
+        write(database -> database.update(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs));
     }
 
     @Override
@@ -155,16 +158,16 @@ public class TasksLocalDataSource implements TasksDataSource {
         ContentValues values = new ContentValues();
         values.put(TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED, false);
 
-        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {taskId};
-        mDatabaseHelper.update(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs);
+        write(database -> database.update(TasksPersistenceContract.TaskEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs));
     }
 
     @Override
     public void clearCompletedTasks() {
-        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED + " LIKE ?";
+        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED + " = ?";
         String[] selectionArgs = {"1"};
-        mDatabaseHelper.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, selection, selectionArgs);
+        write(database -> database.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, selection, selectionArgs));
     }
 
     @Override
@@ -175,13 +178,33 @@ public class TasksLocalDataSource implements TasksDataSource {
 
     @Override
     public void deleteAllTasks() {
-        mDatabaseHelper.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, null);
+        write(database -> database.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, null));
     }
 
     @Override
     public void deleteTask(@NonNull String taskId) {
-        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {taskId};
-        mDatabaseHelper.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, selection, selectionArgs);
+        write(database -> database.delete(TasksPersistenceContract.TaskEntry.TABLE_NAME, selection, selectionArgs));
+    }
+
+    /**
+     * Maps rows selected with {@link #PROJECTION}; the column indices follow its order.
+     */
+    private static final class TaskMapper extends CursorMapper<Task> {
+
+        TaskMapper() {
+            super(PROJECTION);
+        }
+
+        @NonNull
+        @Override
+        protected Task map(@NonNull Cursor c, @NonNull int[] columnIndices) {
+            String itemId = c.getString(columnIndices[0]);
+            String title = c.getString(columnIndices[1]);
+            String description = c.getString(columnIndices[2]);
+            boolean completed = c.getInt(columnIndices[3]) == 1;
+            return new Task(title, description, itemId, completed);
+        }
     }
 }
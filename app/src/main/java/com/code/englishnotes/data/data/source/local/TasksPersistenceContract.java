@@ -16,8 +16,6 @@
 
 package com.code.englishnotes.data.data.source.local;
 
-import android.provider.BaseColumns;
-
 /**
  * The contract used for the db to save the tasks locally.
  */
@@ -28,11 +26,12 @@ public final class TasksPersistenceContract {
     private TasksPersistenceContract() {}
 
     /* Inner class that defines the table contents */
-    public static abstract class TaskEntry implements BaseColumns {
+    public static abstract class TaskEntry {
         public static final String TABLE_NAME = "tasks";
         public static final String COLUMN_NAME_ENTRY_ID = "entryid";
         public static final String COLUMN_NAME_TITLE = "title";
         public static final String COLUMN_NAME_DESCRIPTION = "description";
         public static final String COLUMN_NAME_COMPLETED = "completed";
+        public static final String INDEX_NAME_COMPLETED = "index_tasks_completed";
     }
 }
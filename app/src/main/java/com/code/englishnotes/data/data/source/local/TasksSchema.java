@@ -16,14 +16,18 @@
 
 package com.code.englishnotes.data.data.source.local;
 
-import android.content.Context;
-import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
-
-public class TasksDbHelper extends SQLiteOpenHelper {
-    public static final int DATABASE_VERSION = 1;
-
-    public static final String DATABASE_NAME = "Tasks.db";
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SQL that creates the tasks tables as version 1 of the shared database described by
+ * {@code EnglishNotesSchema}. Later changes to the tables are migrations of that schema, which
+ * alone is versioned.
+ * <p>
+ * Kept free of Android classes so the migrations can be checked on a plain JVM.
+ */
+public final class TasksSchema {
 
     private static final String TEXT_TYPE = " TEXT";
 
@@ -31,7 +35,7 @@ public class TasksDbHelper extends SQLiteOpenHelper {
 
     private static final String COMMA_SEP = ",";
 
-    private static final String SQL_CREATE_ENTRIES =
+    public static final String SQL_CREATE_ENTRIES =
             "CREATE TABLE " + TasksPersistenceContract.TaskEntry.TABLE_NAME + " (" +
                     TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID + TEXT_TYPE + " PRIMARY KEY," +
                     TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE + TEXT_TYPE + COMMA_SEP +
@@ -39,19 +43,18 @@ public class TasksDbHelper extends SQLiteOpenHelper {
                     TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED + BOOLEAN_TYPE +
             " )";
 
-    public TasksDbHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    public static final String SQL_CREATE_COMPLETED_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + TasksPersistenceContract.TaskEntry.INDEX_NAME_COMPLETED +
+                    " ON " + TasksPersistenceContract.TaskEntry.TABLE_NAME +
+                    " (" + TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED + ")";
 
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(SQL_CREATE_ENTRIES);
-    }
-
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Not required as at version 1
-    }
+    /**
+     * Creates the tables of version 1 of the shared database on an empty database.
+     */
+    public static final List<String> CREATE = Collections.unmodifiableList(Arrays.asList(
+            SQL_CREATE_ENTRIES,
+            SQL_CREATE_COMPLETED_INDEX));
 
-    public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Not required as at version 1
+    private TasksSchema() {
     }
 }
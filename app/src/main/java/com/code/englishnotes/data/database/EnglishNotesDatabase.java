@@ -0,0 +1,103 @@
+package com.code.englishnotes.data.database;
+
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.arch.persistence.db.framework.FrameworkSQLiteOpenHelperFactory;
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.os.TraceCompat;
+
+import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
+import com.squareup.sqlbrite3.BriteDatabase;
+import com.squareup.sqlbrite3.SqlBrite;
+
+import io.reactivex.Single;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The one {@link BriteDatabase} shared by every local data source, so they use a single
+ * connection pool and page cache and can write to several tables in one transaction.
+ * <p>
+ * Opening the file, configuring the connection and running migrations happen on the io scheduler
+ * the first time the returned {@link Single} is subscribed to, never on the thread that asks for
+ * the instance. Queries then run on the databaseRead scheduler. The open shows up as the
+ * {@code EnglishNotesDatabase.open} trace section.
+ */
+public final class EnglishNotesDatabase {
+
+    private static final String TRACE_SECTION_OPEN = "EnglishNotesDatabase.open";
+
+    @Nullable
+    private static Single<BriteDatabase> INSTANCE;
+
+    private EnglishNotesDatabase() {
+    }
+
+    /**
+     * @return the database, opened once and shared by every subscriber. A failed open is retried
+     * by the next subscriber.
+     */
+    @NonNull
+    public static Single<BriteDatabase> getInstance(
+            @NonNull Context context,
+            @NonNull BaseSchedulerProvider schedulerProvider) {
+        checkNotNull(context, "context cannot be null");
+        checkNotNull(schedulerProvider, "scheduleProvider cannot be null");
+        final Context applicationContext = context.getApplicationContext();
+        return Single.defer(() -> getOrOpen(applicationContext, schedulerProvider));
+    }
+
+    private static synchronized Single<BriteDatabase> getOrOpen(
+            @NonNull Context context,
+            @NonNull BaseSchedulerProvider schedulerProvider) {
+        if (INSTANCE == null) {
+            INSTANCE = Single.fromCallable(() -> open(context, schedulerProvider))
+                    .subscribeOn(schedulerProvider.io())
+                    .cache();
+        }
+        final Single<BriteDatabase> instance = INSTANCE;
+        return instance.doOnError(throwable -> clear(instance));
+    }
+
+    private static synchronized void clear(Single<BriteDatabase> failed) {
+        if (INSTANCE == failed) {
+            INSTANCE = null;
+        }
+    }
+
+    @NonNull
+    private static BriteDatabase open(@NonNull Context context,
+                                      @NonNull BaseSchedulerProvider schedulerProvider) {
+        TraceCompat.beginSection(TRACE_SECTION_OPEN);
+        try {
+            SupportSQLiteOpenHelper.Configuration configuration =
+                    SupportSQLiteOpenHelper.Configuration.builder(context)
+                            .name(EnglishNotesDbCallback.DATABASE_NAME)
+                            .callback(new EnglishNotesDbCallback(context))
+                            .build();
+            SupportSQLiteOpenHelper dbHelper =
+                    new FrameworkSQLiteOpenHelperFactory().create(configuration);
+            SqlBrite sqlBrite = new SqlBrite.Builder().build();
+            BriteDatabase database = sqlBrite.wrapDatabaseHelper(dbHelper,
+                    schedulerProvider.databaseRead());
+            // Opens the file and runs pending migrations now rather than in the first query.
+            database.getWritableDatabase();
+            return database;
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    /**
+     * Closes the database once it is open, which may be after this call returns.
+     */
+    public static synchronized void destroyInstance() {
+        if (INSTANCE != null) {
+            INSTANCE.subscribe(BriteDatabase::close, throwable -> {
+                // Nothing to close.
+            });
+            INSTANCE = null;
+        }
+    }
+}
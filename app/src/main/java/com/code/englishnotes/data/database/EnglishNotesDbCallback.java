@@ -0,0 +1,168 @@
+package com.code.englishnotes.data.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteStatement;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import com.code.englishnotes.data.data.source.local.TasksPersistenceContract;
+import com.code.englishnotes.data.source.local.VocabularyPersistenceContract;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+import com.code.englishnotes.utils.database.ProfiledOpenHelperCallback;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates, configures and upgrades the database shared by the vocabulary and tasks tables.
+ * <p>
+ * Earlier releases kept each table in its own file. When the shared database is created the rows
+ * of those files are copied into it, and the files are deleted once the shared database is open.
+ */
+public class EnglishNotesDbCallback extends ProfiledOpenHelperCallback {
+    public static final int DATABASE_VERSION = EnglishNotesSchema.VERSION;
+
+    public static final String DATABASE_NAME = "EnglishNotes.db";
+
+    static final String LEGACY_VOCABULARY_DATABASE_NAME = "Vocabulary.db";
+
+    static final String LEGACY_TASKS_DATABASE_NAME = "Tasks.db";
+
+    // The columns every version of the standalone databases had.
+    private static final String[] LEGACY_VOCABULARY_COLUMNS = {
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED
+    };
+
+    private static final String[] LEGACY_TASKS_COLUMNS = {
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_ENTRY_ID,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_TITLE,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_DESCRIPTION,
+            TasksPersistenceContract.TaskEntry.COLUMN_NAME_COMPLETED
+    };
+
+    @NonNull
+    private final Context mContext;
+
+    @NonNull
+    private final List<String> mImportedDatabaseNames = new ArrayList<>(2);
+
+    public EnglishNotesDbCallback(Context context) {
+        this(context, ConnectionProfile.DEFAULT);
+    }
+
+    public EnglishNotesDbCallback(Context context, ConnectionProfile connectionProfile) {
+        super(DATABASE_VERSION, connectionProfile);
+        mContext = context;
+    }
+
+    @Override
+    public void onCreate(SupportSQLiteDatabase db) {
+        for (String statement : EnglishNotesSchema.CREATE) {
+            db.execSQL(statement);
+        }
+        importLegacyDatabase(db, LEGACY_VOCABULARY_DATABASE_NAME,
+                VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, LEGACY_VOCABULARY_COLUMNS);
+        importLegacyDatabase(db, LEGACY_TASKS_DATABASE_NAME,
+                TasksPersistenceContract.TaskEntry.TABLE_NAME, LEGACY_TASKS_COLUMNS);
+    }
+
+    @Override
+    public void onOpen(SupportSQLiteDatabase db) {
+        super.onOpen(db);
+        // Saves use INSERT OR REPLACE. Without recursive triggers SQLite drops the replaced row
+        // silently and the search index would keep a stale entry for it.
+        db.execSQL("PRAGMA recursive_triggers = ON");
+        // The rows are committed together with the new schema by now.
+        for (String databaseName : mImportedDatabaseNames) {
+            mContext.deleteDatabase(databaseName);
+        }
+        mImportedDatabaseNames.clear();
+    }
+
+    @Override
+    public void onUpgrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+        migrate(db, EnglishNotesSchema.MIGRATIONS, oldVersion, newVersion);
+    }
+
+    @Override
+    public void onDowngrade(SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+        // Not required, there is no earlier schema to go back to
+    }
+
+    /**
+     * Streams the rows of a standalone database into {@code db}, one cursor window at a time.
+     * ATTACH would be simpler but Android turns write-ahead logging off for good on a connection
+     * that ever attached a database.
+     * <p>
+     * A file that cannot be read is left in place rather than deleted.
+     */
+    private void importLegacyDatabase(SupportSQLiteDatabase db, String databaseName,
+                                      String table, String[] columns) {
+        File file = mContext.getDatabasePath(databaseName);
+        if (!file.exists()) {
+            return;
+        }
+        String sql = String.format("INSERT OR IGNORE INTO %s (%s) VALUES (%s)", table,
+                TextUtils.join(",", columns), placeholders(columns.length));
+        SupportSQLiteStatement insert = db.compileStatement(sql);
+        SQLiteDatabase legacy = null;
+        Cursor cursor = null;
+        try {
+            legacy = SQLiteDatabase.openDatabase(file.getPath(), null,
+                    SQLiteDatabase.OPEN_READONLY);
+            cursor = legacy.query(table, columns, null, null, null, null, null);
+            while (cursor.moveToNext()) {
+                insert.clearBindings();
+                for (int i = 0; i < columns.length; i++) {
+                    if (cursor.isNull(i)) {
+                        insert.bindNull(i + 1);
+                    } else {
+                        insert.bindString(i + 1, cursor.getString(i));
+                    }
+                }
+                insert.executeInsert();
+            }
+            mImportedDatabaseNames.add(databaseName);
+        } catch (SQLiteException e) {
+            // Unreadable or missing the table, keep the file so nothing is lost.
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            if (legacy != null) {
+                legacy.close();
+            }
+            closeQuietly(insert);
+        }
+    }
+
+    private static void closeQuietly(@NonNull SupportSQLiteStatement statement) {
+        try {
+            statement.close();
+        } catch (IOException ignored) {
+            // Closing a compiled statement only releases its native handle.
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append('?');
+        }
+        return builder.toString();
+    }
+}
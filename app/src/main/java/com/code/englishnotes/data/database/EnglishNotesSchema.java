@@ -0,0 +1,115 @@
+package com.code.englishnotes.data.database;
+
+import com.code.englishnotes.data.data.source.local.TasksSchema;
+import com.code.englishnotes.data.model.ReviewState;
+import com.code.englishnotes.data.source.local.VocabularyPersistenceContract;
+import com.code.englishnotes.data.source.local.VocabularySchema;
+import com.code.englishnotes.utils.database.Migration;
+import com.code.englishnotes.utils.database.Migrations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The shared database holding the vocabulary and tasks tables.
+ * <p>
+ * Version 1 is the state both standalone databases had reached when they were merged. Changes to
+ * either table from now on are migrations of this schema, and a fresh database is created by
+ * replaying them on top of version 1, so a new install always ends up with the same schema as an
+ * upgraded one.
+ */
+public final class EnglishNotesSchema {
+
+    public static final int VERSION = 4;
+
+    public static final String SQL_ADD_VOCABULARY_UPDATED_AT =
+            "ALTER TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " ADD COLUMN " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT +
+                    " INTEGER NOT NULL DEFAULT 0";
+
+    public static final String SQL_CREATE_VOCABULARY_UPDATED_AT_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + VocabularyPersistenceContract.VocabularyEntry.INDEX_NAME_UPDATED_AT +
+                    " ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " (" + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT + ")";
+
+    public static final String SQL_ADD_VOCABULARY_REVIEW_EASE =
+            "ALTER TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " ADD COLUMN " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_EASE +
+                    " INTEGER NOT NULL DEFAULT " + ReviewState.NEW.getEase();
+
+    public static final String SQL_ADD_VOCABULARY_REVIEW_INTERVAL =
+            "ALTER TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " ADD COLUMN " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_INTERVAL +
+                    " INTEGER NOT NULL DEFAULT " + ReviewState.NEW.getIntervalDays();
+
+    public static final String SQL_ADD_VOCABULARY_REVIEW_REPETITIONS =
+            "ALTER TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " ADD COLUMN " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_REPETITIONS +
+                    " INTEGER NOT NULL DEFAULT " + ReviewState.NEW.getRepetitions();
+
+    public static final String SQL_ADD_VOCABULARY_REVIEW_DUE_AT =
+            "ALTER TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " ADD COLUMN " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT +
+                    " INTEGER NOT NULL DEFAULT " + ReviewState.NEW.getDueAt();
+
+    // Picks the next reviews with a range scan that is already in due order, whatever the size of
+    // the table.
+    public static final String SQL_CREATE_VOCABULARY_REVIEW_DUE_AT_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + VocabularyPersistenceContract.VocabularyEntry.INDEX_NAME_REVIEW_DUE_AT +
+                    " ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " (" + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT + ")";
+
+    // AUTOINCREMENT, so a sequence is never handed out twice even once the outbox is emptied.
+    public static final String SQL_CREATE_VOCABULARY_OUTBOX =
+            "CREATE TABLE " + VocabularyPersistenceContract.VocabularyOutboxEntry.TABLE_NAME + " (" +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_SEQUENCE + " INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_OPERATION + " TEXT NOT NULL," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENTRY_ID + " TEXT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TITLE + " TEXT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_DESCRIPTION + " TEXT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TYPE + " TEXT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_PRONOUNCE + " TEXT," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_COMPLETED + " INTEGER," +
+                    VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENQUEUED_AT + " INTEGER NOT NULL" +
+                    " )";
+
+    /**
+     * Creates the schema of version 1 on an empty database.
+     */
+    public static final List<String> CREATE_VERSION_1;
+
+    static {
+        List<String> create = new ArrayList<>(VocabularySchema.CREATE);
+        create.addAll(TasksSchema.CREATE);
+        CREATE_VERSION_1 = Collections.unmodifiableList(create);
+    }
+
+    public static final Migrations MIGRATIONS = new Migrations(
+            new Migration(1, 2,
+                    SQL_ADD_VOCABULARY_UPDATED_AT,
+                    SQL_CREATE_VOCABULARY_UPDATED_AT_INDEX),
+            new Migration(2, 3, SQL_CREATE_VOCABULARY_OUTBOX),
+            new Migration(3, 4,
+                    SQL_ADD_VOCABULARY_REVIEW_EASE,
+                    SQL_ADD_VOCABULARY_REVIEW_INTERVAL,
+                    SQL_ADD_VOCABULARY_REVIEW_REPETITIONS,
+                    SQL_ADD_VOCABULARY_REVIEW_DUE_AT,
+                    SQL_CREATE_VOCABULARY_REVIEW_DUE_AT_INDEX));
+
+    /**
+     * Creates the current schema on an empty database.
+     */
+    public static final List<String> CREATE;
+
+    static {
+        List<String> create = new ArrayList<>(CREATE_VERSION_1);
+        for (Migration migration : MIGRATIONS.findPath(1, VERSION)) {
+            create.addAll(migration.getStatements());
+        }
+        CREATE = Collections.unmodifiableList(create);
+    }
+
+    private EnglishNotesSchema() {
+    }
+}
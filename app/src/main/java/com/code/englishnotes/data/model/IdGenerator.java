@@ -0,0 +1,17 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Generates the ids of new {@link Vocabulary} and {@link com.code.englishnotes.data.data.Task}
+ * objects. Installed through {@link Ids#setGenerator(IdGenerator)}.
+ * <p>
+ * Implementations are called from any thread and must be thread safe.
+ */
+public interface IdGenerator {
+
+    @NonNull
+    UUID nextId();
+}
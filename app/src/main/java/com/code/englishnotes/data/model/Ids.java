@@ -0,0 +1,30 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Hands out the ids of new models from the installed {@link IdGenerator},
+ * {@link TimeOrderedIdGenerator} unless another one is set.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator sGenerator = TimeOrderedIdGenerator.getInstance();
+
+    private Ids() {
+    }
+
+    @NonNull
+    public static UUID nextId() {
+        return sGenerator.nextId();
+    }
+
+    /**
+     * @param generator the generator to use from now on, or null to restore the default one
+     */
+    public static void setGenerator(@Nullable IdGenerator generator) {
+        sGenerator = generator == null ? TimeOrderedIdGenerator.getInstance() : generator;
+    }
+}
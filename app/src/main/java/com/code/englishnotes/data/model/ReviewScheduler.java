@@ -0,0 +1,83 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Schedules vocabulary reviews with the SM-2 algorithm: a vocabulary recalled again waits 1, then
+ * 6 days, then its previous interval times its ease; a forgotten one starts over at 1 day. The
+ * ease moves with every recalled review, down for hard ones and up for easy ones.
+ */
+public final class ReviewScheduler {
+
+    /**
+     * How well a vocabulary was recalled, with its SM-2 quality from 0 to 5.
+     */
+    public enum Grade {
+        /**
+         * Forgotten.
+         */
+        AGAIN(1),
+        /**
+         * Recalled with serious difficulty.
+         */
+        HARD(3),
+        /**
+         * Recalled after some hesitation.
+         */
+        GOOD(4),
+        /**
+         * Recalled right away.
+         */
+        EASY(5);
+
+        private final int mQuality;
+
+        Grade(int quality) {
+            mQuality = quality;
+        }
+
+        public int getQuality() {
+            return mQuality;
+        }
+    }
+
+    // Keeps the due time far from overflowing, about a century.
+    private static final int MAXIMUM_INTERVAL_DAYS = 36500;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private ReviewScheduler() {
+    }
+
+    /**
+     * @param now when the review happened, in milliseconds since the epoch
+     * @return the state after reviewing a vocabulary in {@code state} with {@code grade}
+     */
+    @NonNull
+    public static ReviewState review(@NonNull ReviewState state, @NonNull Grade grade, long now) {
+        checkNotNull(state);
+        checkNotNull(grade);
+        if (grade.getQuality() < 3) {
+            // SM-2 keeps the ease of a forgotten vocabulary and only restarts its repetitions.
+            return new ReviewState(state.getEase(), 1, 0, now + DAY_MILLIS);
+        }
+        int intervalDays;
+        if (state.getRepetitions() == 0) {
+            intervalDays = 1;
+        } else if (state.getRepetitions() == 1) {
+            intervalDays = 6;
+        } else {
+            intervalDays = (int) Math.min(MAXIMUM_INTERVAL_DAYS,
+                    Math.round(state.getIntervalDays() * (state.getEase() / 1000.0)));
+        }
+        int missing = 5 - grade.getQuality();
+        int ease = Math.max(ReviewState.MINIMUM_EASE,
+                state.getEase() + 100 - missing * (80 + missing * 20));
+        return new ReviewState(ease, intervalDays, state.getRepetitions() + 1,
+                now + intervalDays * DAY_MILLIS);
+    }
+}
@@ -0,0 +1,103 @@
+package com.code.englishnotes.data.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Where a vocabulary stands in the spaced-repetition schedule of {@link ReviewScheduler}.
+ * <p>
+ * The ease is kept in thousandths, e.g. 2500 for the initial factor of 2.5, so it is stored as
+ * an exact integer.
+ */
+public final class ReviewState {
+
+    public static final int INITIAL_EASE = 2500;
+
+    public static final int MINIMUM_EASE = 1300;
+
+    /**
+     * The state of a vocabulary that was never reviewed. It has no due time yet, which is kept as
+     * 0.
+     */
+    public static final ReviewState NEW = new ReviewState(INITIAL_EASE, 0, 0, 0);
+
+    private final int mEase;
+
+    private final int mIntervalDays;
+
+    private final int mRepetitions;
+
+    private final long mDueAt;
+
+    /**
+     * @param ease         the ease factor in thousandths
+     * @param intervalDays the days between the last review and the next one
+     * @param repetitions  the reviews recalled in a row since the vocabulary was last forgotten
+     * @param dueAt        when the next review is due, in milliseconds since the epoch
+     */
+    public ReviewState(int ease, int intervalDays, int repetitions, long dueAt) {
+        checkArgument(ease >= MINIMUM_EASE, "ease cannot be lower than MINIMUM_EASE");
+        checkArgument(intervalDays >= 0, "intervalDays cannot be negative");
+        checkArgument(repetitions >= 0, "repetitions cannot be negative");
+        mEase = ease;
+        mIntervalDays = intervalDays;
+        mRepetitions = repetitions;
+        mDueAt = dueAt;
+    }
+
+    public int getEase() {
+        return mEase;
+    }
+
+    public int getIntervalDays() {
+        return mIntervalDays;
+    }
+
+    public int getRepetitions() {
+        return mRepetitions;
+    }
+
+    public long getDueAt() {
+        return mDueAt;
+    }
+
+    /**
+     * @return true when the vocabulary was never reviewed
+     */
+    public boolean isNew() {
+        return mDueAt == NEW.mDueAt;
+    }
+
+    /**
+     * @return true when the vocabulary was reviewed before and its next review is due at
+     * {@code now}
+     */
+    public boolean isDue(long now) {
+        return !isNew() && mDueAt <= now;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ReviewState state = (ReviewState) o;
+        return mEase == state.mEase &&
+                mIntervalDays == state.mIntervalDays &&
+                mRepetitions == state.mRepetitions &&
+                mDueAt == state.mDueAt;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mEase;
+        result = 31 * result + mIntervalDays;
+        result = 31 * result + mRepetitions;
+        result = 31 * result + (int) (mDueAt ^ (mDueAt >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ReviewState ease " + mEase + ", interval " + mIntervalDays + " days, " +
+                mRepetitions + " repetitions, due at " + mDueAt;
+    }
+}
@@ -0,0 +1,72 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs: 48 bits of Unix time in milliseconds, a 12 bit counter and 62
+ * random bits.
+ * <p>
+ * The ids increase strictly, also in their string form, so new rows land at the end of the
+ * {@code entryid} index instead of at a random page. When more than 4096 ids are generated in
+ * the same millisecond the counter carries into the timestamp, which then runs slightly ahead of
+ * the clock until the clock catches up. The random bits come from a {@link Random} seeded once
+ * from {@link SecureRandom}: {@link UUID#randomUUID()} reads the secure generator for every id,
+ * which is slow and can block, while these ids only need to be unique, not unpredictable.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    private static final long VERSION_7 = 0x7000L;
+
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private static TimeOrderedIdGenerator INSTANCE;
+
+    private final Random mRandom;
+
+    // The last timestamp shifted left by COUNTER_BITS, plus the counter.
+    private final AtomicLong mLastTimeAndCounter = new AtomicLong();
+
+    @VisibleForTesting
+    TimeOrderedIdGenerator(@NonNull Random random) {
+        mRandom = random;
+    }
+
+    public static synchronized TimeOrderedIdGenerator getInstance() {
+        if (INSTANCE == null) {
+            INSTANCE = new TimeOrderedIdGenerator(new Random(new SecureRandom().nextLong()));
+        }
+        return INSTANCE;
+    }
+
+    @NonNull
+    @Override
+    public UUID nextId() {
+        long timeAndCounter = nextTimeAndCounter();
+        long mostSignificantBits = (timeAndCounter >>> COUNTER_BITS) << 16
+                | VERSION_7
+                | (timeAndCounter & ((1 << COUNTER_BITS) - 1));
+        long leastSignificantBits = VARIANT | (mRandom.nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificantBits, leastSignificantBits);
+    }
+
+    private long nextTimeAndCounter() {
+        long now = System.currentTimeMillis() << COUNTER_BITS;
+        while (true) {
+            long last = mLastTimeAndCounter.get();
+            long next = Math.max(now, last + 1);
+            if (mLastTimeAndCounter.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -5,12 +5,25 @@ import android.support.annotation.Nullable;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Strings;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
-import java.util.UUID;
+import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * A vocabulary entry, laid out to keep large decks small in memory: the id is a
+ * {@link VocabularyId}, two {@code long}s for the UUIDs the app generates, the type is interned
+ * since a deck only uses a handful of them, and the flags share a single byte. The hash code is
+ * computed once, on first use.
+ */
 public final class Vocabulary {
+
+    private static final Interner<String> TYPES = Interners.newWeakInterner();
+
+    private static final byte FLAG_COMPLETED = 1;
+
     @NonNull
-    private final String mId;
+    private final VocabularyId mId;
 
     @Nullable
     private final String mTitle;
@@ -24,35 +37,51 @@ public final class Vocabulary {
     @Nullable
     private final String mPronounce;
 
-    private final boolean mCompleted;
+    private final byte mFlags;
+
+    // Computed on first use, 0 until then.
+    private int mHashCode;
 
     public Vocabulary(@Nullable String mTitle, @Nullable String mDescription) {
-        this(UUID.randomUUID().toString(), mTitle, mDescription, null, null, false);
+        this(VocabularyId.random(), mTitle, mDescription, null, null, false);
     }
 
-    public Vocabulary(@Nullable String mTitle, @Nullable String mDescription, @Nullable String mId) {
+    public Vocabulary(@Nullable String mTitle, @Nullable String mDescription, @NonNull String mId) {
         this(mId, mTitle, mDescription, null, null, false);
     }
 
-    public Vocabulary(@Nullable String mTitle, @Nullable String mDescription, @Nullable String mId, boolean mCompleted) {
+    public Vocabulary(@Nullable String mTitle, @Nullable String mDescription, @NonNull String mId, boolean mCompleted) {
         this(mId, mTitle, mDescription, null, null, mCompleted);
     }
 
     public Vocabulary(@Nullable String mTitle, @Nullable String mDescription, boolean mCompleted) {
-        this(UUID.randomUUID().toString(), mTitle, mDescription, null, null, mCompleted);
+        this(VocabularyId.random(), mTitle, mDescription, null, null, mCompleted);
     }
 
     public Vocabulary(@NonNull String mId, @Nullable String mTitle, @Nullable String mDescription, @Nullable String mType, @Nullable String mPronounce, boolean mCompleted) {
-        this.mId = mId;
+        this(VocabularyId.of(mId), mTitle, mDescription, mType, mPronounce, mCompleted);
+    }
+
+    public Vocabulary(@NonNull VocabularyId mId, @Nullable String mTitle, @Nullable String mDescription, @Nullable String mType, @Nullable String mPronounce, boolean mCompleted) {
+        this.mId = checkNotNull(mId);
         this.mTitle = mTitle;
         this.mDescription = mDescription;
-        this.mType = mType;
+        this.mType = mType == null ? null : TYPES.intern(mType);
         this.mPronounce = mPronounce;
-        this.mCompleted = mCompleted;
+        this.mFlags = mCompleted ? FLAG_COMPLETED : 0;
     }
 
+    /**
+     * @return the id as a string, built on every call for UUID ids; prefer
+     * {@link #getVocabularyId()} for lookups and comparisons
+     */
     @NonNull
     public String getId() {
+        return mId.toString();
+    }
+
+    @NonNull
+    public VocabularyId getVocabularyId() {
         return mId;
     }
 
@@ -77,11 +106,11 @@ public final class Vocabulary {
     }
 
     public boolean isCompleted() {
-        return mCompleted;
+        return (mFlags & FLAG_COMPLETED) != 0;
     }
 
     public boolean isActive() {
-        return !mCompleted;
+        return !isCompleted();
     }
 
     public boolean isEmpty() {
@@ -103,7 +132,16 @@ public final class Vocabulary {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(mId, mTitle, mDescription, mPronounce, mType);
+        int hashCode = mHashCode;
+        if (hashCode == 0) {
+            hashCode = mId.hashCode();
+            hashCode = 31 * hashCode + (mTitle == null ? 0 : mTitle.hashCode());
+            hashCode = 31 * hashCode + (mDescription == null ? 0 : mDescription.hashCode());
+            hashCode = 31 * hashCode + (mPronounce == null ? 0 : mPronounce.hashCode());
+            hashCode = 31 * hashCode + (mType == null ? 0 : mType.hashCode());
+            mHashCode = hashCode;
+        }
+        return hashCode;
     }
 
     @Override
@@ -0,0 +1,133 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A single write applied to the vocabulary store, so subscribers can patch the data they hold
+ * instead of reloading the whole list.
+ */
+public final class VocabularyChange {
+
+    public enum Type {
+        /**
+         * {@link #getVocabulary()} was inserted, or replaced the row with the same id.
+         */
+        UPSERT,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was marked as completed.
+         */
+        COMPLETE,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was marked as active.
+         */
+        ACTIVATE,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was deleted.
+         */
+        DELETE,
+        /**
+         * Every completed vocabulary was deleted.
+         */
+        DELETE_COMPLETED,
+        /**
+         * Every vocabulary was deleted.
+         */
+        DELETE_ALL,
+        /**
+         * Too many vocabularies were written at once to report them one by one, as when a
+         * snapshot is restored; subscribers must reload what they hold.
+         */
+        RELOAD
+    }
+
+    @NonNull
+    private final Type mType;
+
+    // Null for UPSERT, whose id is the one of the vocabulary and is only built as a string when asked.
+    @Nullable
+    private final String mVocabularyId;
+
+    @Nullable
+    private final Vocabulary mVocabulary;
+
+    private VocabularyChange(@NonNull Type type, @Nullable String vocabularyId, @Nullable Vocabulary vocabulary) {
+        mType = type;
+        mVocabularyId = vocabularyId;
+        mVocabulary = vocabulary;
+    }
+
+    public static VocabularyChange upsert(@NonNull Vocabulary vocabulary) {
+        return new VocabularyChange(Type.UPSERT, null, checkNotNull(vocabulary));
+    }
+
+    public static VocabularyChange complete(@NonNull String vocabularyId) {
+        return new VocabularyChange(Type.COMPLETE, checkNotNull(vocabularyId), null);
+    }
+
+    public static VocabularyChange activate(@NonNull String vocabularyId) {
+        return new VocabularyChange(Type.ACTIVATE, checkNotNull(vocabularyId), null);
+    }
+
+    public static VocabularyChange delete(@NonNull String vocabularyId) {
+        return new VocabularyChange(Type.DELETE, checkNotNull(vocabularyId), null);
+    }
+
+    public static VocabularyChange deleteCompleted() {
+        return new VocabularyChange(Type.DELETE_COMPLETED, null, null);
+    }
+
+    public static VocabularyChange deleteAll() {
+        return new VocabularyChange(Type.DELETE_ALL, null, null);
+    }
+
+    public static VocabularyChange reload() {
+        return new VocabularyChange(Type.RELOAD, null, null);
+    }
+
+    @NonNull
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * @return the id of the changed vocabulary, null for {@link Type#DELETE_COMPLETED},
+     * {@link Type#DELETE_ALL} and {@link Type#RELOAD}; built on every call for {@link Type#UPSERT}
+     */
+    @Nullable
+    public String getVocabularyId() {
+        return mVocabulary != null ? mVocabulary.getId() : mVocabularyId;
+    }
+
+    /**
+     * @return the written vocabulary for {@link Type#UPSERT}, null otherwise
+     */
+    @Nullable
+    public Vocabulary getVocabulary() {
+        return mVocabulary;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VocabularyChange change = (VocabularyChange) o;
+        return mType == change.mType &&
+                Objects.equal(mVocabularyId, change.mVocabularyId) &&
+                Objects.equal(mVocabulary, change.mVocabulary);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mType, mVocabularyId, mVocabulary);
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyChange " + mType + " " + getVocabularyId();
+    }
+}
@@ -0,0 +1,87 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * What changed in a vocabulary store since a sync token: the vocabularies written since then and
+ * the ids of the ones deleted since then, plus the token to ask for the next delta with.
+ */
+public final class VocabularyDelta {
+
+    /**
+     * The token that asks for every vocabulary.
+     */
+    public static final long INITIAL_SYNC_TOKEN = 0;
+
+    @NonNull
+    private final List<Vocabulary> mChangedVocabularies;
+
+    @NonNull
+    private final List<String> mDeletedVocabularyIds;
+
+    private final long mSyncToken;
+
+    public VocabularyDelta(@NonNull Collection<Vocabulary> changedVocabularies,
+                           @NonNull Collection<String> deletedVocabularyIds, long syncToken) {
+        mChangedVocabularies = ImmutableList.copyOf(checkNotNull(changedVocabularies));
+        mDeletedVocabularyIds = ImmutableList.copyOf(checkNotNull(deletedVocabularyIds));
+        mSyncToken = syncToken;
+    }
+
+    /**
+     * @return the vocabularies inserted or updated since the requested token, in their latest
+     * state
+     */
+    @NonNull
+    public List<Vocabulary> getChangedVocabularies() {
+        return mChangedVocabularies;
+    }
+
+    /**
+     * @return the ids of the vocabularies deleted since the requested token
+     */
+    @NonNull
+    public List<String> getDeletedVocabularyIds() {
+        return mDeletedVocabularyIds;
+    }
+
+    /**
+     * @return the token to pass to the next request so it only returns what changes after this one
+     */
+    public long getSyncToken() {
+        return mSyncToken;
+    }
+
+    public boolean isEmpty() {
+        return mChangedVocabularies.isEmpty() && mDeletedVocabularyIds.isEmpty();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VocabularyDelta delta = (VocabularyDelta) o;
+        return mSyncToken == delta.mSyncToken &&
+                Objects.equal(mChangedVocabularies, delta.mChangedVocabularies) &&
+                Objects.equal(mDeletedVocabularyIds, delta.mDeletedVocabularyIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mChangedVocabularies, mDeletedVocabularyIds, mSyncToken);
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyDelta " + mChangedVocabularies.size() + " changed, " +
+                mDeletedVocabularyIds.size() + " deleted, token " + mSyncToken;
+    }
+}
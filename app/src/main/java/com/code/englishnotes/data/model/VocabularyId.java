@@ -0,0 +1,182 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The id of a {@link Vocabulary}. Ids in the canonical lowercase UUID form, the only ones the app
+ * generates, are kept as two {@code long}s instead of a 36 character string; any other id is
+ * kept as given. {@link #toString()} always returns the id as it was written, and ids are ordered
+ * the way their strings are, without building them for UUID ids.
+ */
+public final class VocabularyId implements Comparable<VocabularyId> {
+
+    private static final int UUID_LENGTH = 36;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long mMostSignificantBits;
+
+    private final long mLeastSignificantBits;
+
+    // Null for UUID ids.
+    @Nullable
+    private final String mText;
+
+    private VocabularyId(long mostSignificantBits, long leastSignificantBits, @Nullable String text) {
+        mMostSignificantBits = mostSignificantBits;
+        mLeastSignificantBits = leastSignificantBits;
+        mText = text;
+    }
+
+    @NonNull
+    public static VocabularyId of(@NonNull String id) {
+        checkNotNull(id);
+        if (id.length() != UUID_LENGTH) {
+            return new VocabularyId(0, 0, id);
+        }
+        long mostSignificantBits = 0;
+        long leastSignificantBits = 0;
+        int digits = 0;
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return new VocabularyId(0, 0, id);
+                }
+                continue;
+            }
+            int value;
+            if (c >= '0' && c <= '9') {
+                value = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                value = c - 'a' + 10;
+            } else {
+                // Upper case digits would not survive the round trip through toString().
+                return new VocabularyId(0, 0, id);
+            }
+            if (digits < 16) {
+                mostSignificantBits = (mostSignificantBits << 4) | value;
+            } else {
+                leastSignificantBits = (leastSignificantBits << 4) | value;
+            }
+            digits++;
+        }
+        return new VocabularyId(mostSignificantBits, leastSignificantBits, null);
+    }
+
+    @NonNull
+    public static VocabularyId of(@NonNull UUID uuid) {
+        return new VocabularyId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), null);
+    }
+
+    /**
+     * @return a new id from the installed {@link IdGenerator}
+     */
+    @NonNull
+    public static VocabularyId random() {
+        return of(Ids.nextId());
+    }
+
+    /**
+     * @return true when the id is a UUID kept as two {@code long}s
+     */
+    public boolean isUuid() {
+        return mText == null;
+    }
+
+    /**
+     * @return the most significant half of a UUID id, 0 for other ids
+     */
+    public long getMostSignificantBits() {
+        return mMostSignificantBits;
+    }
+
+    /**
+     * @return the least significant half of a UUID id, 0 for other ids
+     */
+    public long getLeastSignificantBits() {
+        return mLeastSignificantBits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VocabularyId id = (VocabularyId) o;
+        if (mText != null) {
+            return mText.equals(id.mText);
+        }
+        return id.mText == null &&
+                mMostSignificantBits == id.mMostSignificantBits &&
+                mLeastSignificantBits == id.mLeastSignificantBits;
+    }
+
+    @Override
+    public int hashCode() {
+        if (mText != null) {
+            return mText.hashCode();
+        }
+        long bits = mMostSignificantBits ^ mLeastSignificantBits;
+        return (int) (bits >> 32) ^ (int) bits;
+    }
+
+    /**
+     * Orders ids as {@link #toString()} would, so pages keyed by id come in the same order as
+     * from the database. Fixed width lowercase hex digits sort like the unsigned numbers they
+     * spell.
+     */
+    @Override
+    public int compareTo(@NonNull VocabularyId other) {
+        if (mText != null || other.mText != null) {
+            return toString().compareTo(other.toString());
+        }
+        int result = compareUnsigned(mMostSignificantBits, other.mMostSignificantBits);
+        return result != 0 ? result : compareUnsigned(mLeastSignificantBits, other.mLeastSignificantBits);
+    }
+
+    // Long.compareUnsigned needs API 26.
+    private static int compareUnsigned(long first, long second) {
+        return Long.compare(first + Long.MIN_VALUE, second + Long.MIN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        if (mText != null) {
+            return mText;
+        }
+        return toUuidString(mMostSignificantBits, mLeastSignificantBits);
+    }
+
+    /**
+     * @return the canonical lowercase form of the UUID, as {@link #toString()} returns it
+     */
+    @NonNull
+    public static String toUuidString(long mostSignificantBits, long leastSignificantBits) {
+        char[] chars = new char[UUID_LENGTH];
+        writeHex(chars, 0, mostSignificantBits >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, mostSignificantBits >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, mostSignificantBits, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, leastSignificantBits >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, leastSignificantBits, 12);
+        return new String(chars);
+    }
+
+    /**
+     * Writes the lowest {@code digits} hex digits of {@code value} at {@code offset}.
+     */
+    private static void writeHex(@NonNull char[] chars, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            chars[i] = HEX_DIGITS[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.google.common.base.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A local write that still has to be sent to the remote data source, as stored in the outbox.
+ */
+public final class VocabularyMutation {
+
+    /**
+     * The sequence of a mutation that has not been stored yet.
+     */
+    public static final long NO_SEQUENCE = 0;
+
+    public enum Type {
+        /**
+         * {@link #getVocabulary()} was inserted or replaced, completing and activating included.
+         */
+        SAVE,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was marked as completed, by id only.
+         */
+        COMPLETE,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was marked as active, by id only.
+         */
+        ACTIVATE,
+        /**
+         * The vocabulary with {@link #getVocabularyId()} was deleted.
+         */
+        DELETE,
+        /**
+         * Every completed vocabulary was deleted.
+         */
+        DELETE_COMPLETED,
+        /**
+         * Every vocabulary was deleted.
+         */
+        DELETE_ALL
+    }
+
+    private final long mSequence;
+
+    @NonNull
+    private final Type mType;
+
+    @Nullable
+    private final String mVocabularyId;
+
+    @Nullable
+    private final Vocabulary mVocabulary;
+
+    private final long mEnqueuedAtMillis;
+
+    public VocabularyMutation(long sequence, @NonNull Type type, @Nullable String vocabularyId,
+                              @Nullable Vocabulary vocabulary, long enqueuedAtMillis) {
+        mSequence = sequence;
+        mType = checkNotNull(type);
+        mVocabularyId = vocabularyId;
+        mVocabulary = vocabulary;
+        mEnqueuedAtMillis = enqueuedAtMillis;
+    }
+
+    public static VocabularyMutation save(@NonNull Vocabulary vocabulary) {
+        return new VocabularyMutation(NO_SEQUENCE, Type.SAVE, vocabulary.getId(), vocabulary,
+                System.currentTimeMillis());
+    }
+
+    public static VocabularyMutation complete(@NonNull String vocabularyId) {
+        return new VocabularyMutation(NO_SEQUENCE, Type.COMPLETE, checkNotNull(vocabularyId), null,
+                System.currentTimeMillis());
+    }
+
+    public static VocabularyMutation activate(@NonNull String vocabularyId) {
+        return new VocabularyMutation(NO_SEQUENCE, Type.ACTIVATE, checkNotNull(vocabularyId), null,
+                System.currentTimeMillis());
+    }
+
+    public static VocabularyMutation delete(@NonNull String vocabularyId) {
+        return new VocabularyMutation(NO_SEQUENCE, Type.DELETE, checkNotNull(vocabularyId), null,
+                System.currentTimeMillis());
+    }
+
+    public static VocabularyMutation deleteCompleted() {
+        return new VocabularyMutation(NO_SEQUENCE, Type.DELETE_COMPLETED, null, null,
+                System.currentTimeMillis());
+    }
+
+    public static VocabularyMutation deleteAll() {
+        return new VocabularyMutation(NO_SEQUENCE, Type.DELETE_ALL, null, null,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * @return the position of the mutation in the outbox, increasing in the order mutations were
+     * enqueued, or {@link #NO_SEQUENCE} before it is stored
+     */
+    public long getSequence() {
+        return mSequence;
+    }
+
+    @NonNull
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * @return the id of the changed vocabulary, null for {@link Type#DELETE_COMPLETED} and
+     * {@link Type#DELETE_ALL}
+     */
+    @Nullable
+    public String getVocabularyId() {
+        return mVocabularyId;
+    }
+
+    /**
+     * @return the written vocabulary for {@link Type#SAVE}, null otherwise
+     */
+    @Nullable
+    public Vocabulary getVocabulary() {
+        return mVocabulary;
+    }
+
+    /**
+     * @return when the local write was made, in milliseconds since the epoch
+     */
+    public long getEnqueuedAtMillis() {
+        return mEnqueuedAtMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VocabularyMutation mutation = (VocabularyMutation) o;
+        return mSequence == mutation.mSequence &&
+                mEnqueuedAtMillis == mutation.mEnqueuedAtMillis &&
+                mType == mutation.mType &&
+                Objects.equal(mVocabularyId, mutation.mVocabularyId) &&
+                Objects.equal(mVocabulary, mutation.mVocabulary);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(mSequence, mType, mVocabularyId, mVocabulary, mEnqueuedAtMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyMutation " + mSequence + " " + mType + " " + mVocabularyId;
+    }
+}
@@ -0,0 +1,53 @@
+package com.code.englishnotes.data.model;
+
+import android.support.annotation.NonNull;
+
+import com.google.common.base.Objects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A vocabulary together with its place in the review schedule.
+ */
+public final class VocabularyReview {
+
+    @NonNull
+    private final Vocabulary mVocabulary;
+
+    @NonNull
+    private final ReviewState mReviewState;
+
+    public VocabularyReview(@NonNull Vocabulary vocabulary, @NonNull ReviewState reviewState) {
+        mVocabulary = checkNotNull(vocabulary);
+        mReviewState = checkNotNull(reviewState);
+    }
+
+    @NonNull
+    public Vocabulary getVocabulary() {
+        return mVocabulary;
+    }
+
+    @NonNull
+    public ReviewState getReviewState() {
+        return mReviewState;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VocabularyReview review = (VocabularyReview) o;
+        return Objects.equal(mVocabulary, review.mVocabulary) &&
+                Objects.equal(mReviewState, review.mReviewState);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mVocabulary.hashCode() + mReviewState.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyReview " + mVocabulary.getTitle() + ", " + mReviewState;
+    }
+}
@@ -0,0 +1,44 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Receives the measurements of {@link VocabularyOutboxFlusher}.
+ * <p>
+ * Callbacks run on the flusher's scheduler right after the batch they describe, so
+ * implementations must be thread safe and cheap.
+ */
+public interface OutboxMetrics {
+
+    /**
+     * Discards every measurement.
+     */
+    OutboxMetrics NONE = new OutboxMetrics() {
+        @Override
+        public void onBatchFlushed(int mutations, int pushedWrites, long flushNanos,
+                                   long oldestMutationAgeMillis, int queueDepth) {
+        }
+
+        @Override
+        public void onFlushFailed(int attempt, long retryDelayMillis, @NonNull Throwable error) {
+        }
+    };
+
+    /**
+     * @param mutations               mutations removed from the outbox by this batch
+     * @param pushedWrites            vocabularies sent to the remote for them after coalescing,
+     *                                a bulk delete counting as one
+     * @param flushNanos              time spent sending them and removing them from the outbox
+     * @param oldestMutationAgeMillis time between the oldest local write of the batch and the
+     *                                moment the remote acknowledged it
+     * @param queueDepth              mutations still waiting in the outbox
+     */
+    void onBatchFlushed(int mutations, int pushedWrites, long flushNanos,
+                        long oldestMutationAgeMillis, int queueDepth);
+
+    /**
+     * @param attempt          consecutive failures, this one included
+     * @param retryDelayMillis delay before the next attempt
+     */
+    void onFlushFailed(int attempt, long retryDelayMillis, @NonNull Throwable error);
+}
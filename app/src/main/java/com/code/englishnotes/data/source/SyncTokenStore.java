@@ -0,0 +1,21 @@
+package com.code.englishnotes.data.source;
+
+import com.code.englishnotes.data.model.VocabularyDelta;
+
+/**
+ * Keeps the token of the last remote delta saved locally across process restarts, so
+ * {@link VocabularyRepository} asks the remote only for what changed since, instead of every
+ * vocabulary again.
+ * <p>
+ * Implementations must be thread safe: the token is read when a load starts and written on the
+ * databaseWrite scheduler once the delta was saved.
+ */
+public interface SyncTokenStore {
+
+    /**
+     * @return the token saved last, or {@link VocabularyDelta#INITIAL_SYNC_TOKEN} when none was
+     */
+    long getSyncToken();
+
+    void setSyncToken(long syncToken);
+}
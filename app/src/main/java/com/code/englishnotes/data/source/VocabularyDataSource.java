@@ -1,10 +1,16 @@
 package com.code.englishnotes.data.source;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
+import com.code.englishnotes.data.model.ReviewState;
 import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.model.VocabularyReview;
 import com.google.common.base.Optional;
 
+import java.util.Collection;
 import java.util.List;
 
 import io.reactivex.Flowable;
@@ -13,14 +19,67 @@ public interface VocabularyDataSource {
 
     Flowable<List<Vocabulary>> getVocabularys();
 
+    /**
+     * Returns at most {@code pageSize} vocabularies ordered by id, starting right after
+     * {@code afterVocabularyId}, or from the first one when it is null.
+     */
+    Flowable<List<Vocabulary>> getVocabularyPage(@Nullable String afterVocabularyId, int pageSize);
+
     Flowable<Optional<Vocabulary>> getVocabulary(@NonNull String vocabularyId);
 
+    /**
+     * Returns at most {@code limit} vocabularies whose title or description contains words
+     * starting with the words of {@code query}, best matches first.
+     */
+    Flowable<List<Vocabulary>> searchVocabulary(@NonNull String query, int limit);
+
+    /**
+     * Returns at most {@code limit} vocabularies reviewed before whose next review is due, the
+     * longest overdue first. Every list emitted is as of the time it was read, so a review falling
+     * due shows up in the next list after a write, not on its own. Vocabularies never reviewed are
+     * returned by {@link #getNewVocabularies(int)} instead, so they cannot hold back the reviews
+     * that are due.
+     */
+    Flowable<List<VocabularyReview>> getDueVocabularies(int limit);
+
+    /**
+     * Returns at most {@code limit} vocabularies that were never reviewed, in no particular order.
+     */
+    Flowable<List<Vocabulary>> getNewVocabularies(int limit);
+
+    /**
+     * Stores the review state of a vocabulary, as {@code ReviewScheduler} computed it after a
+     * review. An unknown id is ignored.
+     */
+    void saveReviewState(@NonNull String vocabularyId, @NonNull ReviewState reviewState);
+
+    /**
+     * Emits one {@link VocabularyChange} per write made through this data source after the
+     * subscription, once the write has been committed.
+     */
+    Flowable<VocabularyChange> getVocabularyChanges();
+
+    /**
+     * Returns the vocabularies written and deleted after {@code syncToken}, a token returned by an
+     * earlier delta of the same data source, or everything for
+     * {@link VocabularyDelta#INITIAL_SYNC_TOKEN}.
+     */
+    Flowable<VocabularyDelta> getVocabularysChangedSince(long syncToken);
+
     void saveVocabulary(@NonNull Vocabulary vocabulary);
 
+    void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies);
+
     void completeVocabulary(@NonNull Vocabulary vocabulary);
 
     void completeVocabulary(@NonNull String vocabularyId);
 
+    /**
+     * Marks every vocabulary with one of the ids as completed, in a single call. Unknown ids are
+     * ignored.
+     */
+    void completeVocabularies(@NonNull Collection<String> vocabularyIds);
+
     void activateVocabulary(@NonNull Vocabulary vocabulary);
 
     void activateVocabulary(@NonNull String vocabularyId);
@@ -32,4 +91,9 @@ public interface VocabularyDataSource {
     void deleteAllVocabularys();
 
     void deleteVocabulary(@NonNull String vocabularyId);
+
+    /**
+     * Deletes every vocabulary with one of the ids, in a single call. Unknown ids are ignored.
+     */
+    void deleteVocabularies(@NonNull Collection<String> vocabularyIds);
 }
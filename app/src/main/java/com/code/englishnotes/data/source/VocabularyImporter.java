@@ -0,0 +1,221 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyId;
+import com.code.englishnotes.utils.csv.DelimitedReader;
+import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.reactivex.Emitter;
+import io.reactivex.Flowable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Imports word lists, one word per record with the columns title, description, type and
+ * pronunciation. Trailing columns may be left out; records with neither a title nor a
+ * description are skipped, and so is a first record starting with {@code title}, taken as a
+ * header.
+ * <p>
+ * Records are parsed on the computation scheduler and written {@link #mBatchSize} at a time, each
+ * batch in one transaction, on the database write scheduler. Parsing stays at most
+ * {@link #BATCHES_AHEAD} batches ahead of the writes, so memory use does not depend on the size
+ * of the file.
+ * <p>
+ * Imported words get new ids and are written to the given data source only, not through the
+ * repository: they are neither queued in the outbox nor sent to the remote. Going through the
+ * repository would queue every batch on its write scheduler, the one the batches are written on,
+ * and lose the bound above. The repository cache is dropped after every written batch instead.
+ */
+public class VocabularyImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int BATCHES_AHEAD = 2;
+
+    private static final String HEADER_TITLE = "title";
+
+    @NonNull
+    private final VocabularyDataSource mVocabularyDataSource;
+
+    @NonNull
+    private final VocabularyRepository mVocabularyRepository;
+
+    @NonNull
+    private final BaseSchedulerProvider mSchedulerProvider;
+
+    private final int mBatchSize;
+
+    /**
+     * @param vocabularyDataSource where the words are written, usually the local data source
+     * @param vocabularyRepository the repository reading from {@code vocabularyDataSource}
+     */
+    public VocabularyImporter(@NonNull VocabularyDataSource vocabularyDataSource,
+                              @NonNull VocabularyRepository vocabularyRepository,
+                              @NonNull BaseSchedulerProvider schedulerProvider) {
+        this(vocabularyDataSource, vocabularyRepository, schedulerProvider, DEFAULT_BATCH_SIZE);
+    }
+
+    public VocabularyImporter(@NonNull VocabularyDataSource vocabularyDataSource,
+                              @NonNull VocabularyRepository vocabularyRepository,
+                              @NonNull BaseSchedulerProvider schedulerProvider, int batchSize) {
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        mVocabularyDataSource = checkNotNull(vocabularyDataSource);
+        mVocabularyRepository = checkNotNull(vocabularyRepository);
+        mSchedulerProvider = checkNotNull(schedulerProvider);
+        mBatchSize = batchSize;
+    }
+
+    /**
+     * Reads the word list opened by {@code source} when subscribed to, and closes it when done or
+     * cancelled.
+     *
+     * @param delimiter {@link DelimitedReader#COMMA} or {@link DelimitedReader#TAB}
+     * @return the progress after every written batch; it completes once the last one is written.
+     * Batches written before an error or a cancellation stay written.
+     */
+    @NonNull
+    public Flowable<Progress> importVocabularies(@NonNull Callable<? extends Reader> source, char delimiter) {
+        checkNotNull(source);
+        return Flowable.using(
+                () -> new DelimitedReader(source.call(), delimiter),
+                reader -> Flowable.generate(ParseState::new,
+                        (ParseState state, Emitter<Batch> emitter) -> {
+                            Batch batch = readBatch(reader, state);
+                            if (batch == null) {
+                                emitter.onComplete();
+                            } else {
+                                emitter.onNext(batch);
+                            }
+                            return state;
+                        }),
+                DelimitedReader::close)
+                .subscribeOn(mSchedulerProvider.computation())
+                .observeOn(mSchedulerProvider.databaseWrite(), false, BATCHES_AHEAD)
+                .map(batch -> {
+                    mVocabularyDataSource.saveVocabularies(batch.mVocabularies);
+                    mVocabularyRepository.invalidateCache();
+                    return new Progress(batch.mImportedCount, batch.mSkippedCount);
+                });
+    }
+
+    /**
+     * @return the next batch, empty when the end of the input only had skipped records, or null
+     * once the input is exhausted
+     */
+    @Nullable
+    private Batch readBatch(@NonNull DelimitedReader reader, @NonNull ParseState state) throws Exception {
+        List<Vocabulary> vocabularies = new ArrayList<>(mBatchSize);
+        long skippedBefore = state.mSkippedCount;
+        while (vocabularies.size() < mBatchSize) {
+            List<String> record = reader.readRecord();
+            if (record == null) {
+                break;
+            }
+            boolean first = reader.getRecordCount() == 1;
+            if (first && HEADER_TITLE.equalsIgnoreCase(record.get(0).trim())) {
+                continue;
+            }
+            Vocabulary vocabulary = toVocabulary(record);
+            if (vocabulary == null) {
+                state.mSkippedCount++;
+            } else {
+                vocabularies.add(vocabulary);
+            }
+        }
+        if (vocabularies.isEmpty() && state.mSkippedCount == skippedBefore) {
+            return null;
+        }
+        state.mImportedCount += vocabularies.size();
+        return new Batch(vocabularies, state.mImportedCount, state.mSkippedCount);
+    }
+
+    @Nullable
+    private static Vocabulary toVocabulary(@NonNull List<String> record) {
+        String title = field(record, 0);
+        String description = field(record, 1);
+        if (title == null && description == null) {
+            return null;
+        }
+        return new Vocabulary(VocabularyId.random(), title, description, field(record, 2),
+                field(record, 3), false);
+    }
+
+    /**
+     * @return the trimmed field at {@code index}, or null when it is missing or blank
+     */
+    @Nullable
+    private static String field(@NonNull List<String> record, int index) {
+        if (index >= record.size()) {
+            return null;
+        }
+        String field = record.get(index).trim();
+        return field.isEmpty() ? null : field;
+    }
+
+    /**
+     * Counts of an import so far.
+     */
+    public static final class Progress {
+
+        private final long mImportedCount;
+
+        private final long mSkippedCount;
+
+        Progress(long importedCount, long skippedCount) {
+            mImportedCount = importedCount;
+            mSkippedCount = skippedCount;
+        }
+
+        /**
+         * @return the words written so far
+         */
+        public long getImportedCount() {
+            return mImportedCount;
+        }
+
+        /**
+         * @return the records skipped so far for having neither a title nor a description
+         */
+        public long getSkippedCount() {
+            return mSkippedCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Progress " + mImportedCount + " imported, " + mSkippedCount + " skipped";
+        }
+    }
+
+    private static final class ParseState {
+
+        long mImportedCount;
+
+        long mSkippedCount;
+    }
+
+    private static final class Batch {
+
+        @NonNull
+        final List<Vocabulary> mVocabularies;
+
+        // Totals up to and including this batch.
+        final long mImportedCount;
+
+        final long mSkippedCount;
+
+        Batch(@NonNull List<Vocabulary> vocabularies, long importedCount, long skippedCount) {
+            mVocabularies = vocabularies;
+            mImportedCount = importedCount;
+            mSkippedCount = skippedCount;
+        }
+    }
+}
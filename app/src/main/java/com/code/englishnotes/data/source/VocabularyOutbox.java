@@ -0,0 +1,45 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.model.VocabularyMutation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable queue of the local writes that have not reached the remote data source yet, drained by
+ * {@link VocabularyOutboxFlusher}.
+ */
+public interface VocabularyOutbox {
+
+    /**
+     * Appends the mutations in the given order, all or none of them. Their sequences are assigned
+     * here, the ones they carry are ignored.
+     */
+    void enqueue(@NonNull Collection<VocabularyMutation> mutations);
+
+    /**
+     * Runs the local write the mutations describe, then appends them like
+     * {@link #enqueue(Collection)}. When the outbox shares the local database, both happen in one
+     * transaction, so a crash can neither lose a local write the remote never got nor send one
+     * that was rolled back.
+     */
+    void enqueue(@NonNull Collection<VocabularyMutation> mutations, @NonNull Runnable localWrite);
+
+    /**
+     * @return at most {@code limit} mutations, oldest first, with their sequences
+     */
+    @NonNull
+    List<VocabularyMutation> peek(int limit);
+
+    /**
+     * Removes every mutation whose sequence is lower than or equal to {@code sequence}.
+     */
+    void remove(long sequence);
+
+    /**
+     * @return the number of mutations waiting
+     */
+    int size();
+}
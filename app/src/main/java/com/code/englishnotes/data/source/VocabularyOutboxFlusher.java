@@ -0,0 +1,299 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyMutation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import io.reactivex.Scheduler;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Sends the mutations waiting in a {@link VocabularyOutbox} to the remote data source in the
+ * background, so local writes never wait for the network.
+ * <p>
+ * Mutations are read in batches and coalesced before they are sent: only the last save or delete
+ * of each id goes out, with a completion folded into the save before it, the saves, completions
+ * and deletes of a batch are each sent with a single batch call such as
+ * {@link VocabularyDataSource#saveVocabularies(Collection)}, and a delete-all drops whatever was
+ * enqueued before it. A batch leaves the outbox only once the remote accepted all of it. A
+ * failed batch is sent again after a delay that doubles from {@link #INITIAL_RETRY_DELAY_MILLIS}
+ * up to {@link #MAXIMUM_RETRY_DELAY_MILLIS}; remote writes are idempotent, so sending part of a
+ * batch twice is harmless.
+ * <p>
+ * All the work runs one batch at a time on a single worker of the given scheduler.
+ */
+public class VocabularyOutboxFlusher {
+
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    public static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+
+    public static final long MAXIMUM_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @NonNull
+    private final VocabularyDataSource mVocabularyRemoteDataSource;
+
+    @NonNull
+    private final VocabularyOutbox mOutbox;
+
+    @NonNull
+    private final OutboxMetrics mMetrics;
+
+    @NonNull
+    private final Scheduler.Worker mWorker;
+
+    private final int mBatchSize;
+
+    /**
+     * Flush requests not handled yet. A drain is scheduled, running or waiting for a retry while
+     * it is positive.
+     */
+    @NonNull
+    private final AtomicInteger mRequestedFlushes = new AtomicInteger();
+
+    // Only used on mWorker.
+    private int mConsecutiveFailures;
+
+    public VocabularyOutboxFlusher(@NonNull VocabularyDataSource vocabularyRemoteDataSource,
+                                   @NonNull VocabularyOutbox outbox,
+                                   @NonNull Scheduler scheduler,
+                                   @NonNull OutboxMetrics metrics) {
+        this(vocabularyRemoteDataSource, outbox, scheduler, metrics, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param scheduler the scheduler sending the mutations, usually
+     *                  {@link com.code.englishnotes.utils.schedulers.BaseSchedulerProvider#background()}
+     * @param batchSize the maximum number of mutations read from the outbox at once
+     */
+    public VocabularyOutboxFlusher(@NonNull VocabularyDataSource vocabularyRemoteDataSource,
+                                   @NonNull VocabularyOutbox outbox,
+                                   @NonNull Scheduler scheduler,
+                                   @NonNull OutboxMetrics metrics,
+                                   int batchSize) {
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        mVocabularyRemoteDataSource = checkNotNull(vocabularyRemoteDataSource);
+        mOutbox = checkNotNull(outbox);
+        mWorker = checkNotNull(scheduler).createWorker();
+        mMetrics = checkNotNull(metrics);
+        mBatchSize = batchSize;
+    }
+
+    public void enqueue(@NonNull VocabularyMutation mutation, @NonNull Runnable localWrite) {
+        enqueue(Collections.singletonList(checkNotNull(mutation)), localWrite);
+    }
+
+    /**
+     * Runs the local write and stores the mutations it made in the outbox, in one transaction
+     * (see {@link VocabularyOutbox#enqueue(Collection, Runnable)}), on the calling thread, then
+     * schedules a flush.
+     */
+    public void enqueue(@NonNull Collection<VocabularyMutation> mutations, @NonNull Runnable localWrite) {
+        checkNotNull(mutations);
+        checkNotNull(localWrite);
+        if (mutations.isEmpty()) {
+            localWrite.run();
+            return;
+        }
+        mOutbox.enqueue(mutations, localWrite);
+        requestFlush();
+    }
+
+    /**
+     * Schedules a flush of the outbox, unless one is already scheduled. A flush waiting for a
+     * retry keeps its delay.
+     */
+    public void requestFlush() {
+        if (mRequestedFlushes.getAndIncrement() == 0) {
+            mWorker.schedule(this::drain);
+        }
+    }
+
+    /**
+     * @return a {@link Completable} that sends everything waiting in the outbox right away,
+     * ignoring any retry delay, and fails with the remote's error if it cannot
+     */
+    @NonNull
+    public Completable flush() {
+        return Completable.create(emitter -> emitter.setDisposable(mWorker.schedule(() -> {
+            try {
+                flushAll();
+            } catch (RuntimeException e) {
+                emitter.onError(e);
+                return;
+            }
+            emitter.onComplete();
+        })));
+    }
+
+    /**
+     * @return the number of mutations waiting in the outbox
+     */
+    public int getQueueDepth() {
+        return mOutbox.size();
+    }
+
+    private void drain() {
+        int missed = mRequestedFlushes.get();
+        while (true) {
+            try {
+                flushAll();
+            } catch (RuntimeException e) {
+                mConsecutiveFailures++;
+                long retryDelayMillis = getRetryDelayMillis(mConsecutiveFailures);
+                mMetrics.onFlushFailed(mConsecutiveFailures, retryDelayMillis, e);
+                mWorker.schedule(this::drain, retryDelayMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            missed = mRequestedFlushes.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void flushAll() {
+        List<VocabularyMutation> batch;
+        while (!(batch = mOutbox.peek(mBatchSize)).isEmpty()) {
+            long start = System.nanoTime();
+            int pushedWrites = push(batch);
+            mOutbox.remove(batch.get(batch.size() - 1).getSequence());
+            long flushNanos = System.nanoTime() - start;
+            mConsecutiveFailures = 0;
+            mMetrics.onBatchFlushed(batch.size(), pushedWrites, flushNanos,
+                    System.currentTimeMillis() - batch.get(0).getEnqueuedAtMillis(), mOutbox.size());
+        }
+    }
+
+    /**
+     * Sends a batch to the remote, coalesced.
+     *
+     * @return the number of vocabularies sent, a bulk delete counting as one
+     */
+    private int push(@NonNull List<VocabularyMutation> batch) {
+        int start = 0;
+        for (int i = batch.size() - 1; i > 0; i--) {
+            if (batch.get(i).getType() == VocabularyMutation.Type.DELETE_ALL) {
+                start = i;
+                break;
+            }
+        }
+        int pushedWrites = 0;
+        // Bulk deletes depend on the rows written before them, so the writes coalesced so far are
+        // sent before each one.
+        Map<String, VocabularyMutation> latest = new LinkedHashMap<>();
+        for (int i = start; i < batch.size(); i++) {
+            VocabularyMutation mutation = batch.get(i);
+            switch (mutation.getType()) {
+                case SAVE:
+                case DELETE:
+                    latest.put(checkNotNull(mutation.getVocabularyId()), mutation);
+                    break;
+                case COMPLETE:
+                case ACTIVATE:
+                    String vocabularyId = checkNotNull(mutation.getVocabularyId());
+                    latest.put(vocabularyId, coalesceStatusChange(latest.get(vocabularyId), mutation));
+                    break;
+                case DELETE_COMPLETED:
+                    pushedWrites += pushLatest(latest);
+                    mVocabularyRemoteDataSource.clearCompletedVocabularys();
+                    pushedWrites++;
+                    break;
+                case DELETE_ALL:
+                    pushedWrites += pushLatest(latest);
+                    mVocabularyRemoteDataSource.deleteAllVocabularys();
+                    pushedWrites++;
+                    break;
+            }
+        }
+        return pushedWrites + pushLatest(latest);
+    }
+
+    /**
+     * A completion or activation folds into a pending save of the same id, replaces a pending
+     * completion or activation, and is pointless after a delete.
+     */
+    @NonNull
+    private static VocabularyMutation coalesceStatusChange(@Nullable VocabularyMutation previous,
+                                                           @NonNull VocabularyMutation statusChange) {
+        if (previous == null || previous.getType() == VocabularyMutation.Type.COMPLETE
+                || previous.getType() == VocabularyMutation.Type.ACTIVATE) {
+            return statusChange;
+        }
+        if (previous.getType() == VocabularyMutation.Type.DELETE) {
+            return previous;
+        }
+        Vocabulary saved = checkNotNull(previous.getVocabulary());
+        Vocabulary changed = new Vocabulary(saved.getVocabularyId(), saved.getTitle(), saved.getDescription(),
+                saved.getType(), saved.getPronounce(),
+                statusChange.getType() == VocabularyMutation.Type.COMPLETE);
+        return new VocabularyMutation(previous.getSequence(), VocabularyMutation.Type.SAVE,
+                previous.getVocabularyId(), changed, previous.getEnqueuedAtMillis());
+    }
+
+    /**
+     * Sends the coalesced saves, completions and deletes with one call each. Activations have no
+     * bulk call and are sent one by one.
+     *
+     * @return the number of vocabularies sent
+     */
+    private int pushLatest(@NonNull Map<String, VocabularyMutation> latest) {
+        if (latest.isEmpty()) {
+            return 0;
+        }
+        List<Vocabulary> saved = new ArrayList<>(latest.size());
+        List<String> completed = new ArrayList<>();
+        List<String> activated = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (VocabularyMutation mutation : latest.values()) {
+            switch (mutation.getType()) {
+                case SAVE:
+                    saved.add(checkNotNull(mutation.getVocabulary()));
+                    break;
+                case COMPLETE:
+                    completed.add(mutation.getVocabularyId());
+                    break;
+                case ACTIVATE:
+                    activated.add(mutation.getVocabularyId());
+                    break;
+                default:
+                    deleted.add(mutation.getVocabularyId());
+                    break;
+            }
+        }
+        if (!saved.isEmpty()) {
+            mVocabularyRemoteDataSource.saveVocabularies(saved);
+        }
+        if (!completed.isEmpty()) {
+            mVocabularyRemoteDataSource.completeVocabularies(completed);
+        }
+        for (String vocabularyId : activated) {
+            mVocabularyRemoteDataSource.activateVocabulary(vocabularyId);
+        }
+        if (!deleted.isEmpty()) {
+            mVocabularyRemoteDataSource.deleteVocabularies(deleted);
+        }
+        int pushedWrites = latest.size();
+        latest.clear();
+        return pushedWrites;
+    }
+
+    private static long getRetryDelayMillis(int attempt) {
+        int doublings = Math.min(attempt - 1, 20);
+        return Math.min(MAXIMUM_RETRY_DELAY_MILLIS, INITIAL_RETRY_DELAY_MILLIS << doublings);
+    }
+}
@@ -4,18 +4,45 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 
+import com.code.englishnotes.data.model.ReviewState;
 import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.model.VocabularyId;
+import com.code.englishnotes.data.model.VocabularyMutation;
+import com.code.englishnotes.data.model.VocabularyReview;
 import com.google.common.base.Optional;
-
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Writes update the in-memory cache right away, then go to the local data source on the database
+ * write scheduler and are sent to the remote one in the background through the
+ * {@link VocabularyOutboxFlusher}; reads are served from memory, then the local data source, then
+ * the remote one.
+ */
 public class VocabularyRepository implements VocabularyDataSource{
 
     @Nullable
@@ -27,44 +54,214 @@ public class VocabularyRepository implements VocabularyDataSource{
     @NonNull
     private final VocabularyDataSource mVocabularyLocalDataSource;
 
+    @NonNull
+    private final VocabularyOutboxFlusher mVocabularyOutboxFlusher;
+
+    /**
+     * Runs the local writes one at a time and in order, off the calling thread.
+     */
+    @NonNull
+    private final Scheduler mDatabaseWriteScheduler;
+
     /**
-     * This variable has package local visibility so it can be accessed from tests.
+     * Upper bound of the in-memory cache used by {@link #getInstance(VocabularyDataSource,
+     * VocabularyDataSource, VocabularyOutboxFlusher, SyncTokenStore, Scheduler)}, in estimated
+     * bytes.
+     */
+    public static final long DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES = 4 * 1024 * 1024;
+
+    private static final int OBJECT_OVERHEAD_IN_BYTES = 40;
+
+    private static final int ID_OVERHEAD_IN_BYTES = 32;
+
+    private static final int STRING_OVERHEAD_IN_BYTES = 40;
+
+    /**
+     * Cache version taken while a write is applied to the cache but not locally yet: a full load
+     * started then may miss the write, so it is never cached.
+     */
+    private static final long UNSETTLED_CACHE_VERSION = -1;
+
+    /**
+     * Size-bounded, least-recently-used cache of the vocabularies. This variable has package local
+     * visibility so it can be accessed from tests.
      */
     @VisibleForTesting
-    @Nullable
-    Map<String, Vocabulary> mCachedVocabulary;
+    @NonNull
+    final Cache<VocabularyId, Vocabulary> mCachedVocabulary;
+
+    /**
+     * True once the cache holds every vocabulary of the last full load, so {@link #getVocabularys()}
+     * can answer from memory. It is only set after every row of the load was put, and evictions
+     * reset it. This variable has package local visibility so it can be accessed from tests.
+     */
+    @VisibleForTesting
+    volatile boolean mCacheIsComplete = false;
 
     /**
      * Marks the cache as invalid, to force an update the next time data is requested. This variable
      * has package local visibility so it can be accessed from tests.
      */
     @VisibleForTesting
-    boolean mCacheIsDirty = false;
+    volatile boolean mCacheIsDirty = false;
+
+    /**
+     * Incremented after every change to {@link #mCachedVocabulary}, so readers can tell whether
+     * {@link #mCacheSnapshot} still matches it.
+     */
+    @NonNull
+    private final AtomicLong mCacheVersion = new AtomicLong();
+
+    /**
+     * Held while {@link #mCachedVocabulary} is changed, so a full load is cached either before a
+     * write or not at all, never over it.
+     */
+    @NonNull
+    private final Object mCacheLock = new Object();
+
+    /**
+     * Writes applied to the cache whose local write has not run yet.
+     */
+    @NonNull
+    private final AtomicInteger mPendingLocalWrites = new AtomicInteger();
+
+    /**
+     * Immutable copy of the cached values handed out by {@link #getVocabularys()}. It is rebuilt
+     * lazily by the first reader after a change; readers never iterate the live cache.
+     */
+    @Nullable
+    private volatile CacheSnapshot mCacheSnapshot;
+
+    /**
+     * When set, {@link #getVocabularys()} answers a refresh with the data it already has and then
+     * with the remote data, instead of waiting for the remote.
+     */
+    private volatile boolean mStaleWhileRevalidate = false;
+
+    /**
+     * The remote load currently running, shared by every concurrent caller of
+     * {@link #getAndSaveRemoteVocabulary()}, or null when there is none.
+     */
+    @NonNull
+    private final AtomicReference<Flowable<List<Vocabulary>>> mRemoteLoadInFlight = new AtomicReference<>();
+
+    /**
+     * Keeps the token of the last remote delta saved locally. Only the changes made on the remote
+     * after it are transferred by the next load, even in a new process.
+     */
+    @NonNull
+    private final SyncTokenStore mSyncTokenStore;
+
+    /**
+     * Drops the cache on every {@link VocabularyChange.Type#RELOAD} of the local data source, as
+     * when a snapshot is restored without going through the repository.
+     */
+    @NonNull
+    private final Disposable mReloadSubscription;
 
     private VocabularyRepository(@NonNull VocabularyDataSource vocabularyRemoteDataSource,
-                            @NonNull VocabularyDataSource vocabularyLocalDataSource) {
+                            @NonNull VocabularyDataSource vocabularyLocalDataSource,
+                            @NonNull VocabularyOutboxFlusher vocabularyOutboxFlusher,
+                            @NonNull SyncTokenStore syncTokenStore,
+                            @NonNull Scheduler databaseWriteScheduler,
+                            long cacheMaximumWeightInBytes) {
         mVocabularyRemoteDataSource = checkNotNull(vocabularyRemoteDataSource);
         mVocabularyLocalDataSource = checkNotNull(vocabularyLocalDataSource);
+        mVocabularyOutboxFlusher = checkNotNull(vocabularyOutboxFlusher);
+        mSyncTokenStore = checkNotNull(syncTokenStore);
+        mDatabaseWriteScheduler = checkNotNull(databaseWriteScheduler);
+        mCachedVocabulary = CacheBuilder.newBuilder()
+                .maximumWeight(cacheMaximumWeightInBytes)
+                .weigher((VocabularyId id, Vocabulary vocabulary) -> estimateSizeInBytes(vocabulary))
+                .removalListener((RemovalNotification<VocabularyId, Vocabulary> notification) -> {
+                    if (notification.wasEvicted()) {
+                        mCacheIsComplete = false;
+                    }
+                })
+                .recordStats()
+                .build();
+        mReloadSubscription = mVocabularyLocalDataSource.getVocabularyChanges()
+                .filter(change -> change.getType() == VocabularyChange.Type.RELOAD)
+                .subscribe(change -> invalidateCache());
+        // Sends what an earlier process left in the outbox.
+        mVocabularyOutboxFlusher.requestFlush();
     }
 
+    /**
+     * @param vocabularyOutboxFlusher sends the local writes to {@code vocabularyRemoteDataSource}
+     * @param syncTokenStore          keeps how far {@code vocabularyLocalDataSource} is in sync
+     *                                with {@code vocabularyRemoteDataSource}
+     * @param databaseWriteScheduler  runs the writes to {@code vocabularyLocalDataSource}, usually
+     *                                {@link com.code.englishnotes.utils.schedulers.BaseSchedulerProvider#databaseWrite()}
+     */
     public static VocabularyRepository getInstance(@NonNull VocabularyDataSource vocabularyRemoteDataSource,
-                                              @NonNull VocabularyDataSource vocabularyLocalDataSource) {
+                                              @NonNull VocabularyDataSource vocabularyLocalDataSource,
+                                              @NonNull VocabularyOutboxFlusher vocabularyOutboxFlusher,
+                                              @NonNull SyncTokenStore syncTokenStore,
+                                              @NonNull Scheduler databaseWriteScheduler) {
+        return getInstance(vocabularyRemoteDataSource, vocabularyLocalDataSource, vocabularyOutboxFlusher,
+                syncTokenStore, databaseWriteScheduler, DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+    }
+
+    /**
+     * @param vocabularyOutboxFlusher   sends the local writes to {@code vocabularyRemoteDataSource}
+     * @param syncTokenStore            keeps how far {@code vocabularyLocalDataSource} is in sync
+     *                                  with {@code vocabularyRemoteDataSource}
+     * @param databaseWriteScheduler    runs the writes to {@code vocabularyLocalDataSource}
+     * @param cacheMaximumWeightInBytes upper bound of the in-memory cache, in estimated bytes of
+     *                                  the cached vocabularies; only used when the instance is
+     *                                  created
+     */
+    public static VocabularyRepository getInstance(@NonNull VocabularyDataSource vocabularyRemoteDataSource,
+                                              @NonNull VocabularyDataSource vocabularyLocalDataSource,
+                                              @NonNull VocabularyOutboxFlusher vocabularyOutboxFlusher,
+                                              @NonNull SyncTokenStore syncTokenStore,
+                                              @NonNull Scheduler databaseWriteScheduler,
+                                              long cacheMaximumWeightInBytes) {
         if (INSTANCE == null) {
-            INSTANCE = new VocabularyRepository(vocabularyRemoteDataSource, vocabularyLocalDataSource);
+            INSTANCE = new VocabularyRepository(vocabularyRemoteDataSource, vocabularyLocalDataSource,
+                    vocabularyOutboxFlusher, syncTokenStore, databaseWriteScheduler, cacheMaximumWeightInBytes);
         }
         return INSTANCE;
     }
 
     public static void destroyInstance() {
+        if (INSTANCE != null) {
+            INSTANCE.mReloadSubscription.dispose();
+        }
         INSTANCE = null;
     }
 
+    /**
+     * Returns the hit, miss and eviction counters of the in-memory cache since it was created.
+     */
+    @NonNull
+    public CacheStats getCacheStats() {
+        return mCachedVocabulary.stats();
+    }
+
+    /**
+     * Enables or disables the stale-while-revalidate mode. While enabled, {@link #getVocabularys()}
+     * called after {@link #refreshVocabularys()} first emits the cached or locally stored
+     * vocabularies, then loads the remote ones in the background and emits them a second time only
+     * if they differ.
+     */
+    public void setStaleWhileRevalidate(boolean enabled) {
+        mStaleWhileRevalidate = enabled;
+    }
+
+    /**
+     * The vocabularies come in no particular order: answers from memory follow the hash order of
+     * the cache, not the order the vocabularies were cached in. Callers that show a list sort it
+     * themselves.
+     */
     @Override
     public Flowable<List<Vocabulary>> getVocabularys() {
-        if (mCachedVocabulary != null && !mCacheIsDirty) {
-            return Flowable.fromIterable(mCachedVocabulary.values()).toList().toFlowable();
-        } else if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
+        if (mCacheIsComplete && !mCacheIsDirty) {
+            return Flowable.just(getCachedVocabularies());
+        }
+        if (mCacheIsDirty && mStaleWhileRevalidate) {
+            return getStaleThenRemoteVocabularys();
         }
 
         Flowable<List<Vocabulary>> remoteTasks = getAndSaveRemoteVocabulary();
@@ -80,100 +277,242 @@ public class VocabularyRepository implements VocabularyDataSource{
                     .toFlowable();
         }
     }
+
+    /**
+     * Pages are always read from the local data source and bypass the cache, so consumers can
+     * walk large decks without materializing them in memory.
+     */
+    @Override
+    public Flowable<List<Vocabulary>> getVocabularyPage(@Nullable String afterVocabularyId, int pageSize) {
+        return mVocabularyLocalDataSource.getVocabularyPage(afterVocabularyId, pageSize);
+    }
+
+    /**
+     * Streams every locally stored vocabulary one page at a time. The next page is only queried
+     * once the previous one has been requested downstream, so at most one page is held in memory.
+     * A page is queried on the thread requesting it, which waits for it.
+     */
+    public Flowable<List<Vocabulary>> getVocabularyPages(int pageSize) {
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        // The state is the id of the last vocabulary emitted, absent before the first page.
+        return Flowable.<List<Vocabulary>, Optional<String>>generate(Optional::absent, (afterVocabularyId, emitter) -> {
+            List<Vocabulary> page = mVocabularyLocalDataSource
+                    .getVocabularyPage(afterVocabularyId.orNull(), pageSize)
+                    .blockingFirst(Collections.emptyList());
+            if (!page.isEmpty()) {
+                emitter.onNext(page);
+            }
+            if (page.size() < pageSize) {
+                emitter.onComplete();
+                return afterVocabularyId;
+            }
+            return Optional.of(page.get(page.size() - 1).getId());
+        });
+    }
+
+    private Flowable<List<Vocabulary>> getStaleThenRemoteVocabularys() {
+        Flowable<List<Vocabulary>> staleTasks = mCacheIsComplete
+                ? Flowable.just(getCachedVocabularies())
+                : getAndCacheLocalVocabulary().take(1);
+        // A failed revalidation keeps the cache dirty, so the next call simply tries again.
+        Flowable<List<Vocabulary>> remoteTasks = getAndSaveRemoteVocabulary()
+                .onErrorResumeNext(Flowable.<List<Vocabulary>>empty());
+        // Eager concat subscribes to the remote right away but still emits the stale list first.
+        return Flowable.concatEager(Arrays.asList(staleTasks, remoteTasks))
+                .distinctUntilChanged(VocabularyRepository::hasSameContent);
+    }
+
     private Flowable<List<Vocabulary>> getAndCacheLocalVocabulary() {
-        return mVocabularyLocalDataSource.getVocabularys()
-                .flatMap(tasks -> Flowable.fromIterable(tasks)
-                        .doOnNext(task -> mCachedVocabulary.put(task.getId(), task))
-                        .toList()
-                        .toFlowable());
+        return Flowable.defer(() -> {
+            long versionBeforeLoad = getSettledCacheVersion();
+            return mVocabularyLocalDataSource.getVocabularys()
+                    .doOnNext(tasks -> cacheFullLoad(tasks, versionBeforeLoad));
+        });
     }
 
+    /**
+     * Loads the vocabularies from the remote data source and writes them back locally. Concurrent
+     * callers share a single in-flight load, so N subscribers cost one remote call and one
+     * write-back; a call made after the load finished starts a new one.
+     */
     private Flowable<List<Vocabulary>> getAndSaveRemoteVocabulary() {
-        return mVocabularyRemoteDataSource
-                .getVocabularys()
-                .flatMap(tasks -> Flowable.fromIterable(tasks).doOnNext(task -> {
-                    mVocabularyLocalDataSource.saveVocabulary(task);
-                    mCachedVocabulary.put(task.getId(), task);
-                }).toList().toFlowable())
+        return Flowable.defer(() -> {
+            Flowable<List<Vocabulary>> load = loadAndSaveRemoteVocabulary()
+                    .doFinally(() -> mRemoteLoadInFlight.set(null))
+                    .cache();
+            while (true) {
+                Flowable<List<Vocabulary>> inFlight = mRemoteLoadInFlight.get();
+                if (inFlight != null) {
+                    return inFlight;
+                }
+                if (mRemoteLoadInFlight.compareAndSet(null, load)) {
+                    return load;
+                }
+            }
+        });
+    }
+
+    /**
+     * Asks the remote for what changed since the last load and writes only that locally. The
+     * first load, with no token yet, transfers every remote vocabulary. Later ones answer from the
+     * cache when it is complete, or from the local data source otherwise.
+     * <p>
+     * The outbox is flushed first, so the remote never sends back an older version of a row
+     * written locally in the meantime.
+     */
+    private Flowable<List<Vocabulary>> loadAndSaveRemoteVocabulary() {
+        final long syncToken = mSyncTokenStore.getSyncToken();
+        final long versionBeforeLoad = getSettledCacheVersion();
+        return mVocabularyOutboxFlusher.flush()
+                .andThen(mVocabularyRemoteDataSource.getVocabularysChangedSince(syncToken))
+                .take(1)
+                // The delta is written like any other local write, after the ones already queued.
+                .observeOn(mDatabaseWriteScheduler)
+                .concatMap(delta -> {
+                    // The first delta holds every remote vocabulary.
+                    boolean initialSync = syncToken == VocabularyDelta.INITIAL_SYNC_TOKEN;
+                    saveRemoteDelta(delta, !initialSync);
+                    // Saved after the rows: a crash in between only makes the next load send them again.
+                    mSyncTokenStore.setSyncToken(delta.getSyncToken());
+                    if (initialSync) {
+                        cacheFullLoad(delta.getChangedVocabularies(), versionBeforeLoad);
+                        return Flowable.just(delta.getChangedVocabularies());
+                    }
+                    if (mCacheIsComplete) {
+                        return Flowable.just(getCachedVocabularies());
+                    }
+                    return getAndCacheLocalVocabulary().take(1);
+                })
                 .doOnComplete(() -> mCacheIsDirty = false);
     }
+
+    private void saveRemoteDelta(@NonNull VocabularyDelta delta, boolean updateCache) {
+        // Write the whole batch in a single transaction instead of one insert per row
+        mVocabularyLocalDataSource.saveVocabularies(delta.getChangedVocabularies());
+        mVocabularyLocalDataSource.deleteVocabularies(delta.getDeletedVocabularyIds());
+        if (!updateCache || delta.isEmpty()) {
+            return;
+        }
+        synchronized (mCacheLock) {
+            mCachedVocabulary.invalidateAll(toVocabularyIds(delta.getDeletedVocabularyIds()));
+            putVocabularies(delta.getChangedVocabularies());
+            mCacheVersion.incrementAndGet();
+        }
+    }
+
     @Override
     public void saveVocabulary(@NonNull Vocabulary vocabulary) {
         checkNotNull(vocabulary);
-        mVocabularyRemoteDataSource.saveVocabulary(vocabulary);
-        mVocabularyLocalDataSource.saveVocabulary(vocabulary);
+        write(() -> mCachedVocabulary.put(vocabulary.getVocabularyId(), vocabulary),
+                () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.save(vocabulary),
+                        () -> mVocabularyLocalDataSource.saveVocabulary(vocabulary)));
+    }
 
-        // Do in memory cache update to keep the app UI up to date
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
+    @Override
+    public void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        // Copied, the caller may change the collection before the write runs.
+        List<Vocabulary> saved = ImmutableList.copyOf(checkNotNull(vocabularies));
+        List<VocabularyMutation> mutations = new ArrayList<>(saved.size());
+        for (Vocabulary vocabulary : saved) {
+            mutations.add(VocabularyMutation.save(vocabulary));
         }
-        mCachedVocabulary.put(vocabulary.getId(), vocabulary);
+        write(() -> putVocabularies(saved),
+                () -> mVocabularyOutboxFlusher.enqueue(mutations,
+                        () -> mVocabularyLocalDataSource.saveVocabularies(saved)));
     }
 
     @Override
     public void completeVocabulary(@NonNull Vocabulary vocabulary) {
         checkNotNull(vocabulary);
-        mVocabularyRemoteDataSource.completeVocabulary(vocabulary);
-        mVocabularyLocalDataSource.completeVocabulary(vocabulary);
-
-        Vocabulary completedTask = new Vocabulary(vocabulary.getTitle(), vocabulary.getDescription(), vocabulary.getId(), true);
-
-        // Do in memory cache update to keep the app UI up to date
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
-        }
-        mCachedVocabulary.put(vocabulary.getId(), completedTask);
+        Vocabulary completedTask = new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(), vocabulary.getDescription(),
+                vocabulary.getType(), vocabulary.getPronounce(), true);
+        write(() -> mCachedVocabulary.put(completedTask.getVocabularyId(), completedTask),
+                () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.save(completedTask),
+                        () -> mVocabularyLocalDataSource.completeVocabulary(vocabulary)));
     }
 
+    /**
+     * A vocabulary that is not cached, evicted or never loaded, is completed by id and stays out
+     * of the cache.
+     */
     @Override
     public void completeVocabulary(@NonNull String vocabularyId) {
         checkNotNull(vocabularyId);
         Vocabulary taskWithId = getVocabularyWithId(vocabularyId);
         if (taskWithId != null) {
             completeVocabulary(taskWithId);
+            return;
         }
+        write(() -> {
+        }, () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.complete(vocabularyId),
+                () -> mVocabularyLocalDataSource.completeVocabulary(vocabularyId)));
+    }
+
+    /**
+     * Completes the vocabularies with one local write and, once flushed, one remote call, whether
+     * they are cached or not.
+     */
+    @Override
+    public void completeVocabularies(@NonNull Collection<String> vocabularyIds) {
+        checkNotNull(vocabularyIds);
+        if (vocabularyIds.isEmpty()) {
+            return;
+        }
+        List<String> completedIds = ImmutableList.copyOf(vocabularyIds);
+        List<VocabularyMutation> mutations = new ArrayList<>(completedIds.size());
+        for (String vocabularyId : completedIds) {
+            mutations.add(VocabularyMutation.complete(vocabularyId));
+        }
+        write(() -> {
+            for (String vocabularyId : completedIds) {
+                Vocabulary cached = getVocabularyWithId(vocabularyId);
+                if (cached != null) {
+                    mCachedVocabulary.put(cached.getVocabularyId(), new Vocabulary(cached.getVocabularyId(), cached.getTitle(),
+                            cached.getDescription(), cached.getType(), cached.getPronounce(), true));
+                }
+            }
+        }, () -> mVocabularyOutboxFlusher.enqueue(mutations,
+                () -> mVocabularyLocalDataSource.completeVocabularies(completedIds)));
     }
 
     @Override
     public void activateVocabulary(@NonNull Vocabulary vocabulary) {
         checkNotNull(vocabulary);
-        mVocabularyRemoteDataSource.activateVocabulary(vocabulary);
-        mVocabularyLocalDataSource.activateVocabulary(vocabulary);
-
-        Vocabulary activeTask = new Vocabulary(vocabulary.getTitle(), vocabulary.getDescription(), vocabulary.getId());
-
-        // Do in memory cache update to keep the app UI up to date
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
-        }
-        mCachedVocabulary.put(vocabulary.getId(), activeTask);
+        Vocabulary activeTask = new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(), vocabulary.getDescription(),
+                vocabulary.getType(), vocabulary.getPronounce(), false);
+        write(() -> mCachedVocabulary.put(activeTask.getVocabularyId(), activeTask),
+                () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.save(activeTask),
+                        () -> mVocabularyLocalDataSource.activateVocabulary(vocabulary)));
     }
 
+    /**
+     * A vocabulary that is not cached, evicted or never loaded, is activated by id and stays out
+     * of the cache.
+     */
     @Override
     public void activateVocabulary(@NonNull String vocabularyId) {
         checkNotNull(vocabularyId);
         Vocabulary taskWithId = getVocabularyWithId(vocabularyId);
         if (taskWithId != null) {
             activateVocabulary(taskWithId);
+            return;
         }
+        write(() -> {
+        }, () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.activate(vocabularyId),
+                () -> mVocabularyLocalDataSource.activateVocabulary(vocabularyId)));
     }
 
     @Override
     public void clearCompletedVocabularys() {
-        mVocabularyRemoteDataSource.clearCompletedVocabularys();
-        mVocabularyLocalDataSource.clearCompletedVocabularys();
-
-        // Do in memory cache update to keep the app UI up to date
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
-        }
-        Iterator<Map.Entry<String, Vocabulary>> it = mCachedVocabulary.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Vocabulary> entry = it.next();
-            if (entry.getValue().isCompleted()) {
-                it.remove();
+        write(() -> {
+            Iterator<Vocabulary> it = mCachedVocabulary.asMap().values().iterator();
+            while (it.hasNext()) {
+                if (it.next().isCompleted()) {
+                    it.remove();
+                }
             }
-        }
+        }, () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.deleteCompleted(),
+                mVocabularyLocalDataSource::clearCompletedVocabularys));
     }
 
     @Override
@@ -189,11 +528,6 @@ public class VocabularyRepository implements VocabularyDataSource{
 
         // Load from server/persisted if needed.
 
-        // Do in memory cache update to keep the app UI up to date
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
-        }
-
         // Is the task in the local data source? If not, query the network.
         Flowable<Optional<Vocabulary>> localTask = getVocabularyWithIdFromLocalRepository(vocabularyId);
         Flowable<Optional<Vocabulary>> remoteTask = mVocabularyLocalDataSource
@@ -202,7 +536,7 @@ public class VocabularyRepository implements VocabularyDataSource{
                     if (taskOptional.isPresent()) {
                         Vocabulary task = taskOptional.get();
                         mVocabularyLocalDataSource.saveVocabulary(task);
-                        mCachedVocabulary.put(task.getId(), task);
+                        cacheVocabulary(task);
                     }
                 });
 
@@ -211,48 +545,274 @@ public class VocabularyRepository implements VocabularyDataSource{
                 .toFlowable();
     }
 
+    /**
+     * Search always goes to the local full-text index; the cache is not consulted.
+     */
+    @Override
+    public Flowable<List<Vocabulary>> searchVocabulary(@NonNull String query, int limit) {
+        checkNotNull(query);
+        return mVocabularyLocalDataSource.searchVocabulary(query, limit);
+    }
+
+    /**
+     * Review schedules are kept by the local data source only; the cache is not consulted.
+     */
+    @Override
+    public Flowable<List<VocabularyReview>> getDueVocabularies(int limit) {
+        return mVocabularyLocalDataSource.getDueVocabularies(limit);
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getNewVocabularies(int limit) {
+        return mVocabularyLocalDataSource.getNewVocabularies(limit);
+    }
+
+    /**
+     * Only written locally: review schedules are neither cached nor sent to the remote data
+     * source.
+     */
+    @Override
+    public void saveReviewState(@NonNull String vocabularyId, @NonNull ReviewState reviewState) {
+        checkNotNull(vocabularyId);
+        checkNotNull(reviewState);
+        write(() -> mVocabularyLocalDataSource.saveReviewState(vocabularyId, reviewState));
+    }
+
+    /**
+     * Changes are reported by the local data source, which every write goes through.
+     */
+    @Override
+    public Flowable<VocabularyChange> getVocabularyChanges() {
+        return mVocabularyLocalDataSource.getVocabularyChanges();
+    }
+
+    /**
+     * Local changes, the remote ones are applied by {@link #getVocabularys()} after a refresh.
+     */
+    @Override
+    public Flowable<VocabularyDelta> getVocabularysChangedSince(long syncToken) {
+        return mVocabularyLocalDataSource.getVocabularysChangedSince(syncToken);
+    }
+
     @Override
     public void refreshVocabularys() {
         mCacheIsDirty = true;
     }
 
+    /**
+     * Drops the in-memory cache, for writes made to the local data source without going through
+     * the repository and without a {@link VocabularyChange#reload()}. Full loads started before
+     * are not cached, as they may miss those writes.
+     */
+    public void invalidateCache() {
+        synchronized (mCacheLock) {
+            mCachedVocabulary.invalidateAll();
+            mCacheIsComplete = false;
+            mCacheVersion.incrementAndGet();
+        }
+    }
+
     @Override
     public void deleteAllVocabularys() {
-        mVocabularyRemoteDataSource.deleteAllVocabularys();
-        mVocabularyLocalDataSource.deleteAllVocabularys();
-
-        if (mCachedVocabulary == null) {
-            mCachedVocabulary = new LinkedHashMap<>();
-        }
-        mCachedVocabulary.clear();
+        write(mCachedVocabulary::invalidateAll,
+                () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.deleteAll(),
+                        mVocabularyLocalDataSource::deleteAllVocabularys));
     }
 
     @Override
     public void deleteVocabulary(@NonNull String vocabularyId) {
-        mVocabularyRemoteDataSource.deleteVocabulary(checkNotNull(vocabularyId));
-        mVocabularyLocalDataSource.deleteVocabulary(checkNotNull(vocabularyId));
+        VocabularyId id = VocabularyId.of(checkNotNull(vocabularyId));
+        write(() -> mCachedVocabulary.invalidate(id),
+                () -> mVocabularyOutboxFlusher.enqueue(VocabularyMutation.delete(vocabularyId),
+                        () -> mVocabularyLocalDataSource.deleteVocabulary(vocabularyId)));
+    }
+
+    /**
+     * Deletes the vocabularies with one local write and, once flushed, one remote call.
+     */
+    @Override
+    public void deleteVocabularies(@NonNull Collection<String> vocabularyIds) {
+        checkNotNull(vocabularyIds);
+        if (vocabularyIds.isEmpty()) {
+            return;
+        }
+        List<String> deletedIds = ImmutableList.copyOf(vocabularyIds);
+        List<VocabularyMutation> mutations = new ArrayList<>(deletedIds.size());
+        for (String vocabularyId : deletedIds) {
+            mutations.add(VocabularyMutation.delete(vocabularyId));
+        }
+        write(() -> mCachedVocabulary.invalidateAll(toVocabularyIds(deletedIds)),
+                () -> mVocabularyOutboxFlusher.enqueue(mutations,
+                        () -> mVocabularyLocalDataSource.deleteVocabularies(deletedIds)));
+    }
 
-        mCachedVocabulary.remove(vocabularyId);
+    /**
+     * Applies a write to the in-memory cache right away, to keep the app UI up to date, then runs
+     * it locally like {@link #write(Runnable)}. Until the local write ran, full loads are not
+     * cached, as they may miss it.
+     */
+    private void write(@NonNull Runnable cacheUpdate, @NonNull Runnable localWrite) {
+        synchronized (mCacheLock) {
+            mPendingLocalWrites.incrementAndGet();
+            cacheUpdate.run();
+            mCacheVersion.incrementAndGet();
+        }
+        write(() -> {
+            try {
+                localWrite.run();
+            } finally {
+                mPendingLocalWrites.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Runs a local write on {@link #mDatabaseWriteScheduler}, after the writes submitted before
+     * it. A failing write is reported to the RxJava error handler, like any undeliverable error.
+     */
+    private void write(@NonNull Runnable write) {
+        mDatabaseWriteScheduler.scheduleDirect(write);
+    }
+
+    /**
+     * @return the version to pass to {@link #cacheFullLoad(Collection, long)} for a load starting
+     * now
+     */
+    private long getSettledCacheVersion() {
+        synchronized (mCacheLock) {
+            return mPendingLocalWrites.get() == 0 ? mCacheVersion.get() : UNSETTLED_CACHE_VERSION;
+        }
+    }
+
+    /**
+     * Caches every vocabulary of a full load, then marks the cache complete unless the puts
+     * evicted some of them. A load during which the cache changed may hold older rows than the
+     * cache, so it is dropped instead.
+     *
+     * @param versionBeforeLoad the {@link #getSettledCacheVersion()} taken before the load started
+     */
+    private void cacheFullLoad(@NonNull Collection<Vocabulary> vocabularies, long versionBeforeLoad) {
+        synchronized (mCacheLock) {
+            if (versionBeforeLoad == UNSETTLED_CACHE_VERSION || mCacheVersion.get() != versionBeforeLoad) {
+                return;
+            }
+            long evictionsBeforePuts = mCachedVocabulary.stats().evictionCount();
+            putVocabularies(vocabularies);
+            mCacheVersion.incrementAndGet();
+            if (mCachedVocabulary.stats().evictionCount() == evictionsBeforePuts) {
+                mCacheIsComplete = true;
+            }
+        }
     }
 
     @Nullable
     private Vocabulary getVocabularyWithId(@NonNull String id) {
         checkNotNull(id);
-        if (mCachedVocabulary == null || mCachedVocabulary.isEmpty()) {
-            return null;
-        } else {
-            return mCachedVocabulary.get(id);
+        return mCachedVocabulary.getIfPresent(VocabularyId.of(id));
+    }
+
+    private void cacheVocabulary(@NonNull Vocabulary vocabulary) {
+        synchronized (mCacheLock) {
+            mCachedVocabulary.put(vocabulary.getVocabularyId(), vocabulary);
+            mCacheVersion.incrementAndGet();
         }
     }
+
+    private void putVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        for (Vocabulary vocabulary : vocabularies) {
+            mCachedVocabulary.put(vocabulary.getVocabularyId(), vocabulary);
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the cache, rebuilding it if the cache changed since it was
+     * taken. The version is read before copying, so a write racing with the copy makes the next
+     * reader rebuild again rather than keep a stale list.
+     * <p>
+     * The snapshot keeps the iteration order of the cache. Sorting it would cost a rebuild about
+     * ten times its copy, on every read after a write.
+     */
+    @NonNull
+    private List<Vocabulary> getCachedVocabularies() {
+        long version = mCacheVersion.get();
+        CacheSnapshot snapshot = mCacheSnapshot;
+        if (snapshot == null || snapshot.mVersion != version) {
+            snapshot = new CacheSnapshot(version, ImmutableList.copyOf(mCachedVocabulary.asMap().values()));
+            mCacheSnapshot = snapshot;
+        }
+        return snapshot.mVocabularies;
+    }
+
+    /**
+     * Compares two lists regardless of order. {@link Vocabulary#equals(Object)} ignores the
+     * completed flag, so it is compared separately.
+     */
+    private static boolean hasSameContent(@NonNull List<Vocabulary> first, @NonNull List<Vocabulary> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        Map<VocabularyId, Vocabulary> firstById = new HashMap<>(first.size() * 2);
+        for (Vocabulary vocabulary : first) {
+            firstById.put(vocabulary.getVocabularyId(), vocabulary);
+        }
+        for (Vocabulary vocabulary : second) {
+            Vocabulary other = firstById.get(vocabulary.getVocabularyId());
+            if (other == null || !other.equals(vocabulary) || other.isCompleted() != vocabulary.isCompleted()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NonNull
+    private static List<VocabularyId> toVocabularyIds(@NonNull Collection<String> vocabularyIds) {
+        List<VocabularyId> ids = new ArrayList<>(vocabularyIds.size());
+        for (String vocabularyId : vocabularyIds) {
+            ids.add(VocabularyId.of(vocabularyId));
+        }
+        return ids;
+    }
+
+    /**
+     * Rough retained size of a cached vocabulary: the object and its id, which is also the cache
+     * key, plus its strings, stored as UTF-16. Types are interned and shared by every entry, so
+     * they are left out.
+     */
+    private static int estimateSizeInBytes(@NonNull Vocabulary vocabulary) {
+        VocabularyId id = vocabulary.getVocabularyId();
+        return OBJECT_OVERHEAD_IN_BYTES
+                + ID_OVERHEAD_IN_BYTES
+                + (id.isUuid() ? 0 : estimateSizeInBytes(id.toString()))
+                + estimateSizeInBytes(vocabulary.getTitle())
+                + estimateSizeInBytes(vocabulary.getDescription())
+                + estimateSizeInBytes(vocabulary.getPronounce());
+    }
+
+    private static int estimateSizeInBytes(@Nullable String value) {
+        return value == null ? 0 : STRING_OVERHEAD_IN_BYTES + 2 * value.length();
+    }
     @NonNull
     Flowable<Optional<Vocabulary>> getVocabularyWithIdFromLocalRepository(@NonNull final String vocabularyId) {
         return mVocabularyLocalDataSource
                 .getVocabulary(vocabularyId)
                 .doOnNext(taskOptional -> {
                     if (taskOptional.isPresent()) {
-                        mCachedVocabulary.put(vocabularyId, taskOptional.get());
+                        cacheVocabulary(taskOptional.get());
                     }
                 })
                 .firstElement().toFlowable();
     }
+
+    private static final class CacheSnapshot {
+
+        final long mVersion;
+
+        @NonNull
+        final List<Vocabulary> mVocabularies;
+
+        CacheSnapshot(long version, @NonNull List<Vocabulary> vocabularies) {
+            mVersion = version;
+            mVocabularies = vocabularies;
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.code.englishnotes.data.source.local;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.source.SyncTokenStore;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the sync token in the app's private preferences. Writes are applied asynchronously: a
+ * token lost with the process only makes the next load transfer a delta again, which is
+ * idempotent.
+ */
+public class SyncTokenPreferences implements SyncTokenStore {
+
+    private static final String PREFERENCES_NAME = "vocabulary_sync";
+
+    private static final String KEY_SYNC_TOKEN = "sync_token";
+
+    @Nullable
+    private static SyncTokenPreferences INSTANCE;
+
+    @NonNull
+    private final SharedPreferences mPreferences;
+
+    // Prevent direct instantiation.
+    private SyncTokenPreferences(@NonNull Context context) {
+        checkNotNull(context, "context cannot be null");
+        mPreferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static SyncTokenPreferences getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            INSTANCE = new SyncTokenPreferences(context);
+        }
+        return INSTANCE;
+    }
+
+    public static void destroyInstance() {
+        INSTANCE = null;
+    }
+
+    @Override
+    public long getSyncToken() {
+        return mPreferences.getLong(KEY_SYNC_TOKEN, VocabularyDelta.INITIAL_SYNC_TOKEN);
+    }
+
+    @Override
+    public void setSyncToken(long syncToken) {
+        mPreferences.edit().putLong(KEY_SYNC_TOKEN, syncToken).apply();
+    }
+}
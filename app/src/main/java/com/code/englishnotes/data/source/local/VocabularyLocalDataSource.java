@@ -1,6 +1,7 @@
 package com.code.englishnotes.data.source.local;
 
-import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.arch.persistence.db.SupportSQLiteQuery;
+import android.arch.persistence.db.SupportSQLiteStatement;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
@@ -9,51 +10,149 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 
+import com.code.englishnotes.data.database.EnglishNotesDatabase;
+import com.code.englishnotes.data.model.ReviewState;
 import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.model.VocabularyReview;
 import com.code.englishnotes.data.source.VocabularyDataSource;
+import com.code.englishnotes.data.source.VocabularyImporter;
+import com.code.englishnotes.utils.csv.DelimitedReader;
+import com.code.englishnotes.utils.csv.DelimitedWriter;
+import com.code.englishnotes.utils.database.CommitActions;
+import com.code.englishnotes.utils.database.CursorMapper;
+import com.code.englishnotes.utils.database.MapToListOperator;
 import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
 import com.google.common.base.Optional;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.ObjectArrays;
 import com.squareup.sqlbrite3.BriteDatabase;
 import com.squareup.sqlbrite3.SqlBrite;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
-import io.reactivex.functions.Function;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class VocabularyLocalDataSource implements VocabularyDataSource {
 
+    private static final String[] PROJECTION = {
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED
+    };
+
+    /**
+     * {@link #PROJECTION} followed by the review schedule.
+     */
+    private static final String[] REVIEW_PROJECTION = ObjectArrays.concat(PROJECTION, new String[]{
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_EASE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_INTERVAL,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_REPETITIONS,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT
+    }, String.class);
+
+    private static final String[] STAGED_COLUMNS = {
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT};
+
+    private static final String COLUMNS = TextUtils.join(",", STAGED_COLUMNS);
+
+    private static final String SQL_CREATE_STAGING = String.format(
+            "CREATE TEMP TABLE IF NOT EXISTS %s (%s)",
+            VocabularyPersistenceContract.VocabularyStagingEntry.TABLE_NAME, COLUMNS);
+
+    private static final String SQL_INSERT_STAGING = String.format(
+            "INSERT INTO %s (%s) VALUES (?,?,?,?,?,?,?)",
+            VocabularyPersistenceContract.VocabularyStagingEntry.TABLE_NAME, COLUMNS);
+
+    // A replaced row would get the default review schedule, so the schedule of the row it
+    // replaces is carried over; new rows get the default one.
+    private static final String SQL_COPY_STAGING = String.format(
+            "INSERT OR REPLACE INTO %1$s (%2$s,%3$s,%4$s,%5$s,%6$s) SELECT s.%7$s," +
+                    "IFNULL(v.%3$s,%8$d),IFNULL(v.%4$s,%9$d),IFNULL(v.%5$s,%10$d),IFNULL(v.%6$s,%11$d)" +
+                    " FROM %12$s s LEFT JOIN %1$s v ON v.%13$s = s.%13$s",
+            VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, COLUMNS,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_EASE,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_INTERVAL,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_REPETITIONS,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT,
+            TextUtils.join(",s.", STAGED_COLUMNS),
+            ReviewState.NEW.getEase(), ReviewState.NEW.getIntervalDays(),
+            ReviewState.NEW.getRepetitions(), ReviewState.NEW.getDueAt(),
+            VocabularyPersistenceContract.VocabularyStagingEntry.TABLE_NAME,
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID);
+
+    private static final String SQL_CLEAR_STAGING = String.format(
+            "DELETE FROM %s", VocabularyPersistenceContract.VocabularyStagingEntry.TABLE_NAME);
+
+    /**
+     * The columns of {@link #exportCsv(OutputStream)}, in the order {@link VocabularyImporter}
+     * reads them.
+     */
+    private static final String[] CSV_HEADER = {"title", "description", "type", "pronunciation"};
+
+    /**
+     * Rows of a restored snapshot staged before they are copied into the vocabulary table; each
+     * copy writes one segment of the full-text index.
+     */
+    private static final int SNAPSHOT_ROWS_PER_COPY = 1000;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Largest batch {@link #saveVocabularies(Collection)} writes row by row. Staging costs a few
+     * statements of its own and only pays off from about 8 rows.
+     */
+    private static final int MAXIMUM_ROWS_WRITTEN_DIRECTLY = 4;
+
+    /**
+     * Ids bound by a single IN clause. SQLite accepts at most 999 bound variables per statement,
+     * the rest is left for the values of an update.
+     */
+    private static final int MAXIMUM_IDS_PER_STATEMENT = 900;
+
     @Nullable
     private static VocabularyLocalDataSource INSTANCE;
 
+    // Opened on the io scheduler the first time it is needed.
     @NonNull
-    private final BriteDatabase mDatabaseHelper;
+    private final Single<BriteDatabase> mDatabaseHelper;
 
     @NonNull
-    private Function<Cursor, Vocabulary> mVocabularyMapperFunction;
+    private final FlowableProcessor<VocabularyChange> mVocabularyChanges =
+            PublishProcessor.<VocabularyChange>create().toSerialized();
 
     public VocabularyLocalDataSource(@NonNull Context context,
                                      @NonNull BaseSchedulerProvider schedulerProvider) {
         checkNotNull(context, "context cannot be null");
         checkNotNull(schedulerProvider, "scheduleProvider cannot be null");
-        VocabularyDbHelper dbHelper = new VocabularyDbHelper(context);
-        SqlBrite sqlBrite = new SqlBrite.Builder().build();
-        mDatabaseHelper = sqlBrite.wrapDatabaseHelper((SupportSQLiteOpenHelper) dbHelper, schedulerProvider.io());
-        mVocabularyMapperFunction = this::getVocabulary;
-    }
-
-    @NonNull
-    private Vocabulary getVocabulary(@NonNull Cursor c) {
-        String itemId = c.getString(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID));
-        String title = c.getString(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE));
-        String description = c.getString(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION));
-        String type = c.getString(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE));
-        String pronounce = c.getString(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE));
-        boolean completed = c.getInt(c.getColumnIndexOrThrow(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED)) == 1;
-        return new Vocabulary(itemId, title, description, type, pronounce, completed);
+        mDatabaseHelper = EnglishNotesDatabase.getInstance(context, schedulerProvider);
     }
 
     public static VocabularyLocalDataSource getInstance(
@@ -69,50 +168,318 @@ public class VocabularyLocalDataSource implements VocabularyDataSource {
         INSTANCE = null;
     }
 
+    @NonNull
+    private Observable<SqlBrite.Query> createQuery(@NonNull String table, @NonNull String sql,
+                                                   @NonNull Object... args) {
+        return mDatabaseHelper.flatMapObservable(database -> database.createQuery(table, sql, args));
+    }
+
+    @NonNull
+    private Observable<SqlBrite.Query> createQuery(@NonNull String table, @NonNull SupportSQLiteQuery query) {
+        return mDatabaseHelper.flatMapObservable(database -> database.createQuery(table, query));
+    }
+
+    /**
+     * Writes run on the calling thread, which waits here while the database is opening.
+     * {@link com.code.englishnotes.data.source.VocabularyRepository} calls them on the
+     * databaseWrite scheduler, never the main thread. The open itself runs on the unbounded io
+     * scheduler, so a writer waiting here never holds a thread the open needs.
+     */
+    @NonNull
+    private BriteDatabase getDatabase() {
+        return mDatabaseHelper.blockingGet();
+    }
+
     @Override
     public Flowable<List<Vocabulary>> getVocabularys() {
-        String[] projection = {
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s", TextUtils.join(",", projection), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME);
-        return mDatabaseHelper.createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql)
-                .mapToList(mVocabularyMapperFunction)
+        String sql = String.format("SELECT %s FROM %s", TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME);
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql)
+                .lift(new MapToListOperator<>(VocabularyMapper::new))
+                .toFlowable(BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * Seeks past {@code afterVocabularyId} on the primary key index instead of using OFFSET, so
+     * every page costs the same regardless of how deep into the table it is.
+     */
+    @Override
+    public Flowable<List<Vocabulary>> getVocabularyPage(@Nullable String afterVocabularyId, int pageSize) {
+        checkArgument(pageSize > 0, "pageSize must be positive");
+        String sql;
+        Object[] args;
+        if (afterVocabularyId == null) {
+            sql = String.format("SELECT %s FROM %s ORDER BY %s LIMIT ?",
+                    TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID);
+            args = new Object[]{pageSize};
+        } else {
+            sql = String.format("SELECT %s FROM %s WHERE %s > ? ORDER BY %s LIMIT ?",
+                    TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID);
+            args = new Object[]{afterVocabularyId, pageSize};
+        }
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql, args)
+                .lift(new MapToListOperator<>(VocabularyMapper::new))
                 .toFlowable(BackpressureStrategy.BUFFER);
     }
 
     @Override
     public Flowable<Optional<Vocabulary>> getVocabulary(@NonNull String vocabularyId) {
-        String[] projection = {
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
-                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED
-        };
-        String sql = String.format("SELECT %s FROM %s WHERE %s LIKE ?",
-                TextUtils.join(",", projection), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID);
-        return mDatabaseHelper.createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql, vocabularyId)
-                .mapToOneOrDefault(cursor -> Optional.of(mVocabularyMapperFunction.apply(cursor)), Optional.<Vocabulary>absent())
+        String sql = String.format("SELECT %s FROM %s WHERE %s = ?",
+                TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID);
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql, vocabularyId)
+                .lift(SqlBrite.Query.mapToOneOrDefault(cursor -> Optional.of(new VocabularyMapper().apply(cursor)), Optional.<Vocabulary>absent()))
                 .toFlowable(BackpressureStrategy.BUFFER);
     }
 
+    @Override
+    public Flowable<List<Vocabulary>> searchVocabulary(@NonNull String query, int limit) {
+        checkNotNull(query);
+        checkArgument(limit > 0, "limit must be positive");
+        String matchQuery = toMatchQuery(query);
+        if (matchQuery.isEmpty()) {
+            return Flowable.just(Collections.<Vocabulary>emptyList());
+        }
+        // Title hits rank above description-only hits, then shorter titles (closer to the
+        // searched word) come first. Each kind is ranked by its own arm of the UNION ALL, which
+        // SQLite runs in order and stops as soon as the outer LIMIT is reached, so when the title
+        // hits fill the page the description hits, often many more, are never read nor sorted.
+        String arm = String.format("SELECT * FROM (SELECT %1$s FROM %2$s WHERE rowid IN (%%s)" +
+                        " ORDER BY length(%3$s), %3$s LIMIT ?)",
+                TextUtils.join(",", PROJECTION),
+                VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE);
+        String titleHits = String.format("SELECT %1$s FROM %2$s WHERE %3$s MATCH ?",
+                VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DOC_ID,
+                VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME,
+                VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_TITLE);
+        String allHits = String.format("SELECT %1$s FROM %2$s WHERE %2$s MATCH ?",
+                VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DOC_ID,
+                VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME);
+        String sql = String.format(arm, titleHits) + " UNION ALL " +
+                String.format(arm, allHits + " EXCEPT " + titleHits) + " LIMIT ?";
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql,
+                matchQuery, limit, matchQuery, matchQuery, limit, limit)
+                .lift(new MapToListOperator<>(VocabularyMapper::new))
+                .toFlowable(BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * Turns free user input into an FTS prefix query, e.g. {@code "Run_ away"} becomes
+     * {@code "run* away*"}. Everything that is not a letter or digit is dropped so the input can
+     * never be parsed as FTS operators.
+     */
+    @NonNull
+    private static String toMatchQuery(@NonNull String query) {
+        StringBuilder matchQuery = new StringBuilder();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            if (matchQuery.length() > 0) {
+                matchQuery.append(' ');
+            }
+            matchQuery.append(token).append('*');
+        }
+        return matchQuery.toString();
+    }
+
+    /**
+     * Walks the index on {@link VocabularyPersistenceContract.VocabularyEntry#COLUMN_NAME_REVIEW_DUE_AT}
+     * as {@link VocabularyReviewQueries#due} describes. Like the other queries it re-runs after
+     * every write to the table, and each run binds the time it starts at, so the reviews that fell
+     * due since the last write are included.
+     */
+    @Override
+    public Flowable<List<VocabularyReview>> getDueVocabularies(int limit) {
+        checkArgument(limit > 0, "limit must be positive");
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                VocabularyReviewQueries.due(REVIEW_PROJECTION, limit, System::currentTimeMillis))
+                .lift(new MapToListOperator<>(VocabularyReviewMapper::new))
+                .toFlowable(BackpressureStrategy.BUFFER);
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getNewVocabularies(int limit) {
+        checkArgument(limit > 0, "limit must be positive");
+        return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                VocabularyReviewQueries.neverReviewed(PROJECTION, limit))
+                .lift(new MapToListOperator<>(VocabularyMapper::new))
+                .toFlowable(BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * Leaves {@link VocabularyPersistenceContract.VocabularyEntry#COLUMN_NAME_UPDATED_AT} alone
+     * and reports no {@link VocabularyChange}: review schedules are not synced and the
+     * vocabulary itself is unchanged.
+     */
+    @Override
+    public void saveReviewState(@NonNull String vocabularyId, @NonNull ReviewState reviewState) {
+        checkNotNull(vocabularyId);
+        checkNotNull(reviewState);
+        ContentValues values = new ContentValues();
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_EASE, reviewState.getEase());
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_INTERVAL, reviewState.getIntervalDays());
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_REPETITIONS, reviewState.getRepetitions());
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT, reviewState.getDueAt());
+
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " = ?";
+        String[] selectionArgs = {vocabularyId};
+        getDatabase().update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs);
+    }
+
+    /**
+     * Unlike {@link #getVocabularys()}, a write does not re-run any query: only the change itself
+     * is emitted, so a single-row update costs O(1) downstream. A write nested in a larger
+     * transaction, as the outbox begins, is reported once the outermost one commits; see
+     * {@link CommitActions}.
+     */
+    @Override
+    public Flowable<VocabularyChange> getVocabularyChanges() {
+        return mVocabularyChanges.onBackpressureBuffer();
+    }
+
+    /**
+     * Returns the rows written after {@code syncToken}, found through the index on
+     * {@link VocabularyPersistenceContract.VocabularyEntry#COLUMN_NAME_UPDATED_AT}. Rows written
+     * during the current millisecond are left for the next delta, so a write racing with the
+     * query is never skipped. Deletions are not tracked locally, so the delta has no deleted ids.
+     */
+    @Override
+    public Flowable<VocabularyDelta> getVocabularysChangedSince(long syncToken) {
+        return Flowable.defer(() -> {
+            long now = System.currentTimeMillis();
+            String sql = String.format("SELECT %s FROM %s WHERE %s > ? AND %s < ?",
+                    TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT,
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT);
+            return createQuery(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, sql, syncToken, now)
+                    .lift(new MapToListOperator<>(VocabularyMapper::new))
+                    .take(1)
+                    .map(vocabularies -> new VocabularyDelta(vocabularies,
+                            Collections.<String>emptyList(), Math.max(syncToken, now - 1)))
+                    .toFlowable(BackpressureStrategy.BUFFER);
+        });
+    }
+
     @Override
     public void saveVocabulary(@NonNull Vocabulary vocabulary) {
         checkNotNull(vocabulary);
+        BriteDatabase database = getDatabase();
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        try {
+            upsert(database, vocabulary, System.currentTimeMillis());
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+        }
+        publish(VocabularyChange.upsert(vocabulary));
+    }
+
+    /**
+     * Updates the row in place rather than replacing it, which would reset its review schedule,
+     * and inserts it when there is none. Runs in the caller's transaction.
+     */
+    private static void upsert(@NonNull BriteDatabase database, @NonNull Vocabulary vocabulary, long updatedAt) {
+        String id = vocabulary.getId();
         ContentValues values = new ContentValues();
-        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID, vocabulary.getId());
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID, id);
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE, vocabulary.getTitle());
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION, vocabulary.getDescription());
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE, vocabulary.getType());
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE, vocabulary.getPronounce());
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED, vocabulary.isCompleted());
-        mDatabaseHelper.insert(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values);
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT, updatedAt);
+
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " = ?";
+        String[] selectionArgs = {id};
+        if (database.update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs) == 0) {
+            database.insert(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values);
+        }
+    }
+
+    /**
+     * Writes all the vocabularies in a single transaction, so subscribers of
+     * {@link #getVocabularys()} are notified once for the whole batch.
+     * <p>
+     * Batches larger than {@link #MAXIMUM_ROWS_WRITTEN_DIRECTLY} are first bound one by one into
+     * a temporary staging table that has no triggers, then copied into the vocabulary table by a
+     * single statement. The full-text index flushes its pending terms at the end of every
+     * statement that writes to it, so inserting row by row would write one index segment per row,
+     * and merging those segments made that the bulk of the cost of large batches. The staging
+     * table lives in the connection's temporary schema, so it is created if missing on every
+     * staged batch; that is one schema lookup per batch. Smaller batches are upserted row by row.
+     */
+    @Override
+    public void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        checkNotNull(vocabularies);
+        if (vocabularies.isEmpty()) {
+            return;
+        }
+        BriteDatabase database = getDatabase();
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        SupportSQLiteStatement statement = null;
+        long updatedAt = System.currentTimeMillis();
+        try {
+            if (vocabularies.size() <= MAXIMUM_ROWS_WRITTEN_DIRECTLY) {
+                for (Vocabulary vocabulary : vocabularies) {
+                    upsert(database, vocabulary, updatedAt);
+                }
+            } else {
+                database.execute(SQL_CREATE_STAGING);
+                statement = database.getWritableDatabase().compileStatement(SQL_INSERT_STAGING);
+                for (Vocabulary vocabulary : vocabularies) {
+                    statement.clearBindings();
+                    statement.bindString(1, vocabulary.getId());
+                    bindNullableString(statement, 2, vocabulary.getTitle());
+                    bindNullableString(statement, 3, vocabulary.getDescription());
+                    bindNullableString(statement, 4, vocabulary.getType());
+                    bindNullableString(statement, 5, vocabulary.getPronounce());
+                    statement.bindLong(6, vocabulary.isCompleted() ? 1 : 0);
+                    statement.bindLong(7, updatedAt);
+                    statement.executeInsert();
+                }
+                copyStaging(database);
+            }
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+            closeQuietly(statement);
+        }
+        CommitActions.afterCommit(() -> {
+            for (Vocabulary vocabulary : vocabularies) {
+                mVocabularyChanges.onNext(VocabularyChange.upsert(vocabulary));
+            }
+        });
+    }
+
+    /**
+     * Emits {@code change} once the write is committed, so a caller enclosing it in a larger
+     * transaction never reports a change that is then rolled back.
+     */
+    private void publish(@NonNull VocabularyChange change) {
+        CommitActions.afterCommit(() -> mVocabularyChanges.onNext(change));
+    }
+
+    private static void bindNullableString(@NonNull SupportSQLiteStatement statement, int index,
+                                           @Nullable String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    private static void closeQuietly(@Nullable SupportSQLiteStatement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (IOException ignored) {
+            // Closing a compiled statement only releases its native handle.
+        }
     }
 
     @Override
@@ -124,10 +491,87 @@ public class VocabularyLocalDataSource implements VocabularyDataSource {
     public void completeVocabulary(@NonNull String vocabularyId) {
         ContentValues values = new ContentValues();
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED, true);
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT, System.currentTimeMillis());
 
-        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {vocabularyId};
-        mDatabaseHelper.update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs);
+        if (getDatabase().update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE, values, selection, selectionArgs) > 0) {
+            publish(VocabularyChange.complete(vocabularyId));
+        }
+    }
+
+    /**
+     * Updates the rows {@link #MAXIMUM_IDS_PER_STATEMENT} ids at a time, in a single transaction.
+     * A change is reported only for the ids that have a row.
+     */
+    @Override
+    public void completeVocabularies(@NonNull Collection<String> vocabularyIds) {
+        checkNotNull(vocabularyIds);
+        if (vocabularyIds.isEmpty()) {
+            return;
+        }
+        ContentValues values = new ContentValues();
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED, true);
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT, System.currentTimeMillis());
+
+        BriteDatabase database = getDatabase();
+        List<String> completedIds = new ArrayList<>(vocabularyIds.size());
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        try {
+            for (List<String> chunk : Iterables.partition(vocabularyIds, MAXIMUM_IDS_PER_STATEMENT)) {
+                List<String> matchedIds = selectExistingIds(database, chunk);
+                if (matchedIds.isEmpty()) {
+                    continue;
+                }
+                database.update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE,
+                        values, inSelection(matchedIds.size()), matchedIds.toArray(new String[matchedIds.size()]));
+                completedIds.addAll(matchedIds);
+            }
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+        }
+        CommitActions.afterCommit(() -> {
+            for (String vocabularyId : completedIds) {
+                mVocabularyChanges.onNext(VocabularyChange.complete(vocabularyId));
+            }
+        });
+    }
+
+    /**
+     * Runs inside the caller's transaction, which keeps every other writer out until the write
+     * using the result is done, so that write matches exactly these ids.
+     *
+     * @return the ids of {@code chunk} that have a row
+     */
+    @NonNull
+    private static List<String> selectExistingIds(@NonNull BriteDatabase database, @NonNull List<String> chunk) {
+        List<String> existingIds = new ArrayList<>(chunk.size());
+        Cursor cursor = database.query(String.format("SELECT %s FROM %s WHERE %s",
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID,
+                VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, inSelection(chunk.size())),
+                chunk.toArray());
+        try {
+            while (cursor.moveToNext()) {
+                existingIds.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        return existingIds;
+    }
+
+    /**
+     * @return the selection matching {@code count} ids bound in order
+     */
+    @NonNull
+    private static String inSelection(int count) {
+        StringBuilder selection = new StringBuilder(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID)
+                .append(" IN (");
+        for (int i = 0; i < count; i++) {
+            selection.append(i == 0 ? "?" : ",?");
+        }
+        return selection.append(')').toString();
     }
 
     @Override
@@ -139,17 +583,22 @@ public class VocabularyLocalDataSource implements VocabularyDataSource {
     public void activateVocabulary(@NonNull String vocabularyId) {
         ContentValues values = new ContentValues();
         values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED, false);
+        values.put(VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_UPDATED_AT, System.currentTimeMillis());
 
-        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {vocabularyId};
-        mDatabaseHelper.update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE , values, selection, selectionArgs);
+        if (getDatabase().update(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQLiteDatabase.CONFLICT_REPLACE , values, selection, selectionArgs) > 0) {
+            publish(VocabularyChange.activate(vocabularyId));
+        }
     }
 
     @Override
     public void clearCompletedVocabularys() {
-        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED + " LIKE ?";
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED + " = ?";
         String[] selectionArgs = {"1"};
-        mDatabaseHelper.delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, selection, selectionArgs);
+        if (getDatabase().delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, selection, selectionArgs) > 0) {
+            publish(VocabularyChange.deleteCompleted());
+        }
     }
 
     @Override
@@ -159,13 +608,221 @@ public class VocabularyLocalDataSource implements VocabularyDataSource {
 
     @Override
     public void deleteAllVocabularys() {
-        mDatabaseHelper.delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, null);
+        if (getDatabase().delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, null) > 0) {
+            publish(VocabularyChange.deleteAll());
+        }
     }
 
     @Override
     public void deleteVocabulary(@NonNull String vocabularyId) {
-        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " LIKE ?";
+        String selection = VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + " = ?";
         String[] selectionArgs = {vocabularyId};
-        mDatabaseHelper.delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, selection, selectionArgs);
+        if (getDatabase().delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, selection, selectionArgs) > 0) {
+            publish(VocabularyChange.delete(vocabularyId));
+        }
+    }
+
+    /**
+     * Deletes the rows {@link #MAXIMUM_IDS_PER_STATEMENT} ids at a time, in a single transaction.
+     * A change is reported only for the ids that had a row.
+     */
+    @Override
+    public void deleteVocabularies(@NonNull Collection<String> vocabularyIds) {
+        checkNotNull(vocabularyIds);
+        if (vocabularyIds.isEmpty()) {
+            return;
+        }
+        BriteDatabase database = getDatabase();
+        List<String> deletedIds = new ArrayList<>(vocabularyIds.size());
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        try {
+            for (List<String> chunk : Iterables.partition(vocabularyIds, MAXIMUM_IDS_PER_STATEMENT)) {
+                List<String> matchedIds = selectExistingIds(database, chunk);
+                if (matchedIds.isEmpty()) {
+                    continue;
+                }
+                database.delete(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                        inSelection(matchedIds.size()), matchedIds.toArray(new String[matchedIds.size()]));
+                deletedIds.addAll(matchedIds);
+            }
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+        }
+        CommitActions.afterCommit(() -> {
+            for (String vocabularyId : deletedIds) {
+                mVocabularyChanges.onNext(VocabularyChange.delete(vocabularyId));
+            }
+        });
+    }
+
+    /**
+     * Writes every vocabulary as CSV in the columns {@link VocabularyImporter} reads, with a
+     * header. Rows are streamed from a cursor, so the table is never held in memory. Ids and
+     * completion are not exported; {@link #exportSnapshot(OutputStream)} keeps them.
+     * <p>
+     * Runs on the calling thread. {@code output} is flushed, not closed.
+     *
+     * @return the number of exported vocabularies
+     */
+    public long exportCsv(@NonNull OutputStream output) throws IOException {
+        checkNotNull(output);
+        DelimitedWriter writer = new DelimitedWriter(new OutputStreamWriter(output, UTF_8), DelimitedReader.COMMA);
+        for (String column : CSV_HEADER) {
+            writer.writeField(column);
+        }
+        writer.endRecord();
+        long count = 0;
+        Cursor cursor = getDatabase().query(String.format("SELECT %s,%s,%s,%s FROM %s",
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE,
+                VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME));
+        try {
+            while (cursor.moveToNext()) {
+                for (int i = 0; i < CSV_HEADER.length; i++) {
+                    writer.writeField(cursor.getString(i));
+                }
+                writer.endRecord();
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Writes every vocabulary, ids and completion included, as a binary snapshot that
+     * {@link #importSnapshot(InputStream)} restores. Rows are streamed from a cursor straight
+     * into the {@link VocabularySnapshotWriter}.
+     * <p>
+     * Runs on the calling thread. {@code output} is flushed, not closed.
+     *
+     * @return the number of exported vocabularies
+     */
+    public long exportSnapshot(@NonNull OutputStream output) throws IOException {
+        checkNotNull(output);
+        VocabularySnapshotWriter writer = new VocabularySnapshotWriter(output);
+        Cursor cursor = getDatabase().query(String.format("SELECT %s FROM %s",
+                TextUtils.join(",", PROJECTION), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME));
+        try {
+            while (cursor.moveToNext()) {
+                writer.writeRow(cursor.getString(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getString(4), cursor.getInt(5) == 1);
+            }
+        } finally {
+            cursor.close();
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    /**
+     * Restores a snapshot written by {@link #exportSnapshot(OutputStream)}, replacing the
+     * vocabularies with the same ids and keeping the others.
+     * <p>
+     * Rows are bound from the {@link VocabularySnapshotReader} into the staging table and copied
+     * {@link #SNAPSHOT_ROWS_PER_COPY} at a time, all in one transaction: a truncated or corrupt
+     * snapshot restores nothing. Subscribers of {@link #getVocabularyChanges()} get a single
+     * {@link VocabularyChange#reload()} instead of a change per row; the repository drops its
+     * cache on it.
+     * <p>
+     * Runs on the calling thread. {@code input} is not closed.
+     *
+     * @return the number of restored vocabularies
+     */
+    public long importSnapshot(@NonNull InputStream input) throws IOException {
+        checkNotNull(input);
+        VocabularySnapshotReader reader = new VocabularySnapshotReader(input);
+        BriteDatabase database = getDatabase();
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        SupportSQLiteStatement statement = null;
+        long updatedAt = System.currentTimeMillis();
+        try {
+            database.execute(SQL_CREATE_STAGING);
+            statement = database.getWritableDatabase().compileStatement(SQL_INSERT_STAGING);
+            while (reader.next()) {
+                statement.clearBindings();
+                statement.bindString(1, reader.getId());
+                bindNullableString(statement, 2, reader.getTitle());
+                bindNullableString(statement, 3, reader.getDescription());
+                bindNullableString(statement, 4, reader.getType());
+                bindNullableString(statement, 5, reader.getPronounce());
+                statement.bindLong(6, reader.isCompleted() ? 1 : 0);
+                statement.bindLong(7, updatedAt);
+                statement.executeInsert();
+                if (reader.getRowCount() % SNAPSHOT_ROWS_PER_COPY == 0) {
+                    copyStaging(database);
+                }
+            }
+            copyStaging(database);
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+            closeQuietly(statement);
+        }
+        if (reader.getRowCount() > 0) {
+            publish(VocabularyChange.reload());
+        }
+        return reader.getRowCount();
+    }
+
+    private static void copyStaging(@NonNull BriteDatabase database) {
+        database.executeAndTrigger(VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME, SQL_COPY_STAGING);
+        database.execute(SQL_CLEAR_STAGING);
+    }
+
+    /**
+     * Maps rows selected with {@link #PROJECTION}; the column indices follow its order.
+     */
+    private static final class VocabularyMapper extends CursorMapper<Vocabulary> {
+
+        VocabularyMapper() {
+            super(PROJECTION);
+        }
+
+        @NonNull
+        @Override
+        protected Vocabulary map(@NonNull Cursor c, @NonNull int[] columnIndices) {
+            return readVocabulary(c, columnIndices);
+        }
+    }
+
+    /**
+     * Maps rows selected with {@link #REVIEW_PROJECTION}; the column indices follow its order.
+     */
+    private static final class VocabularyReviewMapper extends CursorMapper<VocabularyReview> {
+
+        VocabularyReviewMapper() {
+            super(REVIEW_PROJECTION);
+        }
+
+        @NonNull
+        @Override
+        protected VocabularyReview map(@NonNull Cursor c, @NonNull int[] columnIndices) {
+            int ease = c.getInt(columnIndices[6]);
+            int intervalDays = c.getInt(columnIndices[7]);
+            int repetitions = c.getInt(columnIndices[8]);
+            long dueAt = c.getLong(columnIndices[9]);
+            return new VocabularyReview(readVocabulary(c, columnIndices),
+                    new ReviewState(ease, intervalDays, repetitions, dueAt));
+        }
+    }
+
+    /**
+     * Reads the columns of {@link #PROJECTION}, which start every projection of this class.
+     */
+    @NonNull
+    private static Vocabulary readVocabulary(@NonNull Cursor c, @NonNull int[] columnIndices) {
+        String itemId = c.getString(columnIndices[0]);
+        String title = c.getString(columnIndices[1]);
+        String description = c.getString(columnIndices[2]);
+        String type = c.getString(columnIndices[3]);
+        String pronounce = c.getString(columnIndices[4]);
+        boolean completed = c.getInt(columnIndices[5]) == 1;
+        return new Vocabulary(itemId, title, description, type, pronounce, completed);
     }
 }
@@ -0,0 +1,202 @@
+package com.code.englishnotes.data.source.local;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+import com.code.englishnotes.data.database.EnglishNotesDatabase;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyMutation;
+import com.code.englishnotes.data.source.VocabularyOutbox;
+import com.code.englishnotes.utils.database.CommitActions;
+import com.code.englishnotes.utils.database.CursorMapper;
+import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
+import com.squareup.sqlbrite3.BriteDatabase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.reactivex.Single;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the outbox in the shared database, next to the vocabulary table, so it survives the
+ * process being killed before the remote was reached.
+ */
+public class VocabularyOutboxLocalDataSource implements VocabularyOutbox {
+
+    private static final String[] PROJECTION = {
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_SEQUENCE,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_OPERATION,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENTRY_ID,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TITLE,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_DESCRIPTION,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TYPE,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_PRONOUNCE,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_COMPLETED,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENQUEUED_AT
+    };
+
+    private static final String SQL_PEEK = String.format("SELECT %s FROM %s ORDER BY %s LIMIT ?",
+            TextUtils.join(",", PROJECTION),
+            VocabularyPersistenceContract.VocabularyOutboxEntry.TABLE_NAME,
+            VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_SEQUENCE);
+
+    private static final String SQL_COUNT = "SELECT COUNT(*) FROM " +
+            VocabularyPersistenceContract.VocabularyOutboxEntry.TABLE_NAME;
+
+    @Nullable
+    private static VocabularyOutboxLocalDataSource INSTANCE;
+
+    // Opened on the io scheduler the first time it is needed.
+    @NonNull
+    private final Single<BriteDatabase> mDatabaseHelper;
+
+    public VocabularyOutboxLocalDataSource(@NonNull Context context,
+                                           @NonNull BaseSchedulerProvider schedulerProvider) {
+        checkNotNull(context, "context cannot be null");
+        checkNotNull(schedulerProvider, "scheduleProvider cannot be null");
+        mDatabaseHelper = EnglishNotesDatabase.getInstance(context, schedulerProvider);
+    }
+
+    public static VocabularyOutboxLocalDataSource getInstance(
+            @NonNull Context context,
+            @NonNull BaseSchedulerProvider schedulerProvider) {
+        if (INSTANCE == null) {
+            INSTANCE = new VocabularyOutboxLocalDataSource(context, schedulerProvider);
+        }
+        return INSTANCE;
+    }
+
+    public static void destroyInstance() {
+        INSTANCE = null;
+    }
+
+    /**
+     * Runs on the calling thread, the databaseWrite scheduler for the enqueues and the flusher's
+     * for the rest, which waits here while the database is opening on the io
+     * scheduler.
+     */
+    @NonNull
+    private BriteDatabase getDatabase() {
+        return mDatabaseHelper.blockingGet();
+    }
+
+    @Override
+    public void enqueue(@NonNull Collection<VocabularyMutation> mutations) {
+        checkNotNull(mutations);
+        BriteDatabase database = getDatabase();
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(database);
+        try {
+            for (VocabularyMutation mutation : mutations) {
+                database.insert(VocabularyPersistenceContract.VocabularyOutboxEntry.TABLE_NAME,
+                        SQLiteDatabase.CONFLICT_ABORT, toContentValues(mutation));
+            }
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+        }
+    }
+
+    /**
+     * The local data sources share this database, and sqlbrite nests the transactions opened on
+     * one thread, so the local write joins the outbox's transaction.
+     */
+    @Override
+    public void enqueue(@NonNull Collection<VocabularyMutation> mutations, @NonNull Runnable localWrite) {
+        checkNotNull(mutations);
+        checkNotNull(localWrite);
+        BriteDatabase.Transaction transaction = CommitActions.newTransaction(getDatabase());
+        try {
+            localWrite.run();
+            enqueue(mutations);
+            transaction.markSuccessful();
+        } finally {
+            transaction.end();
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<VocabularyMutation> peek(int limit) {
+        checkArgument(limit > 0, "limit must be positive");
+        List<VocabularyMutation> mutations = new ArrayList<>();
+        MutationMapper mapper = new MutationMapper();
+        Cursor cursor = getDatabase().query(SQL_PEEK, limit);
+        try {
+            while (cursor.moveToNext()) {
+                mutations.add(mapper.apply(cursor));
+            }
+        } finally {
+            cursor.close();
+        }
+        return mutations;
+    }
+
+    @Override
+    public void remove(long sequence) {
+        getDatabase().delete(VocabularyPersistenceContract.VocabularyOutboxEntry.TABLE_NAME,
+                VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_SEQUENCE + " <= ?",
+                String.valueOf(sequence));
+    }
+
+    @Override
+    public int size() {
+        Cursor cursor = getDatabase().query(SQL_COUNT);
+        try {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @NonNull
+    private static ContentValues toContentValues(@NonNull VocabularyMutation mutation) {
+        ContentValues values = new ContentValues();
+        values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_OPERATION, mutation.getType().name());
+        values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENTRY_ID, mutation.getVocabularyId());
+        values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_ENQUEUED_AT, mutation.getEnqueuedAtMillis());
+        Vocabulary vocabulary = mutation.getVocabulary();
+        if (vocabulary != null) {
+            values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TITLE, vocabulary.getTitle());
+            values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_DESCRIPTION, vocabulary.getDescription());
+            values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_TYPE, vocabulary.getType());
+            values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_PRONOUNCE, vocabulary.getPronounce());
+            values.put(VocabularyPersistenceContract.VocabularyOutboxEntry.COLUMN_NAME_COMPLETED, vocabulary.isCompleted());
+        }
+        return values;
+    }
+
+    /**
+     * Maps rows selected with {@link #PROJECTION}; the column indices follow its order.
+     */
+    private static final class MutationMapper extends CursorMapper<VocabularyMutation> {
+
+        MutationMapper() {
+            super(PROJECTION);
+        }
+
+        @NonNull
+        @Override
+        protected VocabularyMutation map(@NonNull Cursor c, @NonNull int[] columnIndices) {
+            long sequence = c.getLong(columnIndices[0]);
+            VocabularyMutation.Type type = VocabularyMutation.Type.valueOf(c.getString(columnIndices[1]));
+            String vocabularyId = c.getString(columnIndices[2]);
+            Vocabulary vocabulary = null;
+            if (type == VocabularyMutation.Type.SAVE) {
+                vocabulary = new Vocabulary(vocabularyId, c.getString(columnIndices[3]),
+                        c.getString(columnIndices[4]), c.getString(columnIndices[5]),
+                        c.getString(columnIndices[6]), c.getInt(columnIndices[7]) == 1);
+            }
+            long enqueuedAtMillis = c.getLong(columnIndices[8]);
+            return new VocabularyMutation(sequence, type, vocabularyId, vocabulary, enqueuedAtMillis);
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.code.englishnotes.data.source.local;
 
-import android.provider.BaseColumns;
-
 public class VocabularyPersistenceContract {
     private VocabularyPersistenceContract() {
     }
 
-    public static abstract class VocabularyEntry implements BaseColumns {
+    public static abstract class VocabularyEntry {
         public static final String TABLE_NAME = "vocabulary";
         public static final String COLUMN_NAME_ENTRY_ID = "entryid";
         public static final String COLUMN_NAME_TITLE = "title";
@@ -14,5 +12,63 @@ public class VocabularyPersistenceContract {
         public static final String COLUMN_NAME_TYPE = "type";
         public static final String COLUMN_NAME_PRONOUNCE = "pronounce";
         public static final String COLUMN_NAME_COMPLETED = "completed";
+        /**
+         * When the row was last written through the local data source, in milliseconds since the
+         * epoch. Rows older than the column hold 0.
+         */
+        public static final String COLUMN_NAME_UPDATED_AT = "updated_at";
+        /**
+         * The review schedule of the row, as kept by {@code ReviewState}: the ease in thousandths,
+         * the interval in days, the reviews recalled in a row and when the next review is due, in
+         * milliseconds since the epoch. Rows never reviewed hold the state of
+         * {@code ReviewState.NEW}, whose due time is 0.
+         */
+        public static final String COLUMN_NAME_REVIEW_EASE = "review_ease";
+        public static final String COLUMN_NAME_REVIEW_INTERVAL = "review_interval";
+        public static final String COLUMN_NAME_REVIEW_REPETITIONS = "review_repetitions";
+        public static final String COLUMN_NAME_REVIEW_DUE_AT = "review_due_at";
+        public static final String INDEX_NAME_COMPLETED = "index_vocabulary_completed";
+        public static final String INDEX_NAME_UPDATED_AT = "index_vocabulary_updated_at";
+        public static final String INDEX_NAME_REVIEW_DUE_AT = "index_vocabulary_review_due_at";
+    }
+
+    /**
+     * Temporary table, private to the writing connection, that {@code saveVocabularies} fills
+     * with a batch before copying it into {@link VocabularyEntry} with a single statement. It has
+     * the columns of {@link VocabularyEntry} and is empty outside of that transaction.
+     */
+    public static abstract class VocabularyStagingEntry {
+        public static final String TABLE_NAME = "vocabulary_staging";
+    }
+
+    /**
+     * Local writes waiting to be sent to the remote data source, oldest {@code sequence} first.
+     * A saved vocabulary is stored whole, the other operations only fill the columns they need.
+     */
+    public static abstract class VocabularyOutboxEntry {
+        public static final String TABLE_NAME = "vocabulary_outbox";
+        public static final String COLUMN_NAME_SEQUENCE = "sequence";
+        public static final String COLUMN_NAME_OPERATION = "operation";
+        public static final String COLUMN_NAME_ENTRY_ID = "entryid";
+        public static final String COLUMN_NAME_TITLE = "title";
+        public static final String COLUMN_NAME_DESCRIPTION = "description";
+        public static final String COLUMN_NAME_TYPE = "type";
+        public static final String COLUMN_NAME_PRONOUNCE = "pronounce";
+        public static final String COLUMN_NAME_COMPLETED = "completed";
+        public static final String COLUMN_NAME_ENQUEUED_AT = "enqueued_at";
+    }
+
+    /**
+     * Full-text index over {@link VocabularyEntry}. Rows are keyed by the {@code rowid} of the
+     * vocabulary row they mirror and are maintained by triggers, never written directly.
+     */
+    public static abstract class VocabularySearchEntry {
+        public static final String TABLE_NAME = "vocabulary_fts";
+        public static final String COLUMN_NAME_DOC_ID = "docid";
+        public static final String COLUMN_NAME_TITLE = "title";
+        public static final String COLUMN_NAME_DESCRIPTION = "description";
+        public static final String TRIGGER_NAME_INSERT = "vocabulary_fts_insert";
+        public static final String TRIGGER_NAME_UPDATE = "vocabulary_fts_update";
+        public static final String TRIGGER_NAME_DELETE = "vocabulary_fts_delete";
     }
 }
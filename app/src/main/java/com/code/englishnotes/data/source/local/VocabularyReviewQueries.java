@@ -0,0 +1,89 @@
+package com.code.englishnotes.data.source.local;
+
+import android.arch.persistence.db.SupportSQLiteProgram;
+import android.arch.persistence.db.SupportSQLiteQuery;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.ReviewState;
+import com.google.common.base.Joiner;
+import com.google.common.base.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The review queries of {@link VocabularyLocalDataSource}. They only use the support SQLite
+ * interfaces, so they also run on SQLite outside of Android.
+ */
+final class VocabularyReviewQueries {
+
+    private VocabularyReviewQueries() {
+    }
+
+    /**
+     * Seeks the index on {@link VocabularyPersistenceContract.VocabularyEntry#COLUMN_NAME_REVIEW_DUE_AT}
+     * past the rows never reviewed and reads it in order until {@code limit} rows, so a batch
+     * costs one index seek plus {@code limit} rows whatever the size of the table.
+     *
+     * @param clock read every time the query is bound, for the time due reviews are due by, in
+     *              milliseconds since the epoch
+     */
+    @NonNull
+    static SupportSQLiteQuery due(@NonNull String[] projection, int limit, @NonNull Supplier<Long> clock) {
+        String sql = String.format("SELECT %s FROM %s WHERE %s > %d AND %s <= ? ORDER BY %s LIMIT ?",
+                Joiner.on(',').join(projection), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT, ReviewState.NEW.getDueAt(),
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT);
+        return new ReviewQuery(sql, limit, checkNotNull(clock));
+    }
+
+    /**
+     * Reads the rows never reviewed from the start of the same index.
+     */
+    @NonNull
+    static SupportSQLiteQuery neverReviewed(@NonNull String[] projection, int limit) {
+        String sql = String.format("SELECT %s FROM %s WHERE %s = %d LIMIT ?",
+                Joiner.on(',').join(projection), VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME,
+                VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_REVIEW_DUE_AT, ReviewState.NEW.getDueAt());
+        return new ReviewQuery(sql, limit, null);
+    }
+
+    private static final class ReviewQuery implements SupportSQLiteQuery {
+
+        @NonNull
+        private final String mSql;
+
+        private final int mLimit;
+
+        @Nullable
+        private final Supplier<Long> mClock;
+
+        ReviewQuery(@NonNull String sql, int limit, @Nullable Supplier<Long> clock) {
+            checkArgument(limit > 0, "limit must be positive");
+            mSql = sql;
+            mLimit = limit;
+            mClock = clock;
+        }
+
+        @Override
+        public String getSql() {
+            return mSql;
+        }
+
+        @Override
+        public void bindTo(SupportSQLiteProgram statement) {
+            int index = 1;
+            if (mClock != null) {
+                statement.bindLong(index++, mClock.get());
+            }
+            statement.bindLong(index, mLimit);
+        }
+
+        @Override
+        public int getArgCount() {
+            return mClock == null ? 1 : 2;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.code.englishnotes.data.source.local;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The SQL that creates the vocabulary tables as version 1 of the shared database described by
+ * {@code EnglishNotesSchema}. Later changes to the tables are migrations of that schema, which
+ * alone is versioned.
+ * <p>
+ * Kept free of Android classes so the migrations can be checked on a plain JVM.
+ */
+public final class VocabularySchema {
+
+    private static final String TEXT_TYPE = " TEXT";
+
+    private static final String BOOLEAN_TYPE = " INTEGER";
+
+    private static final String COMMA_SEP = ",";
+
+    public static final String SQL_CREATE_ENTRIES =
+            "CREATE TABLE " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME + " (" +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID + TEXT_TYPE + " PRIMARY KEY," +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE + TEXT_TYPE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION + TEXT_TYPE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TYPE + TEXT_TYPE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_PRONOUNCE + TEXT_TYPE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED + BOOLEAN_TYPE +
+                    " )";
+
+    public static final String SQL_CREATE_COMPLETED_INDEX =
+            "CREATE INDEX IF NOT EXISTS " + VocabularyPersistenceContract.VocabularyEntry.INDEX_NAME_COMPLETED +
+                    " ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " (" + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_COMPLETED + ")";
+
+    public static final String SQL_CREATE_SEARCH =
+            "CREATE VIRTUAL TABLE " + VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME +
+                    " USING fts4(" +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DESCRIPTION +
+                    ")";
+
+    public static final String SQL_CREATE_SEARCH_INSERT_TRIGGER =
+            "CREATE TRIGGER " + VocabularyPersistenceContract.VocabularySearchEntry.TRIGGER_NAME_INSERT +
+                    " AFTER INSERT ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " BEGIN INSERT INTO " + VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME + " (" +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DOC_ID + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DESCRIPTION +
+                    ") VALUES (new.rowid, new." + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE +
+                    ", new." + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION + "); END";
+
+    public static final String SQL_CREATE_SEARCH_UPDATE_TRIGGER =
+            "CREATE TRIGGER " + VocabularyPersistenceContract.VocabularySearchEntry.TRIGGER_NAME_UPDATE +
+                    " AFTER UPDATE OF " + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION +
+                    " ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " BEGIN UPDATE " + VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME +
+                    " SET " + VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_TITLE +
+                    " = new." + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_TITLE + COMMA_SEP +
+                    VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DESCRIPTION +
+                    " = new." + VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_DESCRIPTION +
+                    " WHERE " + VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DOC_ID +
+                    " = old.rowid; END";
+
+    public static final String SQL_CREATE_SEARCH_DELETE_TRIGGER =
+            "CREATE TRIGGER " + VocabularyPersistenceContract.VocabularySearchEntry.TRIGGER_NAME_DELETE +
+                    " AFTER DELETE ON " + VocabularyPersistenceContract.VocabularyEntry.TABLE_NAME +
+                    " BEGIN DELETE FROM " + VocabularyPersistenceContract.VocabularySearchEntry.TABLE_NAME +
+                    " WHERE " + VocabularyPersistenceContract.VocabularySearchEntry.COLUMN_NAME_DOC_ID +
+                    " = old.rowid; END";
+
+    /**
+     * Creates the tables of version 1 of the shared database on an empty database.
+     */
+    public static final List<String> CREATE = Collections.unmodifiableList(Arrays.asList(
+            SQL_CREATE_ENTRIES,
+            SQL_CREATE_COMPLETED_INDEX,
+            SQL_CREATE_SEARCH,
+            SQL_CREATE_SEARCH_INSERT_TRIGGER,
+            SQL_CREATE_SEARCH_UPDATE_TRIGGER,
+            SQL_CREATE_SEARCH_DELETE_TRIGGER));
+
+    private VocabularySchema() {
+    }
+}
@@ -0,0 +1,254 @@
+package com.code.englishnotes.data.source.local;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyId;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Reads a snapshot written by {@link VocabularySnapshotWriter}, one row at a time.
+ * <p>
+ * {@link #next()} decodes a row into reused buffers and fields of this reader, so rows can be
+ * bound to a statement without a {@link Vocabulary} or any buffer being created for them; the
+ * only allocations are the field strings themselves.
+ */
+public final class VocabularySnapshotReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @NonNull
+    private final InputStream mInput;
+
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+
+    private int mPosition;
+
+    private int mLimit;
+
+    // Decoded characters of the text being read, grown as needed.
+    private char[] mChars = new char[64];
+
+    private long mRowCount;
+
+    private boolean mEnded;
+
+    private String mId;
+
+    @Nullable
+    private String mTitle;
+
+    @Nullable
+    private String mDescription;
+
+    @Nullable
+    private String mType;
+
+    @Nullable
+    private String mPronounce;
+
+    private boolean mCompleted;
+
+    /**
+     * @throws IOException when the stream does not start with a snapshot header of a known version
+     */
+    public VocabularySnapshotReader(@NonNull InputStream input) throws IOException {
+        mInput = checkNotNull(input);
+        for (byte b : VocabularySnapshotWriter.MAGIC) {
+            if (readByte() != (b & 0xFF)) {
+                throw new IOException("Not a vocabulary snapshot");
+            }
+        }
+        int version = readByte();
+        if (version != VocabularySnapshotWriter.VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+    }
+
+    /**
+     * Moves to the next row.
+     *
+     * @return false once every row has been read
+     * @throws IOException when the snapshot is truncated or corrupt
+     */
+    public boolean next() throws IOException {
+        if (mEnded) {
+            return false;
+        }
+        int flags = readByte();
+        if (flags == VocabularySnapshotWriter.END) {
+            long rowCount = readVarint();
+            if (rowCount != mRowCount) {
+                throw new IOException("Snapshot holds " + mRowCount + " rows, its trailer " + rowCount);
+            }
+            mEnded = true;
+            return false;
+        }
+        if ((flags & ~(VocabularySnapshotWriter.FLAG_COMPLETED | VocabularySnapshotWriter.FLAG_UUID_ID)) != 0) {
+            throw new IOException("Corrupt snapshot row " + (mRowCount + 1));
+        }
+        if ((flags & VocabularySnapshotWriter.FLAG_UUID_ID) != 0) {
+            mId = VocabularyId.toUuidString(readLong(), readLong());
+        } else {
+            String id = readText();
+            if (id == null) {
+                throw new IOException("Snapshot row " + (mRowCount + 1) + " has no id");
+            }
+            mId = id;
+        }
+        mTitle = readText();
+        mDescription = readText();
+        mType = readText();
+        mPronounce = readText();
+        mCompleted = (flags & VocabularySnapshotWriter.FLAG_COMPLETED) != 0;
+        mRowCount++;
+        return true;
+    }
+
+    @NonNull
+    public String getId() {
+        checkState(mId != null, "next() was not called");
+        return mId;
+    }
+
+    @Nullable
+    public String getTitle() {
+        return mTitle;
+    }
+
+    @Nullable
+    public String getDescription() {
+        return mDescription;
+    }
+
+    @Nullable
+    public String getType() {
+        return mType;
+    }
+
+    @Nullable
+    public String getPronounce() {
+        return mPronounce;
+    }
+
+    public boolean isCompleted() {
+        return mCompleted;
+    }
+
+    /**
+     * @return the current row as a new {@link Vocabulary}
+     */
+    @NonNull
+    public Vocabulary toVocabulary() {
+        return new Vocabulary(getId(), mTitle, mDescription, mType, mPronounce, mCompleted);
+    }
+
+    /**
+     * @return the number of rows read so far
+     */
+    public long getRowCount() {
+        return mRowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mInput.close();
+    }
+
+    @Nullable
+    private String readText() throws IOException {
+        long lengthPlusOne = readVarint();
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        long length = lengthPlusOne - 1;
+        // The writer never writes longer texts.
+        if (length > VocabularySnapshotWriter.MAXIMUM_TEXT_BYTES) {
+            throw new IOException("Corrupt snapshot text length " + length);
+        }
+        // UTF-8 never takes fewer bytes than the UTF-16 chars it decodes to.
+        if (mChars.length < length) {
+            mChars = new char[(int) Math.max(length, mChars.length * 2)];
+        }
+        int count = 0;
+        long remaining = length;
+        while (remaining > 0) {
+            int b = readByte();
+            remaining--;
+            if (b < 0x80) {
+                mChars[count++] = (char) b;
+                continue;
+            }
+            int extra;
+            int codePoint;
+            if ((b & 0xE0) == 0xC0) {
+                extra = 1;
+                codePoint = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                extra = 2;
+                codePoint = b & 0x0F;
+            } else if ((b & 0xF8) == 0xF0) {
+                extra = 3;
+                codePoint = b & 0x07;
+            } else {
+                throw new IOException("Corrupt UTF-8 in snapshot row " + (mRowCount + 1));
+            }
+            if (extra > remaining) {
+                throw new IOException("Corrupt UTF-8 in snapshot row " + (mRowCount + 1));
+            }
+            for (int i = 0; i < extra; i++) {
+                int continuation = readByte();
+                if ((continuation & 0xC0) != 0x80) {
+                    throw new IOException("Corrupt UTF-8 in snapshot row " + (mRowCount + 1));
+                }
+                codePoint = (codePoint << 6) | (continuation & 0x3F);
+            }
+            remaining -= extra;
+            if (codePoint > Character.MAX_CODE_POINT) {
+                throw new IOException("Corrupt UTF-8 in snapshot row " + (mRowCount + 1));
+            }
+            count += Character.toChars(codePoint, mChars, count);
+        }
+        return new String(mChars, 0, count);
+    }
+
+    private long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt snapshot varint");
+    }
+
+    private int readByte() throws IOException {
+        if (mPosition == mLimit) {
+            int count = mInput.read(mBuffer, 0, BUFFER_SIZE);
+            if (count <= 0) {
+                throw new EOFException("Snapshot ends after " + mRowCount + " rows, before its trailer");
+            }
+            mPosition = 0;
+            mLimit = count;
+        }
+        return mBuffer[mPosition++] & 0xFF;
+    }
+}
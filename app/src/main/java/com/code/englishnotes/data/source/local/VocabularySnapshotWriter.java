@@ -0,0 +1,268 @@
+package com.code.englishnotes.data.source.local;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyId;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Writes vocabulary rows in the binary snapshot format read by {@link VocabularySnapshotReader}:
+ * <pre>
+ * snapshot := "ENVS" version:u8 row* END:u8 rowCount:varint
+ * row      := flags:u8 id title description type pronounce
+ * id       := 16 bytes, most significant first, if flags has FLAG_UUID_ID; text otherwise
+ * text     := (byteLength + 1):varint utf8Bytes, or 0 for null
+ * </pre>
+ * Varints are unsigned LEB128. A UUID id takes 16 bytes instead of 37, and the row count at the
+ * end lets a reader tell a complete snapshot from a truncated one. A text is at most
+ * {@link #MAXIMUM_TEXT_BYTES} long, which the reader relies on to tell a corrupt length.
+ * <p>
+ * Rows are encoded straight into a reused buffer; a row written from strings only allocates the
+ * {@link VocabularyId} its id is parsed into.
+ */
+public final class VocabularySnapshotWriter implements Closeable {
+
+    static final byte[] MAGIC = {'E', 'N', 'V', 'S'};
+
+    static final byte VERSION = 1;
+
+    static final int FLAG_COMPLETED = 1;
+
+    static final int FLAG_UUID_ID = 1 << 1;
+
+    static final int END = 0x80;
+
+    // Far above any real field.
+    static final int MAXIMUM_TEXT_BYTES = 1 << 20;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Chars of a text too long for the buffer encoded at a time; at most 3 bytes each, plus one
+    // more char when a chunk would end between the two halves of a surrogate pair.
+    private static final int CHUNK_CHARS = BUFFER_SIZE / 3 - 1;
+
+    @NonNull
+    private final OutputStream mOutput;
+
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+
+    private int mPosition;
+
+    private long mRowCount;
+
+    private boolean mFinished;
+
+    public VocabularySnapshotWriter(@NonNull OutputStream output) {
+        mOutput = checkNotNull(output);
+        // The header goes to the empty buffer and reaches the stream with the first rows.
+        System.arraycopy(MAGIC, 0, mBuffer, 0, MAGIC.length);
+        mBuffer[MAGIC.length] = VERSION;
+        mPosition = MAGIC.length + 1;
+    }
+
+    public void writeRow(@NonNull Vocabulary vocabulary) throws IOException {
+        VocabularyId id = vocabulary.getVocabularyId();
+        writeRow(id, id.isUuid() ? null : vocabulary.getId(), vocabulary.getTitle(),
+                vocabulary.getDescription(), vocabulary.getType(), vocabulary.getPronounce(),
+                vocabulary.isCompleted());
+    }
+
+    public void writeRow(@NonNull String id, @Nullable String title, @Nullable String description,
+                         @Nullable String type, @Nullable String pronounce, boolean completed)
+            throws IOException {
+        VocabularyId vocabularyId = VocabularyId.of(id);
+        writeRow(vocabularyId, vocabularyId.isUuid() ? null : id, title, description, type,
+                pronounce, completed);
+    }
+
+    /**
+     * Writes the end marker and the row count, and flushes. Nothing can be written afterwards.
+     */
+    public void finish() throws IOException {
+        checkState(!mFinished, "snapshot already finished");
+        mFinished = true;
+        writeByte(END);
+        writeVarint(mRowCount);
+        mOutput.write(mBuffer, 0, mPosition);
+        mPosition = 0;
+        mOutput.flush();
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    public long getRowCount() {
+        return mRowCount;
+    }
+
+    /**
+     * Finishes the snapshot if needed and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!mFinished) {
+                finish();
+            }
+        } finally {
+            mOutput.close();
+        }
+    }
+
+    /**
+     * @param textId the id as text, null when {@code id} is a UUID
+     * @throws IOException when a text is longer than {@link #MAXIMUM_TEXT_BYTES}, in which case
+     *                     nothing of the row is written
+     */
+    private void writeRow(@NonNull VocabularyId id, @Nullable String textId, @Nullable String title,
+                          @Nullable String description, @Nullable String type,
+                          @Nullable String pronounce, boolean completed) throws IOException {
+        checkState(!mFinished, "snapshot already finished");
+        checkTextLength(textId);
+        checkTextLength(title);
+        checkTextLength(description);
+        checkTextLength(type);
+        checkTextLength(pronounce);
+        int flags = completed ? FLAG_COMPLETED : 0;
+        if (textId == null) {
+            flags |= FLAG_UUID_ID;
+        }
+        writeByte(flags);
+        if (textId == null) {
+            writeLong(id.getMostSignificantBits());
+            writeLong(id.getLeastSignificantBits());
+        } else {
+            writeText(textId);
+        }
+        writeText(title);
+        writeText(description);
+        writeText(type);
+        writeText(pronounce);
+        mRowCount++;
+    }
+
+    private void checkTextLength(@Nullable String text) throws IOException {
+        // No char takes more than 3 bytes, so only long texts are measured.
+        if (text != null && text.length() > MAXIMUM_TEXT_BYTES / 3 && utf8Length(text) > MAXIMUM_TEXT_BYTES) {
+            throw new IOException("Snapshot row " + (mRowCount + 1) + " has a text of " + utf8Length(text)
+                    + " bytes, over the limit of " + MAXIMUM_TEXT_BYTES);
+        }
+    }
+
+    private void writeText(@Nullable String text) throws IOException {
+        if (text == null) {
+            writeByte(0);
+            return;
+        }
+        int length = utf8Length(text);
+        writeVarint(length + 1L);
+        if (length > BUFFER_SIZE - mPosition) {
+            mOutput.write(mBuffer, 0, mPosition);
+            mPosition = 0;
+        }
+        if (length <= BUFFER_SIZE) {
+            // Room was made for the whole text, so it is encoded without per byte checks.
+            mPosition = encode(text, mBuffer, mPosition);
+            return;
+        }
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + CHUNK_CHARS);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end++;
+            }
+            mOutput.write(mBuffer, 0, encode(text.substring(start, end), mBuffer, 0));
+            start = end;
+        }
+    }
+
+    /**
+     * Encodes {@code text} into {@code buffer} at {@code position}, which must have room for it.
+     *
+     * @return the position after the encoded text
+     */
+    private static int encode(@NonNull String text, @NonNull byte[] buffer, int position) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (isSurrogate(c)) {
+                // An unpaired surrogate has no UTF-8 form.
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return the number of bytes {@link #writeText(String)} encodes {@code text} to
+     */
+    private static int utf8Length(@NonNull String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogate(char c) {
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE;
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (value >>> shift));
+        }
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (mPosition == BUFFER_SIZE) {
+            mOutput.write(mBuffer, 0, mPosition);
+            mPosition = 0;
+        }
+        mBuffer[mPosition++] = (byte) b;
+    }
+}
@@ -17,29 +17,58 @@
 package com.code.englishnotes.data.source.remote;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 
+import com.code.englishnotes.data.model.ReviewState;
 import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.model.VocabularyId;
+import com.code.englishnotes.data.model.VocabularyReview;
 import com.code.englishnotes.data.source.VocabularyDataSource;
 import com.google.common.base.Optional;
 
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Flowable;
 
 /**
- * Implementation of the data source that adds a latency simulating network.
+ * Implementation of the data source that adds a latency simulating network. Reads are delayed,
+ * writes block for one round trip per call, whatever the number of vocabularies they carry.
  */
 public class VocabularyRemoteDataSource implements VocabularyDataSource {
 
     private static VocabularyRemoteDataSource INSTANCE;
 
-    private static final int SERVICE_LATENCY_IN_MILLIS = 5000;
+    @VisibleForTesting
+    static final int SERVICE_LATENCY_IN_MILLIS = 5000;
 
-    private final static Map<String, Vocabulary> TASKS_SERVICE_DATA;
+    // Keyed by the ids themselves rather than their strings, which UUID ids build on every call.
+    private final static Map<VocabularyId, Vocabulary> TASKS_SERVICE_DATA;
+
+    /**
+     * The service version at which each vocabulary in {@link #TASKS_SERVICE_DATA} was last written.
+     */
+    private final static Map<VocabularyId, Long> SERVICE_DATA_VERSIONS = new HashMap<>();
+
+    /**
+     * The service version at which each deleted vocabulary was deleted.
+     */
+    private final static Map<VocabularyId, Long> SERVICE_TOMBSTONES = new HashMap<>();
+
+    /**
+     * Incremented by every write, handed out as the sync token.
+     */
+    private static long sServiceVersion = VocabularyDelta.INITIAL_SYNC_TOKEN;
 
     static {
         TASKS_SERVICE_DATA = new LinkedHashMap<>(2);
@@ -60,13 +89,97 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
 
     private static void addTask(String title, String description) {
         Vocabulary newTask = new Vocabulary(title, description);
-        TASKS_SERVICE_DATA.put(newTask.getId(), newTask);
+        put(newTask);
+    }
+
+    private static void simulateRoundTrip() {
+        try {
+            Thread.sleep(SERVICE_LATENCY_IN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static synchronized void put(@NonNull Vocabulary vocabulary) {
+        VocabularyId vocabularyId = vocabulary.getVocabularyId();
+        TASKS_SERVICE_DATA.put(vocabularyId, vocabulary);
+        SERVICE_TOMBSTONES.remove(vocabularyId);
+        SERVICE_DATA_VERSIONS.put(vocabularyId, ++sServiceVersion);
+    }
+
+    private static synchronized void remove(@NonNull VocabularyId vocabularyId) {
+        if (TASKS_SERVICE_DATA.remove(vocabularyId) != null) {
+            SERVICE_DATA_VERSIONS.remove(vocabularyId);
+            SERVICE_TOMBSTONES.put(vocabularyId, ++sServiceVersion);
+        }
+    }
+
+    /**
+     * Removes the completed vocabularies, collected first as removing leaves a tombstone behind.
+     */
+    private static synchronized void removeCompleted() {
+        List<VocabularyId> completedIds = new ArrayList<>();
+        for (Vocabulary vocabulary : TASKS_SERVICE_DATA.values()) {
+            if (vocabulary.isCompleted()) {
+                completedIds.add(vocabulary.getVocabularyId());
+            }
+        }
+        for (VocabularyId completedId : completedIds) {
+            remove(completedId);
+        }
+    }
+
+    private static synchronized void removeAll() {
+        for (VocabularyId vocabularyId : new ArrayList<>(TASKS_SERVICE_DATA.keySet())) {
+            remove(vocabularyId);
+        }
+    }
+
+    /**
+     * @return a copy of the service data, which writers change concurrently
+     */
+    private static synchronized List<Vocabulary> getAll() {
+        return new ArrayList<>(TASKS_SERVICE_DATA.values());
+    }
+
+    @Nullable
+    private static synchronized Vocabulary get(@NonNull String vocabularyId) {
+        return TASKS_SERVICE_DATA.get(VocabularyId.of(vocabularyId));
+    }
+
+    private static synchronized VocabularyDelta getDeltaSince(long syncToken) {
+        List<Vocabulary> changed = new ArrayList<>();
+        for (Map.Entry<VocabularyId, Long> entry : SERVICE_DATA_VERSIONS.entrySet()) {
+            if (entry.getValue() > syncToken) {
+                changed.add(TASKS_SERVICE_DATA.get(entry.getKey()));
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<VocabularyId, Long> entry : SERVICE_TOMBSTONES.entrySet()) {
+            if (entry.getValue() > syncToken) {
+                deleted.add(entry.getKey().toString());
+            }
+        }
+        return new VocabularyDelta(changed, deleted, sServiceVersion);
     }
 
     @Override
     public Flowable<List<Vocabulary>> getVocabularys() {
         return Flowable
-                .fromIterable(TASKS_SERVICE_DATA.values())
+                .defer(() -> Flowable.fromIterable(getAll()))
+                .delay(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS)
+                .toList()
+                .toFlowable();
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getVocabularyPage(@Nullable String afterVocabularyId, int pageSize) {
+        VocabularyId after = afterVocabularyId == null ? null : VocabularyId.of(afterVocabularyId);
+        return Flowable
+                .defer(() -> Flowable.fromIterable(getAll()))
+                .filter(task -> after == null || task.getVocabularyId().compareTo(after) > 0)
+                .sorted((first, second) -> first.getVocabularyId().compareTo(second.getVocabularyId()))
+                .take(pageSize)
                 .delay(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS)
                 .toList()
                 .toFlowable();
@@ -74,7 +187,7 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
 
     @Override
     public Flowable<Optional<Vocabulary>> getVocabulary(@NonNull String taskId) {
-        final Vocabulary task = TASKS_SERVICE_DATA.get(taskId);
+        final Vocabulary task = get(taskId);
         if (task != null) {
             return Flowable.just(Optional.of(task)).delay(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS);
         } else {
@@ -82,15 +195,77 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
         }
     }
 
+    @Override
+    public Flowable<List<Vocabulary>> searchVocabulary(@NonNull String query, int limit) {
+        final String needle = query.toLowerCase(Locale.ROOT);
+        return Flowable
+                .defer(() -> Flowable.fromIterable(getAll()))
+                .filter(task -> contains(task.getTitle(), needle) || contains(task.getDescription(), needle))
+                .take(limit)
+                .delay(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS)
+                .toList()
+                .toFlowable();
+    }
+
+    private static boolean contains(String text, String needle) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    @Override
+    public Flowable<List<VocabularyReview>> getDueVocabularies(int limit) {
+        // Not required because review schedules are kept on the device only.
+        return Flowable.just(Collections.<VocabularyReview>emptyList());
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getNewVocabularies(int limit) {
+        // Not required because review schedules are kept on the device only.
+        return Flowable.just(Collections.<Vocabulary>emptyList());
+    }
+
+    @Override
+    public void saveReviewState(@NonNull String vocabularyId, @NonNull ReviewState reviewState) {
+        // Not required because review schedules are kept on the device only.
+    }
+
+    @Override
+    public Flowable<VocabularyChange> getVocabularyChanges() {
+        // Not required because the remote service does not push changes, the {@link
+        // VocabularyRepository} listens to the local data source instead.
+        return Flowable.empty();
+    }
+
+    /**
+     * Only the versions written after {@code syncToken} are sent, together with the ids deleted
+     * after it.
+     */
+    @Override
+    public Flowable<VocabularyDelta> getVocabularysChangedSince(long syncToken) {
+        return Flowable
+                .fromCallable(() -> getDeltaSince(syncToken))
+                .delay(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void saveVocabulary(@NonNull Vocabulary vocabulary) {
-        TASKS_SERVICE_DATA.put(vocabulary.getId(), vocabulary);
+        simulateRoundTrip();
+        put(vocabulary);
+    }
+
+    @Override
+    public void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        simulateRoundTrip();
+        for (Vocabulary vocabulary : vocabularies) {
+            put(vocabulary);
+        }
     }
 
     @Override
     public void completeVocabulary(@NonNull Vocabulary task) {
-        Vocabulary completedTask = new Vocabulary(task.getTitle(), task.getDescription(), task.getId(), true);
-        TASKS_SERVICE_DATA.put(task.getId(), completedTask);
+        simulateRoundTrip();
+        Vocabulary completedTask = new Vocabulary(task.getVocabularyId(), task.getTitle(), task.getDescription(),
+                null, null, true);
+        put(completedTask);
     }
 
     @Override
@@ -99,10 +274,28 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
         // converting from a {@code taskId} to a {@link task} using its cached data.
     }
 
+    @Override
+    public void completeVocabularies(@NonNull Collection<String> vocabularyIds) {
+        simulateRoundTrip();
+        for (String vocabularyId : vocabularyIds) {
+            complete(vocabularyId);
+        }
+    }
+
+    private static synchronized void complete(@NonNull String vocabularyId) {
+        Vocabulary vocabulary = TASKS_SERVICE_DATA.get(VocabularyId.of(vocabularyId));
+        if (vocabulary != null && !vocabulary.isCompleted()) {
+            put(new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(), vocabulary.getDescription(),
+                    vocabulary.getType(), vocabulary.getPronounce(), true));
+        }
+    }
+
     @Override
     public void activateVocabulary(@NonNull Vocabulary task) {
-        Vocabulary activeTask = new Vocabulary(task.getTitle(), task.getDescription(), task.getId());
-        TASKS_SERVICE_DATA.put(task.getId(), activeTask);
+        simulateRoundTrip();
+        Vocabulary activeTask = new Vocabulary(task.getVocabularyId(), task.getTitle(), task.getDescription(),
+                null, null, false);
+        put(activeTask);
     }
 
     @Override
@@ -113,13 +306,8 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
 
     @Override
     public void clearCompletedVocabularys() {
-        Iterator<Map.Entry<String, Vocabulary>> it = TASKS_SERVICE_DATA.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry<String, Vocabulary> entry = it.next();
-            if (entry.getValue().isCompleted()) {
-                it.remove();
-            }
-        }
+        simulateRoundTrip();
+        removeCompleted();
     }
 
     @Override
@@ -130,11 +318,21 @@ public class VocabularyRemoteDataSource implements VocabularyDataSource {
 
     @Override
     public void deleteAllVocabularys() {
-        TASKS_SERVICE_DATA.clear();
+        simulateRoundTrip();
+        removeAll();
     }
 
     @Override
     public void deleteVocabulary(@NonNull String taskId) {
-        TASKS_SERVICE_DATA.remove(taskId);
+        simulateRoundTrip();
+        remove(VocabularyId.of(taskId));
+    }
+
+    @Override
+    public void deleteVocabularies(@NonNull Collection<String> vocabularyIds) {
+        simulateRoundTrip();
+        for (String vocabularyId : vocabularyIds) {
+            remove(VocabularyId.of(vocabularyId));
+        }
     }
 }
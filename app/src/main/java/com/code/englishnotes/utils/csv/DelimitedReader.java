@@ -0,0 +1,146 @@
+package com.code.englishnotes.utils.csv;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads delimiter separated records, CSV or TSV, one at a time from a {@link Reader}.
+ * <p>
+ * Only the current record is held in memory, so files of any size are read in constant memory.
+ * Fields may be quoted with {@code "}, in which case they can contain the delimiter, line breaks
+ * and quotes written as {@code ""}. Records end with {@code \n}, {@code \r\n} or {@code \r}, and
+ * a byte order mark at the start of the input is skipped.
+ */
+public final class DelimitedReader implements Closeable {
+
+    public static final char COMMA = ',';
+
+    public static final char TAB = '\t';
+
+    private static final char QUOTE = '"';
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @NonNull
+    private final Reader mReader;
+
+    private final char mDelimiter;
+
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+
+    private int mPosition;
+
+    private int mLimit;
+
+    private final StringBuilder mField = new StringBuilder();
+
+    private boolean mStarted;
+
+    // Set after a \r, so that the \n of a \r\n is not read as an empty record.
+    private boolean mSkipLineFeed;
+
+    private long mRecordCount;
+
+    public DelimitedReader(@NonNull Reader reader, char delimiter) {
+        checkArgument(delimiter != QUOTE && delimiter != '\n' && delimiter != '\r',
+                "invalid delimiter");
+        mReader = checkNotNull(reader);
+        mDelimiter = delimiter;
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the input. An empty line is a
+     * record with a single empty field.
+     * @throws IOException when reading fails or the input ends inside a quoted field
+     */
+    @Nullable
+    public List<String> readRecord() throws IOException {
+        int c = read();
+        if (!mStarted) {
+            mStarted = true;
+            if (c == BYTE_ORDER_MARK) {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            mField.setLength(0);
+            if (c == QUOTE) {
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field in record " + (mRecordCount + 1));
+                    }
+                    if (c == QUOTE) {
+                        c = read();
+                        if (c != QUOTE) {
+                            break;
+                        }
+                    }
+                    mField.append((char) c);
+                }
+            }
+            // Unquoted fields, and anything following the closing quote of a quoted one.
+            while (c != -1 && c != mDelimiter && c != '\n' && c != '\r') {
+                mField.append((char) c);
+                c = read();
+            }
+            fields.add(mField.toString());
+            if (c != mDelimiter) {
+                mSkipLineFeed = c == '\r';
+                mRecordCount++;
+                return fields;
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return the number of records returned so far
+     */
+    public long getRecordCount() {
+        return mRecordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mReader.close();
+    }
+
+    private int read() throws IOException {
+        int c = readChar();
+        if (mSkipLineFeed) {
+            mSkipLineFeed = false;
+            if (c == '\n') {
+                c = readChar();
+            }
+        }
+        return c;
+    }
+
+    private int readChar() throws IOException {
+        if (mPosition == mLimit) {
+            int count = mReader.read(mBuffer, 0, BUFFER_SIZE);
+            if (count <= 0) {
+                return -1;
+            }
+            mPosition = 0;
+            mLimit = count;
+        }
+        return mBuffer[mPosition++];
+    }
+}
@@ -0,0 +1,127 @@
+package com.code.englishnotes.utils.csv;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes delimiter separated records that {@link DelimitedReader} reads back, one field at a
+ * time.
+ * <p>
+ * Fields holding the delimiter, a quote or a line break are quoted, and so are fields with
+ * leading or trailing spaces, which many readers trim otherwise. A null field is written empty.
+ * Output is buffered; {@link #flush()} or {@link #close()} hands it to the underlying writer.
+ */
+public final class DelimitedWriter implements Closeable, Flushable {
+
+    private static final char QUOTE = '"';
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @NonNull
+    private final Writer mWriter;
+
+    private final char mDelimiter;
+
+    private final char[] mBuffer = new char[BUFFER_SIZE];
+
+    private int mPosition;
+
+    private boolean mFirstField = true;
+
+    public DelimitedWriter(@NonNull Writer writer, char delimiter) {
+        checkArgument(delimiter != QUOTE && delimiter != '\n' && delimiter != '\r',
+                "invalid delimiter");
+        mWriter = checkNotNull(writer);
+        mDelimiter = delimiter;
+    }
+
+    public void writeField(@Nullable String field) throws IOException {
+        if (!mFirstField) {
+            write(mDelimiter);
+        }
+        mFirstField = false;
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        if (!needsQuotes(field)) {
+            write(field);
+            return;
+        }
+        write(QUOTE);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == QUOTE) {
+                write(QUOTE);
+            }
+            write(c);
+        }
+        write(QUOTE);
+    }
+
+    /**
+     * Ends the current record.
+     */
+    public void endRecord() throws IOException {
+        write('\n');
+        mFirstField = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        mWriter.write(mBuffer, 0, mPosition);
+        mPosition = 0;
+        mWriter.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            mWriter.close();
+        }
+    }
+
+    private boolean needsQuotes(@NonNull String field) {
+        if (field.charAt(0) == ' ' || field.charAt(field.length() - 1) == ' ') {
+            return true;
+        }
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == mDelimiter || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(char c) throws IOException {
+        if (mPosition == BUFFER_SIZE) {
+            mWriter.write(mBuffer, 0, mPosition);
+            mPosition = 0;
+        }
+        mBuffer[mPosition++] = c;
+    }
+
+    private void write(@NonNull String s) throws IOException {
+        int offset = 0;
+        while (offset < s.length()) {
+            if (mPosition == BUFFER_SIZE) {
+                mWriter.write(mBuffer, 0, mPosition);
+                mPosition = 0;
+            }
+            int count = Math.min(s.length() - offset, BUFFER_SIZE - mPosition);
+            s.getChars(offset, offset + count, mBuffer, mPosition);
+            mPosition += count;
+            offset += count;
+        }
+    }
+}
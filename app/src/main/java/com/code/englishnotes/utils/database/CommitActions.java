@@ -0,0 +1,160 @@
+package com.code.englishnotes.utils.database;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.squareup.sqlbrite3.BriteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Runs actions once the outermost transaction of the calling thread is committed, and drops them
+ * if it is rolled back, the way sqlbrite holds back its query triggers.
+ * <p>
+ * Data sources notifying subscribers of their writes schedule the notifications with
+ * {@link #afterCommit(Runnable)} and begin every transaction with
+ * {@link #newTransaction(BriteDatabase)}, so a caller can nest their writes in a larger
+ * transaction, as the outbox does, without a notification getting ahead of the commit. A
+ * transaction begun directly on the {@link BriteDatabase} cannot enclose one begun here.
+ */
+public final class CommitActions {
+
+    private static final ThreadLocal<Scope> SCOPE = new ThreadLocal<>();
+
+    private CommitActions() {
+    }
+
+    /**
+     * Begins a transaction like {@link BriteDatabase#newTransaction()}, nested in the one the
+     * calling thread is in, if any.
+     *
+     * @throws IllegalStateException when the calling thread is in a transaction not begun here
+     */
+    @NonNull
+    public static BriteDatabase.Transaction newTransaction(@NonNull BriteDatabase database) {
+        checkNotNull(database);
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            checkState(!database.getWritableDatabase().inTransaction(),
+                    "The enclosing transaction must be begun with CommitActions.newTransaction");
+            scope = new Scope();
+            SCOPE.set(scope);
+        }
+        BriteDatabase.Transaction transaction;
+        try {
+            transaction = database.newTransaction();
+        } catch (RuntimeException e) {
+            if (scope.mDepth == 0) {
+                SCOPE.remove();
+            }
+            throw e;
+        }
+        scope.mDepth++;
+        return new ScopedTransaction(transaction, scope);
+    }
+
+    /**
+     * Runs {@code action} after the outermost transaction of the calling thread is committed, or
+     * right away outside of a transaction.
+     */
+    public static void afterCommit(@NonNull Runnable action) {
+        checkNotNull(action);
+        Scope scope = SCOPE.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.mActions.add(action);
+        }
+    }
+
+    /**
+     * The transactions of one thread.
+     */
+    private static final class Scope {
+
+        // Transactions begun and not ended yet.
+        int mDepth;
+
+        // Whether a transaction ended without being marked successful, rolling back the outermost.
+        boolean mRolledBack;
+
+        @NonNull
+        final List<Runnable> mActions = new ArrayList<>();
+
+        void end(boolean successful) {
+            if (!successful) {
+                mRolledBack = true;
+            }
+            if (mDepth > 0) {
+                mDepth--;
+            }
+            if (mDepth > 0) {
+                return;
+            }
+            SCOPE.remove();
+            if (!mRolledBack) {
+                for (Runnable action : mActions) {
+                    action.run();
+                }
+            }
+        }
+    }
+
+    private static final class ScopedTransaction implements BriteDatabase.Transaction {
+
+        @NonNull
+        private final BriteDatabase.Transaction mTransaction;
+
+        @Nullable
+        private Scope mScope;
+
+        private boolean mSuccessful;
+
+        ScopedTransaction(@NonNull BriteDatabase.Transaction transaction, @NonNull Scope scope) {
+            mTransaction = transaction;
+            mScope = scope;
+        }
+
+        @Override
+        public void markSuccessful() {
+            mTransaction.markSuccessful();
+            mSuccessful = true;
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return mTransaction.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAmount, TimeUnit sleepUnit) {
+            return mTransaction.yieldIfContendedSafely(sleepAmount, sleepUnit);
+        }
+
+        @Override
+        public void end() {
+            Scope scope = mScope;
+            if (scope == null) {
+                return;
+            }
+            mScope = null;
+            boolean ended = false;
+            try {
+                mTransaction.end();
+                ended = true;
+            } finally {
+                scope.end(ended && mSuccessful);
+            }
+        }
+
+        @Override
+        public void close() {
+            end();
+        }
+    }
+}
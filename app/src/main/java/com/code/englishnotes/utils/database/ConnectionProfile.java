@@ -0,0 +1,142 @@
+package com.code.englishnotes.utils.database;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * How a SQLite connection is configured when it is opened: journal mode, {@code synchronous}
+ * level, page cache size and memory-mapped I/O size.
+ * <p>
+ * Applied by {@link ProfiledOpenHelperCallback}.
+ */
+public final class ConnectionProfile {
+
+    /**
+     * How often SQLite waits for the disk, see the {@code synchronous} pragma.
+     */
+    public enum Synchronous {
+        OFF, NORMAL, FULL
+    }
+
+    /**
+     * Write-ahead logging, which lets readers run while a write is in progress, with
+     * {@code synchronous = NORMAL}. A commit can be lost on power failure but the database stays
+     * consistent. Memory-mapped I/O stays off because of the devices where it corrupts files.
+     */
+    public static final ConnectionProfile DEFAULT = new Builder().build();
+
+    /**
+     * The rollback journal with {@code synchronous = FULL}, the SQLite defaults.
+     */
+    public static final ConnectionProfile ROLLBACK_JOURNAL = new Builder()
+            .setWriteAheadLogging(false)
+            .setSynchronous(Synchronous.FULL)
+            .build();
+
+    private final boolean mWriteAheadLogging;
+
+    @NonNull
+    private final Synchronous mSynchronous;
+
+    private final int mCacheSizeInKibibytes;
+
+    private final long mMmapSizeInBytes;
+
+    private ConnectionProfile(@NonNull Builder builder) {
+        mWriteAheadLogging = builder.mWriteAheadLogging;
+        mSynchronous = builder.mSynchronous;
+        mCacheSizeInKibibytes = builder.mCacheSizeInKibibytes;
+        mMmapSizeInBytes = builder.mMmapSizeInBytes;
+    }
+
+    public boolean isWriteAheadLogging() {
+        return mWriteAheadLogging;
+    }
+
+    @NonNull
+    public Synchronous getSynchronous() {
+        return mSynchronous;
+    }
+
+    public int getCacheSizeInKibibytes() {
+        return mCacheSizeInKibibytes;
+    }
+
+    public long getMmapSizeInBytes() {
+        return mMmapSizeInBytes;
+    }
+
+    /**
+     * The pragmas to run on every connection. The journal mode is not part of them because
+     * Android switches it through {@code SQLiteDatabase#enableWriteAheadLogging()}.
+     */
+    @NonNull
+    public List<String> getPragmas() {
+        List<String> pragmas = new ArrayList<>(3);
+        pragmas.add("PRAGMA synchronous = " + mSynchronous.name());
+        // A negative value is a size in KiB rather than a number of pages.
+        pragmas.add("PRAGMA cache_size = -" + mCacheSizeInKibibytes);
+        pragmas.add("PRAGMA mmap_size = " + mMmapSizeInBytes);
+        return Collections.unmodifiableList(pragmas);
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionProfile{writeAheadLogging=" + mWriteAheadLogging +
+                ", synchronous=" + mSynchronous +
+                ", cacheSizeInKibibytes=" + mCacheSizeInKibibytes +
+                ", mmapSizeInBytes=" + mMmapSizeInBytes + "}";
+    }
+
+    public static final class Builder {
+
+        private boolean mWriteAheadLogging = true;
+
+        @NonNull
+        private Synchronous mSynchronous = Synchronous.NORMAL;
+
+        private int mCacheSizeInKibibytes = 2048;
+
+        private long mMmapSizeInBytes = 0;
+
+        @NonNull
+        public Builder setWriteAheadLogging(boolean writeAheadLogging) {
+            mWriteAheadLogging = writeAheadLogging;
+            return this;
+        }
+
+        @NonNull
+        public Builder setSynchronous(@NonNull Synchronous synchronous) {
+            mSynchronous = checkNotNull(synchronous, "synchronous cannot be null");
+            return this;
+        }
+
+        @NonNull
+        public Builder setCacheSizeInKibibytes(int cacheSizeInKibibytes) {
+            checkArgument(cacheSizeInKibibytes > 0, "cacheSizeInKibibytes must be positive");
+            mCacheSizeInKibibytes = cacheSizeInKibibytes;
+            return this;
+        }
+
+        /**
+         * @param mmapSizeInBytes {@code 0} turns memory-mapped I/O off
+         */
+        @NonNull
+        public Builder setMmapSizeInBytes(long mmapSizeInBytes) {
+            checkArgument(mmapSizeInBytes >= 0, "mmapSizeInBytes cannot be negative");
+            mMmapSizeInBytes = mmapSizeInBytes;
+            return this;
+        }
+
+        @NonNull
+        public ConnectionProfile build() {
+            return new ConnectionProfile(this);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.code.englishnotes.utils.database;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import io.reactivex.functions.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Maps {@link Cursor} rows to objects, resolving the column indices once per cursor instead of
+ * once per row.
+ * <p>
+ * The indices are looked up on the first row of a cursor and read by position afterwards. A
+ * mapper is not thread-safe: create one per query, as {@link MapToListOperator} does, so queries
+ * running on different threads never share the indices of one cursor.
+ */
+public abstract class CursorMapper<T> implements Function<Cursor, T> {
+
+    @NonNull
+    private final String[] mColumnNames;
+
+    @Nullable
+    private Cursor mCursor;
+
+    @Nullable
+    private int[] mColumnIndices;
+
+    /**
+     * @param columnNames the columns read by {@link #map(Cursor, int[])}, in the order their
+     *                    indices are handed to it
+     */
+    protected CursorMapper(@NonNull String... columnNames) {
+        mColumnNames = checkNotNull(columnNames).clone();
+    }
+
+    @Override
+    public final T apply(@NonNull Cursor cursor) {
+        int[] columnIndices = mColumnIndices;
+        if (columnIndices == null || mCursor != cursor) {
+            columnIndices = new int[mColumnNames.length];
+            for (int i = 0; i < mColumnNames.length; i++) {
+                columnIndices[i] = cursor.getColumnIndexOrThrow(mColumnNames[i]);
+            }
+            mCursor = cursor;
+            mColumnIndices = columnIndices;
+        }
+        return map(cursor, columnIndices);
+    }
+
+    /**
+     * Reads the current row of {@code cursor}.
+     *
+     * @param columnIndices the index of each column passed to the constructor, in the same order
+     */
+    @NonNull
+    protected abstract T map(@NonNull Cursor cursor, @NonNull int[] columnIndices);
+}
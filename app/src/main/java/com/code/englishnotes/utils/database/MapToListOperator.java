@@ -0,0 +1,102 @@
+package com.code.englishnotes.utils.database;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import com.squareup.sqlbrite3.SqlBrite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import io.reactivex.ObservableOperator;
+import io.reactivex.Observer;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.observers.DisposableObserver;
+import io.reactivex.plugins.RxJavaPlugins;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Like {@link SqlBrite.Query#mapToList(io.reactivex.functions.Function)}, but maps the rows of
+ * every query with a new {@link CursorMapper}, so queries re-run on different threads never share
+ * one.
+ */
+public final class MapToListOperator<T> implements ObservableOperator<List<T>, SqlBrite.Query> {
+
+    @NonNull
+    private final Callable<? extends CursorMapper<T>> mMapperFactory;
+
+    /**
+     * @param mapperFactory creates the mapper of each query, usually the mapper's constructor
+     */
+    public MapToListOperator(@NonNull Callable<? extends CursorMapper<T>> mapperFactory) {
+        mMapperFactory = checkNotNull(mapperFactory);
+    }
+
+    @Override
+    public Observer<? super SqlBrite.Query> apply(@NonNull Observer<? super List<T>> observer) {
+        return new MappingObserver<>(observer, mMapperFactory);
+    }
+
+    private static final class MappingObserver<T> extends DisposableObserver<SqlBrite.Query> {
+
+        @NonNull
+        private final Observer<? super List<T>> mDownstream;
+
+        @NonNull
+        private final Callable<? extends CursorMapper<T>> mMapperFactory;
+
+        MappingObserver(@NonNull Observer<? super List<T>> downstream,
+                        @NonNull Callable<? extends CursorMapper<T>> mapperFactory) {
+            mDownstream = downstream;
+            mMapperFactory = mapperFactory;
+        }
+
+        @Override
+        protected void onStart() {
+            mDownstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(@NonNull SqlBrite.Query query) {
+            try {
+                Cursor cursor = query.run();
+                if (cursor == null || isDisposed()) {
+                    return;
+                }
+                List<T> items = new ArrayList<>(cursor.getCount());
+                try {
+                    CursorMapper<T> mapper = mMapperFactory.call();
+                    while (cursor.moveToNext()) {
+                        items.add(mapper.apply(cursor));
+                    }
+                } finally {
+                    cursor.close();
+                }
+                if (!isDisposed()) {
+                    mDownstream.onNext(items);
+                }
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (!isDisposed()) {
+                mDownstream.onComplete();
+            }
+        }
+
+        @Override
+        public void onError(@NonNull Throwable e) {
+            if (isDisposed()) {
+                RxJavaPlugins.onError(e);
+            } else {
+                mDownstream.onError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.code.englishnotes.utils.database;
+
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * One step of a schema upgrade, from {@link #getStartVersion()} to {@link #getEndVersion()}.
+ * <p>
+ * A step is plain SQL so it runs inside SQLite: data is moved with {@code INSERT ... SELECT} and
+ * {@code UPDATE} statements rather than read into the Java heap, which keeps the upgrade of a
+ * large table bounded by SQLite itself. The statements of a step run in one transaction.
+ */
+public final class Migration {
+
+    private final int mStartVersion;
+
+    private final int mEndVersion;
+
+    @NonNull
+    private final List<String> mStatements;
+
+    public Migration(int startVersion, int endVersion, @NonNull String... statements) {
+        checkArgument(startVersion < endVersion, "startVersion must be lower than endVersion");
+        checkArgument(checkNotNull(statements).length > 0, "statements cannot be empty");
+        mStartVersion = startVersion;
+        mEndVersion = endVersion;
+        mStatements = Collections.unmodifiableList(Arrays.asList(statements.clone()));
+    }
+
+    public int getStartVersion() {
+        return mStartVersion;
+    }
+
+    public int getEndVersion() {
+        return mEndVersion;
+    }
+
+    @NonNull
+    public List<String> getStatements() {
+        return mStatements;
+    }
+
+    @Override
+    public String toString() {
+        return "Migration{" + mStartVersion + " -> " + mEndVersion + "}";
+    }
+}
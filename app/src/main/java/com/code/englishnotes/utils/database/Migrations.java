@@ -0,0 +1,57 @@
+package com.code.englishnotes.utils.database;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The {@link Migration}s of one database, which finds the steps that bring a database from its
+ * current version to the one the app expects.
+ */
+public final class Migrations {
+
+    @NonNull
+    private final List<Migration> mMigrations;
+
+    public Migrations(@NonNull Migration... migrations) {
+        checkNotNull(migrations, "migrations cannot be null");
+        mMigrations = new ArrayList<>(migrations.length);
+        for (Migration migration : migrations) {
+            mMigrations.add(checkNotNull(migration, "migration cannot be null"));
+        }
+    }
+
+    /**
+     * @return the steps to run, in order, to upgrade from {@code fromVersion} to
+     * {@code toVersion}. When several steps start at the same version the one going furthest
+     * without passing {@code toVersion} is taken.
+     * @throws IllegalStateException if no chain of steps connects the two versions
+     */
+    @NonNull
+    public List<Migration> findPath(int fromVersion, int toVersion) {
+        checkArgument(fromVersion <= toVersion, "Downgrades are not supported");
+        List<Migration> path = new ArrayList<>();
+        int version = fromVersion;
+        while (version < toVersion) {
+            Migration next = null;
+            for (Migration migration : mMigrations) {
+                if (migration.getStartVersion() == version
+                        && migration.getEndVersion() <= toVersion
+                        && (next == null || migration.getEndVersion() > next.getEndVersion())) {
+                    next = migration;
+                }
+            }
+            if (next == null) {
+                throw new IllegalStateException("No migration from version " + version +
+                        " towards version " + toVersion);
+            }
+            path.add(next);
+            version = next.getEndVersion();
+        }
+        return path;
+    }
+}
@@ -0,0 +1,98 @@
+package com.code.englishnotes.utils.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+import android.database.Cursor;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.v4.os.TraceCompat;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link SupportSQLiteOpenHelper.Callback} that applies a {@link ConnectionProfile} to the
+ * database it opens.
+ * <p>
+ * The profile is applied in {@link #onConfigure(SupportSQLiteDatabase)}, before any migration
+ * runs. The framework does not call that method before Jelly Bean, so older releases apply it in
+ * {@link #onOpen(SupportSQLiteDatabase)} instead. Subclasses overriding either method must call
+ * through to super.
+ * <p>
+ * In WAL mode Android opens extra read-only connections with its own defaults. The pragmas only
+ * reach the primary connection, which is the one every write goes through.
+ * <p>
+ * Subclasses upgrade their schema with
+ * {@link #migrate(SupportSQLiteDatabase, Migrations, int, int)}.
+ */
+public abstract class ProfiledOpenHelperCallback extends SupportSQLiteOpenHelper.Callback {
+
+    @NonNull
+    private final ConnectionProfile mConnectionProfile;
+
+    protected ProfiledOpenHelperCallback(int version,
+                                         @NonNull ConnectionProfile connectionProfile) {
+        super(version);
+        mConnectionProfile = checkNotNull(connectionProfile, "connectionProfile cannot be null");
+    }
+
+    @NonNull
+    public ConnectionProfile getConnectionProfile() {
+        return mConnectionProfile;
+    }
+
+    @Override
+    public void onConfigure(SupportSQLiteDatabase db) {
+        super.onConfigure(db);
+        applyConnectionProfile(db);
+    }
+
+    @Override
+    public void onOpen(SupportSQLiteDatabase db) {
+        super.onOpen(db);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            applyConnectionProfile(db);
+        }
+    }
+
+    /**
+     * Runs the steps between the two versions in order, each in its own transaction. Inside
+     * {@link #onUpgrade(SupportSQLiteDatabase, int, int)} those transactions nest in the one the
+     * framework opened, so a failing step rolls the whole upgrade back and the version stays
+     * where it was. Each step is traced as its own section.
+     *
+     * @throws IllegalStateException if no chain of steps connects the two versions
+     */
+    protected static void migrate(@NonNull SupportSQLiteDatabase db,
+                                  @NonNull Migrations migrations, int oldVersion, int newVersion) {
+        for (Migration migration : migrations.findPath(oldVersion, newVersion)) {
+            TraceCompat.beginSection(migration.toString());
+            db.beginTransaction();
+            try {
+                for (String statement : migration.getStatements()) {
+                    db.execSQL(statement);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+                TraceCompat.endSection();
+            }
+        }
+    }
+
+    private void applyConnectionProfile(SupportSQLiteDatabase db) {
+        if (mConnectionProfile.isWriteAheadLogging()) {
+            db.enableWriteAheadLogging();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            db.disableWriteAheadLogging();
+        }
+        for (String pragma : mConnectionProfile.getPragmas()) {
+            // Some pragmas report their new value as a row, which execSQL() refuses.
+            Cursor cursor = db.query(pragma);
+            try {
+                cursor.moveToFirst();
+            } finally {
+                cursor.close();
+            }
+        }
+    }
+}
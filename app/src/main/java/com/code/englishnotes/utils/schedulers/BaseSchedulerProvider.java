@@ -17,4 +17,24 @@ public interface BaseSchedulerProvider {
 
     @NonNull
     Scheduler ui();
+
+    /**
+     * The scheduler that database queries should run on. SQLite in WAL mode serves readers
+     * concurrently, but each one holds a connection, so implementations may bound it.
+     */
+    @NonNull
+    Scheduler databaseRead();
+
+    /**
+     * The scheduler that database writes should run on. SQLite allows a single writer at a time,
+     * so implementations are expected to run one task at a time here.
+     */
+    @NonNull
+    Scheduler databaseWrite();
+
+    /**
+     * A low priority scheduler for sync and other bulk work that must not delay interactive reads.
+     */
+    @NonNull
+    Scheduler background();
 }
@@ -0,0 +1,122 @@
+package com.code.englishnotes.utils.schedulers;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Provides schedulers sized for SQLite in WAL mode next to the unbounded {@link Schedulers#io()}:
+ * a fixed pool of readers for {@link #databaseRead()}, a single writer for
+ * {@link #databaseWrite()} and a single low priority thread for {@link #background()}, so bulk
+ * sync work never takes a reader away from the UI.
+ */
+public class DatabaseSchedulerProvider implements BaseSchedulerProvider {
+
+    private static final int MAXIMUM_READER_COUNT = 4;
+
+    @Nullable
+    private static DatabaseSchedulerProvider INSTANCE;
+
+    @NonNull
+    private final Scheduler mReaders;
+
+    @NonNull
+    private final Scheduler mWriter;
+
+    @NonNull
+    private final Scheduler mBackground;
+
+    // Prevent direct instantiation.
+    private DatabaseSchedulerProvider(int readerCount) {
+        mReaders = Schedulers.from(Executors.newFixedThreadPool(readerCount,
+                new DatabaseThreadFactory("db-read", Process.THREAD_PRIORITY_DEFAULT)));
+        mWriter = Schedulers.from(Executors.newSingleThreadExecutor(
+                new DatabaseThreadFactory("db-write", Process.THREAD_PRIORITY_DEFAULT)));
+        mBackground = Schedulers.from(Executors.newSingleThreadExecutor(
+                new DatabaseThreadFactory("db-background", Process.THREAD_PRIORITY_BACKGROUND)));
+    }
+
+    public static synchronized DatabaseSchedulerProvider getInstance() {
+        if (INSTANCE == null) {
+            int readerCount = Math.max(2, Math.min(MAXIMUM_READER_COUNT,
+                    Runtime.getRuntime().availableProcessors()));
+            INSTANCE = new DatabaseSchedulerProvider(readerCount);
+        }
+        return INSTANCE;
+    }
+
+    @Override
+    @NonNull
+    public Scheduler computation() {
+        return Schedulers.computation();
+    }
+
+    @Override
+    @NonNull
+    public Scheduler io() {
+        return Schedulers.io();
+    }
+
+    @Override
+    @NonNull
+    public Scheduler ui() {
+        return AndroidSchedulers.mainThread();
+    }
+
+    /**
+     * Database reads, at most {@link #MAXIMUM_READER_COUNT} at a time.
+     */
+    @Override
+    @NonNull
+    public Scheduler databaseRead() {
+        return mReaders;
+    }
+
+    @Override
+    @NonNull
+    public Scheduler databaseWrite() {
+        return mWriter;
+    }
+
+    @Override
+    @NonNull
+    public Scheduler background() {
+        return mBackground;
+    }
+
+    private static final class DatabaseThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @NonNull
+        private final String mName;
+
+        private final int mPriority;
+
+        DatabaseThreadFactory(@NonNull String name, int priority) {
+            mName = name;
+            mPriority = priority;
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(mPriority);
+                    runnable.run();
+                }
+            }, mName + "-" + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
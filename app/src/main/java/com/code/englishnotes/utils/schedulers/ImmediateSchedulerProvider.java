@@ -30,4 +30,22 @@ public class ImmediateSchedulerProvider implements BaseSchedulerProvider {
     public Scheduler ui() {
         return Schedulers.trampoline();
     }
+
+    @NonNull
+    @Override
+    public Scheduler databaseRead() {
+        return Schedulers.trampoline();
+    }
+
+    @NonNull
+    @Override
+    public Scheduler databaseWrite() {
+        return Schedulers.trampoline();
+    }
+
+    @NonNull
+    @Override
+    public Scheduler background() {
+        return Schedulers.trampoline();
+    }
 }
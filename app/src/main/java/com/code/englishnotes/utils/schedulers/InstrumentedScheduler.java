@@ -0,0 +1,209 @@
+package com.code.englishnotes.utils.schedulers;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link Scheduler} that wraps every task handed to another scheduler to measure how long it
+ * waited, how long it ran and how many tasks are queued and running next to it.
+ */
+final class InstrumentedScheduler extends Scheduler {
+
+    private static final int STATE_QUEUED = 0;
+
+    private static final int STATE_RUNNING = 1;
+
+    private static final int STATE_DONE = 2;
+
+    @NonNull
+    private final Scheduler mDelegate;
+
+    @NonNull
+    private final String mName;
+
+    @NonNull
+    private final SchedulerMetrics mMetrics;
+
+    private final long mFrameBudgetNanos;
+
+    private final AtomicInteger mQueueDepth = new AtomicInteger();
+
+    private final AtomicInteger mInFlight = new AtomicInteger();
+
+    /**
+     * @param frameBudgetNanos tasks running longer than this are reported through
+     *                         {@link SchedulerMetrics#onFrameBudgetExceeded}, {@code 0} disables
+     *                         the check
+     */
+    InstrumentedScheduler(@NonNull Scheduler delegate, @NonNull String name,
+                          @NonNull SchedulerMetrics metrics, long frameBudgetNanos) {
+        mDelegate = checkNotNull(delegate, "delegate cannot be null");
+        mName = checkNotNull(name, "name cannot be null");
+        mMetrics = checkNotNull(metrics, "metrics cannot be null");
+        mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    int getQueueDepth() {
+        return mQueueDepth.get();
+    }
+
+    int getInFlight() {
+        return mInFlight.get();
+    }
+
+    @NonNull
+    @Override
+    public Worker createWorker() {
+        return new InstrumentedWorker(mDelegate.createWorker());
+    }
+
+    @NonNull
+    @Override
+    public Disposable scheduleDirect(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+        InstrumentedTask task = new InstrumentedTask(run, unit.toNanos(delay), null);
+        task.setFuture(mDelegate.scheduleDirect(task, delay, unit));
+        return task;
+    }
+
+    @Override
+    public long now(@NonNull TimeUnit unit) {
+        return mDelegate.now(unit);
+    }
+
+    @Override
+    public void start() {
+        mDelegate.start();
+    }
+
+    @Override
+    public void shutdown() {
+        mDelegate.shutdown();
+    }
+
+    private final class InstrumentedWorker extends Worker {
+
+        @NonNull
+        private final Worker mWorker;
+
+        // Tasks disposed together with the worker never run, so they are tracked here to keep
+        // the queue depth right.
+        private final CompositeDisposable mTasks = new CompositeDisposable();
+
+        InstrumentedWorker(@NonNull Worker worker) {
+            mWorker = worker;
+        }
+
+        @NonNull
+        @Override
+        public Disposable schedule(@NonNull Runnable run, long delay, @NonNull TimeUnit unit) {
+            if (mTasks.isDisposed()) {
+                return Disposables.disposed();
+            }
+            InstrumentedTask task = new InstrumentedTask(run, unit.toNanos(delay), mTasks);
+            mTasks.add(task);
+            task.setFuture(mWorker.schedule(task, delay, unit));
+            return task;
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return mWorker.now(unit);
+        }
+
+        @Override
+        public void dispose() {
+            mTasks.dispose();
+            mWorker.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return mTasks.isDisposed();
+        }
+    }
+
+    private final class InstrumentedTask implements Runnable, Disposable {
+
+        private final AtomicInteger mState = new AtomicInteger(STATE_QUEUED);
+
+        @NonNull
+        private final Runnable mRun;
+
+        private final long mDueNanos;
+
+        private final CompositeDisposable mParent;
+
+        private volatile Disposable mFuture;
+
+        InstrumentedTask(@NonNull Runnable run, long delayNanos, CompositeDisposable parent) {
+            mRun = run;
+            mDueNanos = System.nanoTime() + delayNanos;
+            mParent = parent;
+            mQueueDepth.incrementAndGet();
+        }
+
+        void setFuture(@NonNull Disposable future) {
+            mFuture = future;
+            if (mState.get() == STATE_DONE) {
+                future.dispose();
+            }
+        }
+
+        @Override
+        public void run() {
+            // A task disposed before it started must not run.
+            if (!mState.compareAndSet(STATE_QUEUED, STATE_RUNNING)) {
+                return;
+            }
+            mQueueDepth.decrementAndGet();
+            mInFlight.incrementAndGet();
+            long startNanos = System.nanoTime();
+            try {
+                mRun.run();
+            } finally {
+                long executionNanos = System.nanoTime() - startNanos;
+                int inFlight = mInFlight.decrementAndGet();
+                mState.lazySet(STATE_DONE);
+                if (mParent != null) {
+                    mParent.delete(this);
+                }
+                mMetrics.onTaskExecuted(mName, Math.max(0, startNanos - mDueNanos),
+                        executionNanos, mQueueDepth.get(), inFlight);
+                if (mFrameBudgetNanos > 0 && executionNanos > mFrameBudgetNanos) {
+                    mMetrics.onFrameBudgetExceeded(mName, executionNanos, mRun);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            int state = mState.getAndSet(STATE_DONE);
+            if (state == STATE_QUEUED) {
+                mQueueDepth.decrementAndGet();
+            }
+            if (state != STATE_DONE) {
+                Disposable future = mFuture;
+                if (future != null) {
+                    future.dispose();
+                }
+                if (mParent != null) {
+                    mParent.delete(this);
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return mState.get() == STATE_DONE;
+        }
+    }
+}
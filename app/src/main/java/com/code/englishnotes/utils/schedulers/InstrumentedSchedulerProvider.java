@@ -0,0 +1,139 @@
+package com.code.englishnotes.utils.schedulers;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Decorates another {@link BaseSchedulerProvider} so every task scheduled on its
+ * {@link Scheduler}s reports its queue wait, execution time, queue depth and in-flight count to
+ * a {@link SchedulerMetrics}.
+ * <p>
+ * Tasks that hold the ui scheduler longer than {@link #FRAME_BUDGET_NANOS} are also reported
+ * through {@link SchedulerMetrics#onFrameBudgetExceeded}, which is the place to look for
+ * repository chains that block the main thread.
+ */
+public class InstrumentedSchedulerProvider implements BaseSchedulerProvider {
+
+    /**
+     * One frame at 60 fps.
+     */
+    public static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+
+    public static final String COMPUTATION = "computation";
+
+    public static final String IO = "io";
+
+    public static final String UI = "ui";
+
+    public static final String DATABASE_READ = "databaseRead";
+
+    public static final String DATABASE_WRITE = "databaseWrite";
+
+    public static final String BACKGROUND = "background";
+
+    @NonNull
+    private final InstrumentedScheduler mComputation;
+
+    @NonNull
+    private final InstrumentedScheduler mIo;
+
+    @NonNull
+    private final InstrumentedScheduler mUi;
+
+    @NonNull
+    private final InstrumentedScheduler mDatabaseRead;
+
+    @NonNull
+    private final InstrumentedScheduler mDatabaseWrite;
+
+    @NonNull
+    private final InstrumentedScheduler mBackground;
+
+    public InstrumentedSchedulerProvider(@NonNull BaseSchedulerProvider delegate,
+                                         @NonNull SchedulerMetrics metrics) {
+        checkNotNull(delegate, "delegate cannot be null");
+        checkNotNull(metrics, "metrics cannot be null");
+        mComputation = new InstrumentedScheduler(delegate.computation(), COMPUTATION, metrics, 0);
+        mIo = new InstrumentedScheduler(delegate.io(), IO, metrics, 0);
+        mUi = new InstrumentedScheduler(delegate.ui(), UI, metrics, FRAME_BUDGET_NANOS);
+        mDatabaseRead = new InstrumentedScheduler(delegate.databaseRead(), DATABASE_READ, metrics, 0);
+        mDatabaseWrite = new InstrumentedScheduler(delegate.databaseWrite(), DATABASE_WRITE,
+                metrics, 0);
+        mBackground = new InstrumentedScheduler(delegate.background(), BACKGROUND, metrics, 0);
+    }
+
+    @NonNull
+    @Override
+    public Scheduler computation() {
+        return mComputation;
+    }
+
+    @NonNull
+    @Override
+    public Scheduler io() {
+        return mIo;
+    }
+
+    @NonNull
+    @Override
+    public Scheduler ui() {
+        return mUi;
+    }
+
+    @NonNull
+    @Override
+    public Scheduler databaseRead() {
+        return mDatabaseRead;
+    }
+
+    @NonNull
+    @Override
+    public Scheduler databaseWrite() {
+        return mDatabaseWrite;
+    }
+
+    @NonNull
+    @Override
+    public Scheduler background() {
+        return mBackground;
+    }
+
+    /**
+     * @return the number of tasks waiting to start on the scheduler with the given name
+     */
+    public int getQueueDepth(@NonNull String scheduler) {
+        return getScheduler(scheduler).getQueueDepth();
+    }
+
+    /**
+     * @return the number of tasks running on the scheduler with the given name
+     */
+    public int getInFlight(@NonNull String scheduler) {
+        return getScheduler(scheduler).getInFlight();
+    }
+
+    @NonNull
+    private InstrumentedScheduler getScheduler(@NonNull String scheduler) {
+        switch (scheduler) {
+            case COMPUTATION:
+                return mComputation;
+            case IO:
+                return mIo;
+            case UI:
+                return mUi;
+            case DATABASE_READ:
+                return mDatabaseRead;
+            case DATABASE_WRITE:
+                return mDatabaseWrite;
+            case BACKGROUND:
+                return mBackground;
+            default:
+                throw new IllegalArgumentException("Unknown scheduler: " + scheduler);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.code.englishnotes.utils.schedulers;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Receives the timings recorded by {@link InstrumentedSchedulerProvider}.
+ * <p>
+ * Callbacks run on the thread that executed the task, right after it finished, so
+ * implementations must be thread safe and cheap.
+ */
+public interface SchedulerMetrics {
+
+    /**
+     * Discards every measurement.
+     */
+    SchedulerMetrics NONE = new SchedulerMetrics() {
+        @Override
+        public void onTaskExecuted(@NonNull String scheduler, long queueWaitNanos,
+                                   long executionNanos, int queueDepth, int inFlight) {
+        }
+
+        @Override
+        public void onFrameBudgetExceeded(@NonNull String scheduler, long executionNanos,
+                                          @NonNull Runnable task) {
+        }
+    };
+
+    /**
+     * @param scheduler      the name of the scheduler that ran the task
+     * @param queueWaitNanos time between the moment the task was due and the moment it started
+     * @param executionNanos time spent running the task
+     * @param queueDepth     tasks still waiting on that scheduler when this one finished
+     * @param inFlight       tasks running on that scheduler when this one finished, this one
+     *                       excluded
+     */
+    void onTaskExecuted(@NonNull String scheduler, long queueWaitNanos, long executionNanos,
+                        int queueDepth, int inFlight);
+
+    /**
+     * Called in addition to {@link #onTaskExecuted} when a task ran longer than the frame budget
+     * of a scheduler that has one, which is only the ui scheduler.
+     *
+     * @param task the scheduled task, usually an RxJava operator, as handed to the scheduler
+     */
+    void onFrameBudgetExceeded(@NonNull String scheduler, long executionNanos,
+                               @NonNull Runnable task);
+}
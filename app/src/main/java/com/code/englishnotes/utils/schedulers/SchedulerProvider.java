@@ -44,4 +44,22 @@ public class SchedulerProvider implements BaseSchedulerProvider {
     public Scheduler ui() {
         return AndroidSchedulers.mainThread();
     }
+
+    @Override
+    @NonNull
+    public Scheduler databaseRead() {
+        return Schedulers.io();
+    }
+
+    @Override
+    @NonNull
+    public Scheduler databaseWrite() {
+        return Schedulers.single();
+    }
+
+    @Override
+    @NonNull
+    public Scheduler background() {
+        return Schedulers.io();
+    }
 }
@@ -5,18 +5,38 @@ import android.support.v4.widget.DrawerLayout;
 import android.support.v7.app.ActionBar;
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
+import android.support.v4.os.TraceCompat;
+import android.util.Log;
 import android.widget.Toolbar;
 
+import com.code.englishnotes.data.database.EnglishNotesDatabase;
+import com.code.englishnotes.utils.schedulers.DatabaseSchedulerProvider;
 import com.code.githubeditor.R;
 
+import io.reactivex.disposables.Disposable;
+
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
+    private static final String TRACE_SECTION_ON_CREATE = "MainActivity.onCreate";
+
+    private static final String TRACE_SECTION_DATA_LAYER = "MainActivity.openDataLayer";
+
     private DrawerLayout mDrawerLayout;
 
+    private Disposable mDatabaseOpen;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_main);
+        TraceCompat.beginSection(TRACE_SECTION_ON_CREATE);
+        try {
+            super.onCreate(savedInstanceState);
+            setContentView(R.layout.activity_main);
+            openDataLayer();
+        } finally {
+            TraceCompat.endSection();
+        }
 
         // Set up the toolbar.
 //        Toolbar toolbar = findViewById(R.id.toolbar);
@@ -34,4 +54,31 @@ public class MainActivity extends AppCompatActivity {
 //            setupDrawerContent(navigationView);
 //        }
     }
+
+    @Override
+    protected void onDestroy() {
+        if (mDatabaseOpen != null) {
+            mDatabaseOpen.dispose();
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * Starts opening the database on the io scheduler while the first frame is drawn, so the
+     * first query does not wait for it. Only scheduling the open is traced here, the open itself
+     * is the EnglishNotesDatabase.open section on the io thread.
+     * <p>
+     * A failed open is logged and forgotten by {@link EnglishNotesDatabase}, so the next query
+     * opens the database again instead of getting the same error.
+     */
+    private void openDataLayer() {
+        TraceCompat.beginSection(TRACE_SECTION_DATA_LAYER);
+        try {
+            mDatabaseOpen = EnglishNotesDatabase.getInstance(this, DatabaseSchedulerProvider.getInstance())
+                    .subscribe(database -> {
+                    }, throwable -> Log.e(TAG, "Could not open the database", throwable));
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
 }
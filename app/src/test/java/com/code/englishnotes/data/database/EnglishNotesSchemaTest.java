@@ -0,0 +1,180 @@
+package com.code.englishnotes.data.database;
+
+import com.code.englishnotes.data.model.ReviewState;
+import com.code.englishnotes.utils.database.Migration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Upgrades fixtures of the shared database on SQLite through JDBC, the way
+ * {@code EnglishNotesDbCallback#onUpgrade} does on a device: every step of the path in one
+ * transaction, which the framework opens around the upgrade.
+ * <p>
+ * The version 1 fixture is created from the statements that release shipped, written out here
+ * rather than taken from the schema classes, so a change to those classes that would reach the
+ * installed databases without a migration fails {@link #createVersion1_isTheSchemaThatShipped()}.
+ */
+public class EnglishNotesSchemaTest {
+
+    private static final List<String> SHIPPED_VERSION_1 = Arrays.asList(
+            "CREATE TABLE vocabulary (entryid TEXT PRIMARY KEY,title TEXT,description TEXT,type TEXT," +
+                    "pronounce TEXT,completed INTEGER )",
+            "CREATE INDEX IF NOT EXISTS index_vocabulary_completed ON vocabulary (completed)",
+            "CREATE VIRTUAL TABLE vocabulary_fts USING fts4(title,description)",
+            "CREATE TRIGGER vocabulary_fts_insert AFTER INSERT ON vocabulary BEGIN INSERT INTO " +
+                    "vocabulary_fts (docid,title,description) VALUES (new.rowid, new.title, " +
+                    "new.description); END",
+            "CREATE TRIGGER vocabulary_fts_update AFTER UPDATE OF title,description ON vocabulary " +
+                    "BEGIN UPDATE vocabulary_fts SET title = new.title,description = new.description " +
+                    "WHERE docid = old.rowid; END",
+            "CREATE TRIGGER vocabulary_fts_delete AFTER DELETE ON vocabulary BEGIN DELETE FROM " +
+                    "vocabulary_fts WHERE docid = old.rowid; END",
+            "CREATE TABLE tasks (entryid TEXT PRIMARY KEY,title TEXT,description TEXT,completed INTEGER )",
+            "CREATE INDEX IF NOT EXISTS index_tasks_completed ON tasks (completed)");
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("englishnotes", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mConnection.close();
+        for (String suffix : new String[]{"", "-journal", "-wal", "-shm"}) {
+            new File(mDatabaseFile.getPath() + suffix).delete();
+        }
+    }
+
+    @Test
+    public void createVersion1_isTheSchemaThatShipped() throws SQLException {
+        execute(mConnection, EnglishNotesSchema.CREATE_VERSION_1);
+
+        assertEquals(schemaOf(SHIPPED_VERSION_1), readSchema(mConnection));
+    }
+
+    @Test
+    public void upgradeFromVersion1_keepsTheRows() throws SQLException {
+        createShippedVersion1();
+        execute(mConnection, Arrays.asList(
+                "INSERT INTO vocabulary VALUES ('1', 'apple', 'a fruit', 'noun', '/æpl/', 0)",
+                "INSERT INTO vocabulary VALUES ('2', 'run', 'to move fast', 'verb', '/rʌn/', 1)",
+                "INSERT INTO tasks VALUES ('1', 'task', 'description', 0)"));
+
+        upgrade(1, EnglishNotesSchema.VERSION);
+
+        assertEquals(schemaOf(EnglishNotesSchema.CREATE), readSchema(mConnection));
+        assertEquals("1 apple a fruit noun 0 0 " + ReviewState.NEW.getEase() + " " +
+                        ReviewState.NEW.getIntervalDays() + " " + ReviewState.NEW.getRepetitions() + " " +
+                        ReviewState.NEW.getDueAt(),
+                queryRow("SELECT entryid, title, description, type, completed, updated_at, review_ease," +
+                        " review_interval, review_repetitions, review_due_at FROM vocabulary" +
+                        " WHERE entryid = '1'"));
+        assertEquals("2", queryRow("SELECT COUNT(*) FROM vocabulary"));
+        assertEquals("1", queryRow("SELECT COUNT(*) FROM tasks"));
+        // The rows written before the upgrade stay searchable.
+        assertEquals("2", queryRow("SELECT docid FROM vocabulary_fts WHERE vocabulary_fts MATCH 'mov*'"));
+        execute(mConnection, Arrays.asList(
+                "INSERT INTO vocabulary_outbox (operation, entryid, enqueued_at) VALUES ('DELETE', '1', 0)"));
+        assertEquals("1 DELETE", queryRow("SELECT sequence, operation FROM vocabulary_outbox"));
+    }
+
+    @Test
+    public void upgradeFromEveryVersion_endsAsAFreshInstall() throws IOException, SQLException {
+        Set<String> freshInstall = schemaOf(EnglishNotesSchema.CREATE);
+        for (int version = 1; version < EnglishNotesSchema.VERSION; version++) {
+            tearDown();
+            setUp();
+            createShippedVersion1();
+            upgrade(1, version);
+
+            upgrade(version, EnglishNotesSchema.VERSION);
+
+            assertEquals("upgrade from " + version, freshInstall, readSchema(mConnection));
+        }
+    }
+
+    private void createShippedVersion1() throws SQLException {
+        execute(mConnection, SHIPPED_VERSION_1);
+        execute(mConnection, Arrays.asList("PRAGMA user_version = 1"));
+    }
+
+    private void upgrade(int fromVersion, int toVersion) throws SQLException {
+        mConnection.setAutoCommit(false);
+        try {
+            for (Migration migration : EnglishNotesSchema.MIGRATIONS.findPath(fromVersion, toVersion)) {
+                execute(mConnection, migration.getStatements());
+            }
+            mConnection.commit();
+        } finally {
+            mConnection.setAutoCommit(true);
+        }
+        execute(mConnection, Arrays.asList("PRAGMA user_version = " + toVersion));
+    }
+
+    private String queryRow(String sql) throws SQLException {
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            StringBuilder row = new StringBuilder();
+            if (!resultSet.next()) {
+                return null;
+            }
+            for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                row.append(i > 1 ? " " : "").append(resultSet.getString(i));
+            }
+            return row.toString();
+        }
+    }
+
+    private static Set<String> schemaOf(List<String> statements) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            execute(connection, statements);
+            return readSchema(connection);
+        }
+    }
+
+    private static void execute(Connection connection, List<String> statements) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * @return every table, index and trigger with the SQL that creates it as it now stands,
+     * columns added since included
+     */
+    private static Set<String> readSchema(Connection connection) throws SQLException {
+        Set<String> schema = new TreeSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT type, name, sql FROM sqlite_master WHERE name NOT LIKE 'sqlite_%'")) {
+            while (resultSet.next()) {
+                schema.add(resultSet.getString(1) + " " + resultSet.getString(2) + ": " +
+                        resultSet.getString(3));
+            }
+        }
+        return schema;
+    }
+}
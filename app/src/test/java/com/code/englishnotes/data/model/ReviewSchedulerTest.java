@@ -0,0 +1,71 @@
+package com.code.englishnotes.data.model;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link ReviewScheduler}.
+ */
+public class ReviewSchedulerTest {
+
+    private static final long NOW = 1_500_000_000_000L;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void review_waitsOneThenSixDaysThenTheIntervalTimesTheEase() {
+        ReviewState first = ReviewScheduler.review(ReviewState.NEW, ReviewScheduler.Grade.GOOD, NOW);
+        assertEquals(new ReviewState(ReviewState.INITIAL_EASE, 1, 1, NOW + DAY_MILLIS), first);
+
+        ReviewState second = ReviewScheduler.review(first, ReviewScheduler.Grade.GOOD, NOW);
+        assertEquals(new ReviewState(ReviewState.INITIAL_EASE, 6, 2, NOW + 6 * DAY_MILLIS), second);
+
+        ReviewState third = ReviewScheduler.review(second, ReviewScheduler.Grade.GOOD, NOW);
+        assertEquals(new ReviewState(ReviewState.INITIAL_EASE, 15, 3, NOW + 15 * DAY_MILLIS), third);
+
+        // 15 days times 2.5 is rounded.
+        ReviewState fourth = ReviewScheduler.review(third, ReviewScheduler.Grade.GOOD, NOW);
+        assertEquals(new ReviewState(ReviewState.INITIAL_EASE, 38, 4, NOW + 38 * DAY_MILLIS), fourth);
+    }
+
+    @Test
+    public void review_movesTheEaseWithTheGrade() {
+        ReviewState state = new ReviewState(ReviewState.INITIAL_EASE, 6, 2, NOW);
+
+        assertEquals(2360, ReviewScheduler.review(state, ReviewScheduler.Grade.HARD, NOW).getEase());
+        assertEquals(2500, ReviewScheduler.review(state, ReviewScheduler.Grade.GOOD, NOW).getEase());
+        assertEquals(2600, ReviewScheduler.review(state, ReviewScheduler.Grade.EASY, NOW).getEase());
+    }
+
+    @Test
+    public void failedReview_restartsTheRepetitionsAndKeepsTheEase() {
+        ReviewState state = new ReviewState(2100, 38, 4, NOW);
+
+        ReviewState forgotten = ReviewScheduler.review(state, ReviewScheduler.Grade.AGAIN, NOW);
+
+        assertEquals(new ReviewState(2100, 1, 0, NOW + DAY_MILLIS), forgotten);
+        // The next recalled review starts over at 1 day.
+        assertEquals(new ReviewState(2100, 1, 1, NOW + DAY_MILLIS),
+                ReviewScheduler.review(forgotten, ReviewScheduler.Grade.GOOD, NOW));
+    }
+
+    @Test
+    public void review_neverLowersTheEaseBelowTheMinimum() {
+        ReviewState state = new ReviewState(ReviewState.MINIMUM_EASE + 100, 6, 2, NOW);
+
+        state = ReviewScheduler.review(state, ReviewScheduler.Grade.HARD, NOW);
+        assertEquals(ReviewState.MINIMUM_EASE, state.getEase());
+        state = ReviewScheduler.review(state, ReviewScheduler.Grade.HARD, NOW);
+        assertEquals(ReviewState.MINIMUM_EASE, state.getEase());
+    }
+
+    @Test
+    public void review_capsTheInterval() {
+        ReviewState state = new ReviewState(ReviewState.INITIAL_EASE, 30000, 10, NOW);
+
+        assertEquals(36500, ReviewScheduler.review(state, ReviewScheduler.Grade.EASY, NOW).getIntervalDays());
+    }
+}
@@ -0,0 +1,97 @@
+package com.code.englishnotes.data.model;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the retained heap of a deck of vocabularies with UUID ids, built the way a cursor hands
+ * them over, every string a fresh copy, against the six plain fields {@link Vocabulary} used to
+ * have. The bytes per entry of both are printed.
+ */
+public class VocabularyFootprintTest {
+
+    private static final int SIZE = 100000;
+
+    private static final String[] TYPES = {"noun", "verb", "adjective", "adverb"};
+
+    @Test
+    public void compactVocabularies_takeLessHeapThanPlainStrings() {
+        long before = usedHeap();
+        List<Vocabulary> compact = new ArrayList<>(SIZE);
+        Random random = new Random(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            compact.add(new Vocabulary(uuid(random), "word" + i, "description of word " + i,
+                    new String(TYPES[i % TYPES.length]), new String("/w3:d/"), i % 3 == 0));
+        }
+        long compactBytesPerEntry = (usedHeap() - before) / SIZE;
+        assertEquals(SIZE, compact.size());
+        compact = null;
+
+        before = usedHeap();
+        List<PlainVocabulary> plain = new ArrayList<>(SIZE);
+        random = new Random(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            plain.add(new PlainVocabulary(uuid(random), "word" + i, "description of word " + i,
+                    new String(TYPES[i % TYPES.length]), new String("/w3:d/"), i % 3 == 0));
+        }
+        long plainBytesPerEntry = (usedHeap() - before) / SIZE;
+        assertEquals(SIZE, plain.size());
+
+        System.out.println("Vocabulary: " + compactBytesPerEntry + " bytes per entry, " +
+                plainBytesPerEntry + " with plain strings");
+        assertTrue(compactBytesPerEntry + " >= " + plainBytesPerEntry,
+                compactBytesPerEntry < plainBytesPerEntry);
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The fields {@link Vocabulary} used to have.
+     */
+    private static final class PlainVocabulary {
+
+        final String mId;
+
+        final String mTitle;
+
+        final String mDescription;
+
+        final String mType;
+
+        final String mPronounce;
+
+        final boolean mCompleted;
+
+        PlainVocabulary(String id, String title, String description, String type, String pronounce,
+                        boolean completed) {
+            mId = id;
+            mTitle = title;
+            mDescription = description;
+            mType = type;
+            mPronounce = pronounce;
+            mCompleted = completed;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.code.englishnotes.data.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the ordering of {@link VocabularyId}, which pages of vocabularies rely on.
+ */
+public class VocabularyIdTest {
+
+    @Test
+    public void compareTo_ordersIdsLikeTheirStrings() {
+        Random random = new Random(42);
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            texts.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        texts.add("00000000-0000-0000-0000-000000000000");
+        texts.add("ffffffff-ffff-ffff-ffff-ffffffffffff");
+        texts.add("7fffffff-ffff-ffff-8000-000000000000");
+        texts.add("80000000-0000-0000-7fff-ffffffffffff");
+        texts.add("word");
+        texts.add("A1B2C3D4-0000-0000-0000-000000000000");
+        List<VocabularyId> ids = new ArrayList<>();
+        for (String text : texts) {
+            ids.add(VocabularyId.of(text));
+        }
+
+        Collections.sort(texts);
+        Collections.sort(ids);
+
+        List<String> sortedIds = new ArrayList<>();
+        for (VocabularyId id : ids) {
+            sortedIds.add(id.toString());
+        }
+        assertEquals(texts, sortedIds);
+    }
+}
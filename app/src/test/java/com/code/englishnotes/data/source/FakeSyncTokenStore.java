@@ -0,0 +1,21 @@
+package com.code.englishnotes.data.source;
+
+import com.code.englishnotes.data.model.VocabularyDelta;
+
+/**
+ * In-memory {@link SyncTokenStore}.
+ */
+public final class FakeSyncTokenStore implements SyncTokenStore {
+
+    private volatile long mSyncToken = VocabularyDelta.INITIAL_SYNC_TOKEN;
+
+    @Override
+    public long getSyncToken() {
+        return mSyncToken;
+    }
+
+    @Override
+    public void setSyncToken(long syncToken) {
+        mSyncToken = syncToken;
+    }
+}
@@ -0,0 +1,391 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.code.englishnotes.data.model.ReviewState;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyDelta;
+import com.code.englishnotes.data.model.VocabularyReview;
+import com.google.common.base.Optional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+
+/**
+ * In-memory {@link VocabularyDataSource}, safe to share between threads, standing in for both the
+ * local and the remote data sources. The benchmarks use it too, so it has no latency unless one is
+ * set and they only measure the code sitting on top of it.
+ * <p>
+ * Keeps a version per row and a tombstone per deleted row to answer
+ * {@link #getVocabularysChangedSince(long)} the way the remote service does, and counts the rows
+ * it writes and deletes, the write calls and the deltas it is asked for. Review states are kept
+ * and scanned, where the local data source walks an index. Changes are only emitted by
+ * {@link #publishChange(VocabularyChange)}.
+ */
+public class FakeVocabularyDataSource implements VocabularyDataSource {
+
+    private final Map<String, Vocabulary> mVocabularies = new LinkedHashMap<>();
+
+    private final Map<String, Long> mVersions = new HashMap<>();
+
+    private final Map<String, Long> mTombstones = new HashMap<>();
+
+    // Rows never reviewed have no entry.
+    private final Map<String, ReviewState> mReviewStates = new HashMap<>();
+
+    private long mVersion = VocabularyDelta.INITIAL_SYNC_TOKEN;
+
+    private int mRowsWritten;
+
+    private int mRowsDeleted;
+
+    private int mDeltaCalls;
+
+    private int mWriteCalls;
+
+    @Nullable
+    private RuntimeException mWriteError;
+
+    private volatile long mDeltaLatencyMillis;
+
+    @Nullable
+    private volatile RuntimeException mDeltaError;
+
+    private long mWriteLatencyMillis;
+
+    private final FlowableProcessor<VocabularyChange> mVocabularyChanges =
+            PublishProcessor.<VocabularyChange>create().toSerialized();
+
+    /**
+     * Emits {@code change} to the subscribers of {@link #getVocabularyChanges()}, which no write
+     * of this data source does.
+     */
+    public void publishChange(@NonNull VocabularyChange change) {
+        mVocabularyChanges.onNext(change);
+    }
+
+    /**
+     * Makes every delta wait as long as a round trip to the remote service would.
+     */
+    public void setDeltaLatencyMillis(long deltaLatencyMillis) {
+        mDeltaLatencyMillis = deltaLatencyMillis;
+    }
+
+    /**
+     * Makes every delta fail with {@code deltaError} until it is set back to null.
+     */
+    public void setDeltaError(@Nullable RuntimeException deltaError) {
+        mDeltaError = deltaError;
+    }
+
+    /**
+     * Makes every write call fail with {@code writeError} until it is set back to null.
+     */
+    public synchronized void setWriteError(@Nullable RuntimeException writeError) {
+        mWriteError = writeError;
+    }
+
+    /**
+     * Makes every write call, whatever the number of rows it writes, wait as long as a round trip
+     * to the remote service would.
+     */
+    public synchronized void setWriteLatencyMillis(long writeLatencyMillis) {
+        mWriteLatencyMillis = writeLatencyMillis;
+    }
+
+    public synchronized int getRowsWritten() {
+        return mRowsWritten;
+    }
+
+    public synchronized int getRowsDeleted() {
+        return mRowsDeleted;
+    }
+
+    /**
+     * @return the number of times {@link #getVocabularysChangedSince(long)} was subscribed to
+     */
+    public synchronized int getDeltaCalls() {
+        return mDeltaCalls;
+    }
+
+    /**
+     * @return the number of write methods called, a batch counting as one
+     */
+    public synchronized int getWriteCalls() {
+        return mWriteCalls;
+    }
+
+    public synchronized void resetCounters() {
+        mRowsWritten = 0;
+        mRowsDeleted = 0;
+        mDeltaCalls = 0;
+        mWriteCalls = 0;
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getVocabularys() {
+        return Flowable.fromCallable(this::copyVocabularies);
+    }
+
+    @Override
+    public synchronized Flowable<List<Vocabulary>> getVocabularyPage(@Nullable String afterVocabularyId, int pageSize) {
+        TreeMap<String, Vocabulary> sorted = new TreeMap<>(mVocabularies);
+        Collection<Vocabulary> tail = afterVocabularyId == null
+                ? sorted.values()
+                : sorted.tailMap(afterVocabularyId, false).values();
+        List<Vocabulary> page = new ArrayList<>(pageSize);
+        for (Vocabulary vocabulary : tail) {
+            if (page.size() == pageSize) {
+                break;
+            }
+            page.add(vocabulary);
+        }
+        return Flowable.just(page);
+    }
+
+    @Override
+    public synchronized Flowable<Optional<Vocabulary>> getVocabulary(@NonNull String vocabularyId) {
+        return Flowable.just(Optional.fromNullable(mVocabularies.get(vocabularyId)));
+    }
+
+    @Override
+    public synchronized Flowable<List<Vocabulary>> searchVocabulary(@NonNull String query, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Vocabulary> matches = new ArrayList<>();
+        for (Vocabulary vocabulary : mVocabularies.values()) {
+            if (matches.size() == limit) {
+                break;
+            }
+            String title = vocabulary.getTitle();
+            if (title != null && title.toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(vocabulary);
+            }
+        }
+        return Flowable.just(matches);
+    }
+
+    /**
+     * Reads the clock on every subscription, like the local data source on every run.
+     */
+    @Override
+    public Flowable<List<VocabularyReview>> getDueVocabularies(int limit) {
+        return Flowable.fromCallable(() -> getDue(System.currentTimeMillis(), limit));
+    }
+
+    @Override
+    public Flowable<List<Vocabulary>> getNewVocabularies(int limit) {
+        return Flowable.fromCallable(() -> getNew(limit));
+    }
+
+    @Override
+    public synchronized void saveReviewState(@NonNull String vocabularyId, @NonNull ReviewState reviewState) {
+        beginWrite();
+        if (mVocabularies.containsKey(vocabularyId)) {
+            mReviewStates.put(vocabularyId, reviewState);
+        }
+    }
+
+    @Override
+    public Flowable<VocabularyChange> getVocabularyChanges() {
+        return mVocabularyChanges.onBackpressureBuffer();
+    }
+
+    @Override
+    public Flowable<VocabularyDelta> getVocabularysChangedSince(long syncToken) {
+        return Flowable.fromCallable(() -> {
+            synchronized (this) {
+                mDeltaCalls++;
+            }
+            // Waits outside the lock, so concurrent calls overlap like remote ones would.
+            if (mDeltaLatencyMillis > 0) {
+                Thread.sleep(mDeltaLatencyMillis);
+            }
+            RuntimeException deltaError = mDeltaError;
+            if (deltaError != null) {
+                throw deltaError;
+            }
+            return getDelta(syncToken);
+        });
+    }
+
+    @Override
+    public synchronized void saveVocabulary(@NonNull Vocabulary vocabulary) {
+        beginWrite();
+        put(vocabulary);
+    }
+
+    @Override
+    public synchronized void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        beginWrite();
+        for (Vocabulary vocabulary : vocabularies) {
+            put(vocabulary);
+        }
+    }
+
+    @Override
+    public void completeVocabulary(@NonNull Vocabulary vocabulary) {
+        completeVocabulary(vocabulary.getId());
+    }
+
+    @Override
+    public synchronized void completeVocabulary(@NonNull String vocabularyId) {
+        beginWrite();
+        setCompleted(vocabularyId, true);
+    }
+
+    @Override
+    public synchronized void completeVocabularies(@NonNull Collection<String> vocabularyIds) {
+        beginWrite();
+        for (String vocabularyId : vocabularyIds) {
+            setCompleted(vocabularyId, true);
+        }
+    }
+
+    @Override
+    public void activateVocabulary(@NonNull Vocabulary vocabulary) {
+        activateVocabulary(vocabulary.getId());
+    }
+
+    @Override
+    public synchronized void activateVocabulary(@NonNull String vocabularyId) {
+        beginWrite();
+        setCompleted(vocabularyId, false);
+    }
+
+    @Override
+    public synchronized void clearCompletedVocabularys() {
+        beginWrite();
+        for (Vocabulary vocabulary : new ArrayList<>(mVocabularies.values())) {
+            if (vocabulary.isCompleted()) {
+                remove(vocabulary.getId());
+            }
+        }
+    }
+
+    @Override
+    public void refreshVocabularys() {
+    }
+
+    @Override
+    public synchronized void deleteAllVocabularys() {
+        beginWrite();
+        for (String vocabularyId : new ArrayList<>(mVocabularies.keySet())) {
+            remove(vocabularyId);
+        }
+    }
+
+    @Override
+    public synchronized void deleteVocabulary(@NonNull String vocabularyId) {
+        beginWrite();
+        remove(vocabularyId);
+    }
+
+    @Override
+    public synchronized void deleteVocabularies(@NonNull Collection<String> vocabularyIds) {
+        beginWrite();
+        for (String vocabularyId : vocabularyIds) {
+            remove(vocabularyId);
+        }
+    }
+
+    private void beginWrite() {
+        mWriteCalls++;
+        // Waits with the lock released, so concurrent calls overlap like remote ones would.
+        long deadline = System.currentTimeMillis() + mWriteLatencyMillis;
+        for (long wait = mWriteLatencyMillis; wait > 0; wait = deadline - System.currentTimeMillis()) {
+            try {
+                wait(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (mWriteError != null) {
+            throw mWriteError;
+        }
+    }
+
+    private synchronized List<Vocabulary> copyVocabularies() {
+        return new ArrayList<>(mVocabularies.values());
+    }
+
+    private synchronized List<VocabularyReview> getDue(long now, int limit) {
+        List<VocabularyReview> due = new ArrayList<>();
+        for (Vocabulary vocabulary : mVocabularies.values()) {
+            ReviewState state = mReviewStates.get(vocabulary.getId());
+            if (state != null && state.isDue(now)) {
+                due.add(new VocabularyReview(vocabulary, state));
+            }
+        }
+        Collections.sort(due, (first, second) -> Long.compare(
+                first.getReviewState().getDueAt(), second.getReviewState().getDueAt()));
+        return new ArrayList<>(due.subList(0, Math.min(limit, due.size())));
+    }
+
+    private synchronized List<Vocabulary> getNew(int limit) {
+        List<Vocabulary> fresh = new ArrayList<>();
+        for (Vocabulary vocabulary : mVocabularies.values()) {
+            if (fresh.size() == limit) {
+                break;
+            }
+            ReviewState state = mReviewStates.get(vocabulary.getId());
+            if (state == null || state.isNew()) {
+                fresh.add(vocabulary);
+            }
+        }
+        return fresh;
+    }
+
+    private synchronized VocabularyDelta getDelta(long syncToken) {
+        List<Vocabulary> changed = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : mVersions.entrySet()) {
+            if (entry.getValue() > syncToken) {
+                changed.add(mVocabularies.get(entry.getKey()));
+            }
+        }
+        List<String> deleted = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : mTombstones.entrySet()) {
+            if (entry.getValue() > syncToken) {
+                deleted.add(entry.getKey());
+            }
+        }
+        return new VocabularyDelta(changed, deleted, mVersion);
+    }
+
+    private void put(@NonNull Vocabulary vocabulary) {
+        mVocabularies.put(vocabulary.getId(), vocabulary);
+        mTombstones.remove(vocabulary.getId());
+        mVersions.put(vocabulary.getId(), ++mVersion);
+        mRowsWritten++;
+    }
+
+    private void remove(@NonNull String vocabularyId) {
+        if (mVocabularies.remove(vocabularyId) != null) {
+            mVersions.remove(vocabularyId);
+            mReviewStates.remove(vocabularyId);
+            mTombstones.put(vocabularyId, ++mVersion);
+            mRowsDeleted++;
+        }
+    }
+
+    private void setCompleted(@NonNull String vocabularyId, boolean completed) {
+        Vocabulary vocabulary = mVocabularies.get(vocabularyId);
+        if (vocabulary != null) {
+            put(new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(),
+                    vocabulary.getDescription(), vocabulary.getType(), vocabulary.getPronounce(), completed));
+        }
+    }
+}
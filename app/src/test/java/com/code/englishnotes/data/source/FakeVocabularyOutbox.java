@@ -0,0 +1,62 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.model.VocabularyMutation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * In-memory {@link VocabularyOutbox}, safe to share between the thread enqueueing and the
+ * flusher's thread.
+ */
+public final class FakeVocabularyOutbox implements VocabularyOutbox {
+
+    private final ArrayDeque<VocabularyMutation> mMutations = new ArrayDeque<>();
+
+    private long mSequence = VocabularyMutation.NO_SEQUENCE;
+
+    @Override
+    public synchronized void enqueue(@NonNull Collection<VocabularyMutation> mutations) {
+        for (VocabularyMutation mutation : mutations) {
+            mMutations.add(new VocabularyMutation(++mSequence, mutation.getType(),
+                    mutation.getVocabularyId(), mutation.getVocabulary(), mutation.getEnqueuedAtMillis()));
+        }
+    }
+
+    /**
+     * Nothing is rolled back: a failing write simply leaves the mutations out.
+     */
+    @Override
+    public synchronized void enqueue(@NonNull Collection<VocabularyMutation> mutations, @NonNull Runnable localWrite) {
+        localWrite.run();
+        enqueue(mutations);
+    }
+
+    @NonNull
+    @Override
+    public synchronized List<VocabularyMutation> peek(int limit) {
+        List<VocabularyMutation> mutations = new ArrayList<>(Math.min(limit, mMutations.size()));
+        Iterator<VocabularyMutation> iterator = mMutations.iterator();
+        while (iterator.hasNext() && mutations.size() < limit) {
+            mutations.add(iterator.next());
+        }
+        return mutations;
+    }
+
+    @Override
+    public synchronized void remove(long sequence) {
+        while (!mMutations.isEmpty() && mMutations.peekFirst().getSequence() <= sequence) {
+            mMutations.removeFirst();
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return mMutations.size();
+    }
+}
@@ -0,0 +1,62 @@
+package com.code.englishnotes.data.source;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.utils.csv.DelimitedReader;
+import com.code.englishnotes.utils.schedulers.ImmediateSchedulerProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the implementation of {@link VocabularyImporter}.
+ */
+public class VocabularyImporterTest {
+
+    private FakeVocabularyDataSource mVocabularyRemoteDataSource;
+
+    private FakeVocabularyDataSource mVocabularyLocalDataSource;
+
+    private VocabularyRepository mVocabularyRepository;
+
+    private VocabularyImporter mImporter;
+
+    @Before
+    public void setUp() {
+        mVocabularyRemoteDataSource = new FakeVocabularyDataSource();
+        mVocabularyLocalDataSource = new FakeVocabularyDataSource();
+        VocabularyRepository.destroyInstance();
+        mVocabularyRepository = VocabularyRepository.getInstance(mVocabularyRemoteDataSource,
+                mVocabularyLocalDataSource,
+                new VocabularyOutboxFlusher(mVocabularyRemoteDataSource, new FakeVocabularyOutbox(),
+                        Schedulers.trampoline(), OutboxMetrics.NONE),
+                new FakeSyncTokenStore(), Schedulers.trampoline());
+        mImporter = new VocabularyImporter(mVocabularyLocalDataSource, mVocabularyRepository,
+                new ImmediateSchedulerProvider(), 2);
+    }
+
+    @After
+    public void tearDown() {
+        VocabularyRepository.destroyInstance();
+    }
+
+    @Test
+    public void importVocabularies_isReadBackThroughTheCachedRepository() {
+        mVocabularyRepository.saveVocabulary(new Vocabulary("saved", "description"));
+        assertEquals(1, mVocabularyRepository.getVocabularys().blockingFirst().size());
+
+        mImporter.importVocabularies(() -> new StringReader("title,description\none,1\ntwo,2\nthree,3\n"),
+                DelimitedReader.COMMA)
+                .blockingSubscribe();
+
+        assertEquals(4, mVocabularyRepository.getVocabularys().blockingFirst().size());
+        // Imported words stay local.
+        assertEquals(1, mVocabularyRemoteDataSource.getRowsWritten());
+    }
+}
@@ -0,0 +1,185 @@
+package com.code.englishnotes.data.source;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyMutation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for the implementation of {@link VocabularyOutboxFlusher}.
+ */
+public class VocabularyOutboxFlusherTest {
+
+    private FakeVocabularyDataSource mVocabularyRemoteDataSource;
+
+    private FakeVocabularyOutbox mOutbox;
+
+    private RecordingMetrics mMetrics;
+
+    private TestScheduler mScheduler;
+
+    private VocabularyOutboxFlusher mFlusher;
+
+    @Before
+    public void setUp() {
+        mVocabularyRemoteDataSource = new FakeVocabularyDataSource();
+        mOutbox = new FakeVocabularyOutbox();
+        mMetrics = new RecordingMetrics();
+        mScheduler = new TestScheduler();
+        mFlusher = new VocabularyOutboxFlusher(mVocabularyRemoteDataSource, mOutbox, mScheduler, mMetrics);
+    }
+
+    @Test
+    public void flush_sendsOnlyTheLastMutationOfEachId() {
+        Vocabulary completed = new Vocabulary("completed", "description");
+        Vocabulary deleted = new Vocabulary("deleted", "description");
+        Vocabulary renamed = new Vocabulary("renamed", "description");
+        enqueue(VocabularyMutation.save(completed),
+                VocabularyMutation.complete(completed.getId()),
+                VocabularyMutation.save(deleted),
+                VocabularyMutation.delete(deleted.getId()),
+                VocabularyMutation.save(renamed),
+                VocabularyMutation.save(new Vocabulary("renamed again", "description", renamed.getId())));
+
+        mScheduler.triggerActions();
+
+        // One saveVocabularies call for both saves and one deleteVocabularies call.
+        assertEquals(2, mVocabularyRemoteDataSource.getWriteCalls());
+        assertEquals(2, mVocabularyRemoteDataSource.getRowsWritten());
+        assertEquals(Collections.singletonList(3), mMetrics.mPushedWrites);
+        assertTrue(getRemote(completed.getId()).isCompleted());
+        assertEquals("renamed again", getRemote(renamed.getId()).getTitle());
+        assertFalse(mVocabularyRemoteDataSource.getVocabulary(deleted.getId()).blockingFirst().isPresent());
+        assertEquals(0, mFlusher.getQueueDepth());
+    }
+
+    @Test
+    public void flush_sendsTheLastStatusChangeOfEachId() {
+        Vocabulary saved = new Vocabulary("saved", "description");
+        Vocabulary remoteOnly = new Vocabulary("remote only", "description");
+        mVocabularyRemoteDataSource.saveVocabulary(remoteOnly);
+        mVocabularyRemoteDataSource.completeVocabulary(remoteOnly.getId());
+        mVocabularyRemoteDataSource.resetCounters();
+        enqueue(VocabularyMutation.save(saved),
+                VocabularyMutation.complete(saved.getId()),
+                VocabularyMutation.activate(saved.getId()),
+                VocabularyMutation.complete(remoteOnly.getId()),
+                VocabularyMutation.activate(remoteOnly.getId()));
+
+        mScheduler.triggerActions();
+
+        // The save carries its activation, the other activation is sent by id.
+        assertEquals(2, mVocabularyRemoteDataSource.getWriteCalls());
+        assertFalse(getRemote(saved.getId()).isCompleted());
+        assertFalse(getRemote(remoteOnly.getId()).isCompleted());
+        assertEquals(0, mFlusher.getQueueDepth());
+    }
+
+    @Test
+    public void flush_dropsTheMutationsBeforeADeleteAll() {
+        Vocabulary remoteOnly = new Vocabulary("remote only", "description");
+        mVocabularyRemoteDataSource.saveVocabulary(remoteOnly);
+        mVocabularyRemoteDataSource.resetCounters();
+        Vocabulary kept = new Vocabulary("kept", "description");
+        enqueue(VocabularyMutation.save(new Vocabulary("dropped", "description")),
+                VocabularyMutation.complete(remoteOnly.getId()),
+                VocabularyMutation.deleteAll(),
+                VocabularyMutation.save(kept));
+
+        mScheduler.triggerActions();
+
+        // One deleteAllVocabularys call and one saveVocabularies call.
+        assertEquals(2, mVocabularyRemoteDataSource.getWriteCalls());
+        assertEquals(1, mVocabularyRemoteDataSource.getRowsWritten());
+        assertEquals(Collections.singletonList(kept), mVocabularyRemoteDataSource.getVocabularys().blockingFirst());
+        assertEquals(0, mFlusher.getQueueDepth());
+    }
+
+    @Test
+    public void failedFlush_isRetriedWithADoublingDelay() {
+        mVocabularyRemoteDataSource.setWriteError(new IllegalStateException("offline"));
+        Vocabulary vocabulary = new Vocabulary("title", "description");
+        enqueue(VocabularyMutation.save(vocabulary));
+
+        mScheduler.triggerActions();
+        assertEquals(Collections.singletonList(VocabularyOutboxFlusher.INITIAL_RETRY_DELAY_MILLIS),
+                mMetrics.mRetryDelaysMillis);
+
+        mScheduler.advanceTimeBy(VocabularyOutboxFlusher.INITIAL_RETRY_DELAY_MILLIS - 1, TimeUnit.MILLISECONDS);
+        assertEquals(1, mMetrics.mRetryDelaysMillis.size());
+        mScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        mScheduler.advanceTimeBy(2 * VocabularyOutboxFlusher.INITIAL_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList(1000L, 2000L, 4000L), mMetrics.mRetryDelaysMillis);
+
+        for (int attempt = 0; attempt < 10; attempt++) {
+            mScheduler.advanceTimeBy(VocabularyOutboxFlusher.MAXIMUM_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        List<Long> retryDelaysMillis = mMetrics.mRetryDelaysMillis;
+        assertEquals(VocabularyOutboxFlusher.MAXIMUM_RETRY_DELAY_MILLIS,
+                (long) retryDelaysMillis.get(retryDelaysMillis.size() - 1));
+        assertEquals(1, mFlusher.getQueueDepth());
+
+        mVocabularyRemoteDataSource.setWriteError(null);
+        mScheduler.advanceTimeBy(VocabularyOutboxFlusher.MAXIMUM_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        assertEquals(0, mFlusher.getQueueDepth());
+        assertEquals(vocabulary, getRemote(vocabulary.getId()));
+    }
+
+    @Test
+    public void enqueue_storesNothingWhenTheLocalWriteFails() {
+        try {
+            mFlusher.enqueue(VocabularyMutation.save(new Vocabulary("title", "description")), () -> {
+                throw new IllegalStateException("disk full");
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        mScheduler.triggerActions();
+        assertEquals(0, mFlusher.getQueueDepth());
+        assertEquals(0, mVocabularyRemoteDataSource.getWriteCalls());
+    }
+
+    private void enqueue(VocabularyMutation... mutations) {
+        mFlusher.enqueue(Arrays.asList(mutations), () -> {
+        });
+    }
+
+    private Vocabulary getRemote(String vocabularyId) {
+        return mVocabularyRemoteDataSource.getVocabulary(vocabularyId).blockingFirst().get();
+    }
+
+    private static final class RecordingMetrics implements OutboxMetrics {
+
+        final List<Integer> mPushedWrites = new ArrayList<>();
+
+        final List<Long> mRetryDelaysMillis = new ArrayList<>();
+
+        @Override
+        public void onBatchFlushed(int mutations, int pushedWrites, long flushNanos,
+                                   long oldestMutationAgeMillis, int queueDepth) {
+            mPushedWrites.add(pushedWrites);
+        }
+
+        @Override
+        public void onFlushFailed(int attempt, long retryDelayMillis, @NonNull Throwable error) {
+            mRetryDelaysMillis.add(retryDelayMillis);
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.code.englishnotes.data.source;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.google.common.collect.Ordering;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the implementation of {@link VocabularyRepository}.
+ */
+public class VocabularyRepositoryTest {
+
+    private static final int VOCABULARIES = 2000;
+
+    private static final int THREADS = 8;
+
+    private static final int ROUNDS = 50;
+
+    private FakeVocabularyDataSource mVocabularyRemoteDataSource;
+
+    private FakeVocabularyDataSource mVocabularyLocalDataSource;
+
+    private FakeSyncTokenStore mSyncTokenStore;
+
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newFixedThreadPool(THREADS);
+        mSyncTokenStore = new FakeSyncTokenStore();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+        VocabularyRepository.destroyInstance();
+    }
+
+    @Test
+    public void concurrentFirstLoads_neverAnswerPartOfTheCache() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            VocabularyRepository repository = createRepository(
+                    VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+
+            for (int size : readConcurrently(repository, 1)) {
+                assertEquals(VOCABULARIES, size);
+            }
+            assertTrue(repository.mCacheIsComplete);
+        }
+    }
+
+    @Test
+    public void loadRacingWithWrites_neverCachesTheOlderRows() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            VocabularyRepository repository = createRepository(
+                    VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+            List<Vocabulary> vocabularies = repository.getVocabularys().blockingFirst();
+
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?> writer = mExecutor.submit(() -> {
+                start.await();
+                for (Vocabulary vocabulary : vocabularies) {
+                    repository.completeVocabulary(vocabulary);
+                }
+                return null;
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 1; i < THREADS; i++) {
+                readers.add(mExecutor.submit(() -> {
+                    start.await();
+                    while (!writer.isDone()) {
+                        // Forces a full load, as an eviction would.
+                        repository.mCacheIsComplete = false;
+                        repository.getVocabularys().blockingFirst();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+
+            for (Vocabulary vocabulary : repository.mCachedVocabulary.asMap().values()) {
+                assertTrue(vocabulary.isCompleted());
+            }
+        }
+    }
+
+    @Test
+    public void cacheSmallerThanTheDeck_isNeverComplete() throws Exception {
+        for (int round = 0; round < ROUNDS / 10; round++) {
+            VocabularyRepository repository = createRepository(16 * 1024);
+
+            for (int size : readConcurrently(repository, 5)) {
+                assertEquals(VOCABULARIES, size);
+            }
+            assertFalse(repository.mCacheIsComplete);
+        }
+    }
+
+    @Test
+    public void completeAndActivateById_writeVocabulariesEvictedFromTheCache() {
+        VocabularyRepository repository = createRepository(16 * 1024);
+        List<Vocabulary> vocabularies = repository.getVocabularys().blockingFirst();
+        mVocabularyRemoteDataSource.saveVocabularies(vocabularies);
+        Vocabulary evicted = null;
+        for (Vocabulary vocabulary : vocabularies) {
+            if (repository.mCachedVocabulary.getIfPresent(vocabulary.getVocabularyId()) == null) {
+                evicted = vocabulary;
+                break;
+            }
+        }
+        String evictedId = evicted.getId();
+
+        repository.completeVocabulary(evictedId);
+
+        assertTrue(getLocal(evictedId).isCompleted());
+        assertTrue(mVocabularyRemoteDataSource.getVocabulary(evictedId).blockingFirst().get().isCompleted());
+        assertNull(repository.mCachedVocabulary.getIfPresent(evicted.getVocabularyId()));
+
+        repository.activateVocabulary(evictedId);
+
+        assertFalse(getLocal(evictedId).isCompleted());
+        assertFalse(mVocabularyRemoteDataSource.getVocabulary(evictedId).blockingFirst().get().isCompleted());
+        assertNull(repository.mCachedVocabulary.getIfPresent(evicted.getVocabularyId()));
+    }
+
+    @Test
+    public void concurrentRefreshes_shareOneRemoteLoad() throws Exception {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        mVocabularyRemoteDataSource.saveVocabularies(mVocabularyLocalDataSource.getVocabularys().blockingFirst());
+        mVocabularyRemoteDataSource.setDeltaLatencyMillis(200);
+        mVocabularyRemoteDataSource.resetCounters();
+
+        repository.refreshVocabularys();
+        for (int size : readConcurrently(repository, 1)) {
+            assertEquals(VOCABULARIES, size);
+        }
+        assertEquals(1, mVocabularyRemoteDataSource.getDeltaCalls());
+
+        // A refresh after the load finished starts a new one.
+        repository.refreshVocabularys();
+        readConcurrently(repository, 1);
+        assertEquals(2, mVocabularyRemoteDataSource.getDeltaCalls());
+    }
+
+    @Test
+    public void refresh_writesOnlyTheRowsChangedSinceTheLastOne() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        List<Vocabulary> vocabularies = mVocabularyLocalDataSource.getVocabularys().blockingFirst();
+        mVocabularyRemoteDataSource.saveVocabularies(vocabularies);
+        mVocabularyLocalDataSource.resetCounters();
+
+        refresh(repository);
+        assertEquals(VOCABULARIES, mVocabularyLocalDataSource.getRowsWritten());
+
+        mVocabularyRemoteDataSource.saveVocabulary(new Vocabulary("added", "description"));
+        mVocabularyRemoteDataSource.completeVocabulary(vocabularies.get(0).getId());
+        mVocabularyRemoteDataSource.deleteVocabulary(vocabularies.get(1).getId());
+        mVocabularyLocalDataSource.resetCounters();
+
+        List<Vocabulary> refreshed = refresh(repository);
+        assertEquals(2, mVocabularyLocalDataSource.getRowsWritten());
+        assertEquals(VOCABULARIES, refreshed.size());
+
+        mVocabularyLocalDataSource.resetCounters();
+        refresh(repository);
+        assertEquals(0, mVocabularyLocalDataSource.getRowsWritten());
+    }
+
+    @Test
+    public void newRepository_resumesFromTheSavedSyncToken() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        mVocabularyRemoteDataSource.saveVocabularies(mVocabularyLocalDataSource.getVocabularys().blockingFirst());
+        refresh(repository);
+
+        // As after a restart: the local data and the token are kept, the cache is not.
+        VocabularyRepository.destroyInstance();
+        repository = VocabularyRepository.getInstance(mVocabularyRemoteDataSource, mVocabularyLocalDataSource,
+                new VocabularyOutboxFlusher(mVocabularyRemoteDataSource, new FakeVocabularyOutbox(),
+                        Schedulers.trampoline(), OutboxMetrics.NONE),
+                mSyncTokenStore, Schedulers.trampoline());
+        mVocabularyRemoteDataSource.saveVocabulary(new Vocabulary("added", "description"));
+        mVocabularyLocalDataSource.resetCounters();
+
+        assertEquals(VOCABULARIES + 1, refresh(repository).size());
+        assertEquals(1, mVocabularyLocalDataSource.getRowsWritten());
+    }
+
+    @Test
+    public void reload_dropsTheCache() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        repository.getVocabularys().blockingFirst();
+        // As a restored snapshot: written locally, reported by a single reload.
+        mVocabularyLocalDataSource.saveVocabulary(new Vocabulary("restored", "description"));
+        assertEquals(VOCABULARIES, repository.getVocabularys().blockingFirst().size());
+
+        mVocabularyLocalDataSource.publishChange(VocabularyChange.reload());
+
+        assertFalse(repository.mCacheIsComplete);
+        assertEquals(VOCABULARIES + 1, repository.getVocabularys().blockingFirst().size());
+    }
+
+    @Test
+    public void staleWhileRevalidate_emitsTheCachedListThenTheRemoteOneThatDiffers() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        repository.setStaleWhileRevalidate(true);
+        List<Vocabulary> cached = repository.getVocabularys().blockingFirst();
+        mVocabularyRemoteDataSource.saveVocabularies(cached);
+        mVocabularyRemoteDataSource.saveVocabulary(new Vocabulary("added", "description"));
+
+        repository.refreshVocabularys();
+        TestSubscriber<List<Vocabulary>> subscriber = repository.getVocabularys().test();
+
+        subscriber.assertComplete().assertValueCount(2);
+        assertEquals(VOCABULARIES, subscriber.values().get(0).size());
+        assertEquals(VOCABULARIES + 1, subscriber.values().get(1).size());
+        assertFalse(repository.mCacheIsDirty);
+    }
+
+    @Test
+    public void staleWhileRevalidate_emitsOnlyTheCachedListWhenTheRemoteOneIsTheSame() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        repository.setStaleWhileRevalidate(true);
+        List<Vocabulary> cached = repository.getVocabularys().blockingFirst();
+        mVocabularyRemoteDataSource.saveVocabularies(cached);
+        mVocabularyRemoteDataSource.resetCounters();
+
+        repository.refreshVocabularys();
+        TestSubscriber<List<Vocabulary>> subscriber = repository.getVocabularys().test();
+
+        subscriber.assertComplete().assertValueCount(1);
+        assertEquals(VOCABULARIES, subscriber.values().get(0).size());
+        // The remote was still asked.
+        assertEquals(1, mVocabularyRemoteDataSource.getDeltaCalls());
+    }
+
+    @Test
+    public void staleWhileRevalidate_keepsTheCachedListWhenTheRemoteFails() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+        repository.setStaleWhileRevalidate(true);
+        List<Vocabulary> cached = repository.getVocabularys().blockingFirst();
+        mVocabularyRemoteDataSource.saveVocabularies(cached);
+        mVocabularyRemoteDataSource.saveVocabulary(new Vocabulary("added", "description"));
+        mVocabularyRemoteDataSource.setDeltaError(new IllegalStateException("offline"));
+
+        repository.refreshVocabularys();
+        TestSubscriber<List<Vocabulary>> subscriber = repository.getVocabularys().test();
+
+        subscriber.assertNoErrors().assertComplete().assertValueCount(1);
+        assertEquals(VOCABULARIES, subscriber.values().get(0).size());
+        assertTrue(repository.mCacheIsDirty);
+
+        // The next call tries the remote again.
+        mVocabularyRemoteDataSource.setDeltaError(null);
+        subscriber = repository.getVocabularys().test();
+
+        subscriber.assertComplete().assertValueCount(2);
+        assertEquals(VOCABULARIES + 1, subscriber.values().get(1).size());
+    }
+
+    @Test
+    public void getVocabularyPages_walksEveryVocabularyInIdOrder() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+
+        List<String> ids = new ArrayList<>();
+        for (List<Vocabulary> page : repository.getVocabularyPages(1).blockingIterable()) {
+            assertEquals(1, page.size());
+            ids.add(page.get(0).getId());
+        }
+
+        assertEquals(VOCABULARIES, ids.size());
+        assertEquals(Ordering.natural().sortedCopy(ids), ids);
+    }
+
+    @Test
+    public void getVocabularyPages_emitsOnlyTheRequestedPages() {
+        VocabularyRepository repository = createRepository(
+                VocabularyRepository.DEFAULT_CACHE_MAXIMUM_WEIGHT_IN_BYTES);
+
+        TestSubscriber<List<Vocabulary>> subscriber = repository.getVocabularyPages(100).test(2);
+        subscriber.assertValueCount(2).assertNotComplete();
+
+        subscriber.requestMore(Long.MAX_VALUE);
+        subscriber.assertValueCount(VOCABULARIES / 100).assertComplete();
+    }
+
+    private VocabularyRepository createRepository(long cacheMaximumWeightInBytes) {
+        mVocabularyRemoteDataSource = new FakeVocabularyDataSource();
+        mVocabularyLocalDataSource = new FakeVocabularyDataSource();
+        for (int i = 0; i < VOCABULARIES; i++) {
+            mVocabularyLocalDataSource.saveVocabulary(new Vocabulary("word" + i, "description of word " + i));
+        }
+        VocabularyOutboxFlusher flusher = new VocabularyOutboxFlusher(mVocabularyRemoteDataSource,
+                new FakeVocabularyOutbox(), Schedulers.trampoline(), OutboxMetrics.NONE);
+        VocabularyRepository.destroyInstance();
+        return VocabularyRepository.getInstance(mVocabularyRemoteDataSource, mVocabularyLocalDataSource,
+                flusher, mSyncTokenStore, Schedulers.trampoline(), cacheMaximumWeightInBytes);
+    }
+
+    private Vocabulary getLocal(String vocabularyId) {
+        return mVocabularyLocalDataSource.getVocabulary(vocabularyId).blockingFirst().get();
+    }
+
+    private static List<Vocabulary> refresh(VocabularyRepository repository) {
+        repository.refreshVocabularys();
+        return repository.getVocabularys().blockingFirst();
+    }
+
+    /**
+     * Calls {@link VocabularyRepository#getVocabularys()} from every thread at once.
+     *
+     * @return the size of every list answered
+     */
+    private List<Integer> readConcurrently(VocabularyRepository repository, int readsPerThread) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Integer>>> readers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Callable<List<Integer>> reader = () -> {
+                start.await();
+                List<Integer> sizes = new ArrayList<>();
+                for (int read = 0; read < readsPerThread; read++) {
+                    sizes.add(repository.getVocabularys().blockingFirst().size());
+                }
+                return sizes;
+            };
+            readers.add(mExecutor.submit(reader));
+        }
+        start.countDown();
+        List<Integer> sizes = new ArrayList<>();
+        for (Future<List<Integer>> reader : readers) {
+            sizes.addAll(reader.get());
+        }
+        return sizes;
+    }
+}
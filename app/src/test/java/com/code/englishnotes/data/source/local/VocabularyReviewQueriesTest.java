@@ -0,0 +1,181 @@
+package com.code.englishnotes.data.source.local;
+
+import android.arch.persistence.db.SupportSQLiteProgram;
+import android.arch.persistence.db.SupportSQLiteQuery;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link VocabularyReviewQueries}, run on SQLite through JDBC against the schema
+ * of a fresh install.
+ */
+public class VocabularyReviewQueriesTest {
+
+    private static final String[] PROJECTION = {
+            VocabularyPersistenceContract.VocabularyEntry.COLUMN_NAME_ENTRY_ID};
+
+    private Connection mConnection;
+
+    private long mNow;
+
+    @Before
+    public void setUp() throws SQLException {
+        mConnection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = mConnection.createStatement()) {
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+            statement.execute("INSERT INTO vocabulary (entryid, title) VALUES ('never reviewed', 'one')");
+            statement.execute("INSERT INTO vocabulary (entryid, title) VALUES ('also new', 'two')");
+            statement.execute("INSERT INTO vocabulary (entryid, title, review_repetitions, review_due_at)" +
+                    " VALUES ('due later', 'three', 1, 3000)");
+            statement.execute("INSERT INTO vocabulary (entryid, title, review_repetitions, review_due_at)" +
+                    " VALUES ('due', 'four', 1, 1000)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        mConnection.close();
+    }
+
+    @Test
+    public void due_excludesTheVocabulariesNeverReviewed() throws SQLException {
+        mNow = Long.MAX_VALUE;
+
+        assertEquals(Arrays.asList("due", "due later"),
+                query(VocabularyReviewQueries.due(PROJECTION, 10, () -> mNow)));
+    }
+
+    @Test
+    public void due_readsTheClockEveryTimeItRuns() throws SQLException {
+        SupportSQLiteQuery due = VocabularyReviewQueries.due(PROJECTION, 10, () -> mNow);
+
+        mNow = 999;
+        assertEquals(Collections.emptyList(), query(due));
+        mNow = 1000;
+        assertEquals(Collections.singletonList("due"), query(due));
+        mNow = 5000;
+        assertEquals(Arrays.asList("due", "due later"), query(due));
+    }
+
+    @Test
+    public void due_returnsTheLongestOverdueFirstUpToTheLimit() throws SQLException {
+        mNow = 5000;
+
+        assertEquals(Collections.singletonList("due"),
+                query(VocabularyReviewQueries.due(PROJECTION, 1, () -> mNow)));
+    }
+
+    @Test
+    public void neverReviewed_returnsOnlyTheVocabulariesNeverReviewed() throws SQLException {
+        List<String> ids = query(VocabularyReviewQueries.neverReviewed(PROJECTION, 10));
+
+        Collections.sort(ids);
+        assertEquals(Arrays.asList("also new", "never reviewed"), ids);
+        assertEquals(1, query(VocabularyReviewQueries.neverReviewed(PROJECTION, 1)).size());
+    }
+
+    /**
+     * Runs {@code query} the way sqlbrite does, binding it on every run.
+     *
+     * @return the first column of every row
+     */
+    private List<String> query(SupportSQLiteQuery query) throws SQLException {
+        try (PreparedStatement statement = mConnection.prepareStatement(query.getSql())) {
+            query.bindTo(new JdbcProgram(statement));
+            assertEquals(query.getArgCount(), statement.getParameterMetaData().getParameterCount());
+            List<String> ids = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getString(1));
+                }
+            }
+            return ids;
+        }
+    }
+
+    private static final class JdbcProgram implements SupportSQLiteProgram {
+
+        private final PreparedStatement mStatement;
+
+        JdbcProgram(PreparedStatement statement) {
+            mStatement = statement;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            try {
+                mStatement.setObject(index, null);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            try {
+                mStatement.setLong(index, value);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            try {
+                mStatement.setDouble(index, value);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void bindString(int index, String value) {
+            try {
+                mStatement.setString(index, value);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void bindBlob(int index, byte[] value) {
+            try {
+                mStatement.setBytes(index, value);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void clearBindings() {
+            try {
+                mStatement.clearParameters();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
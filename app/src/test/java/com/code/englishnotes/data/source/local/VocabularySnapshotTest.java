@@ -0,0 +1,131 @@
+package com.code.englishnotes.data.source.local;
+
+import com.code.englishnotes.data.model.Vocabulary;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link VocabularySnapshotWriter} and {@link VocabularySnapshotReader}, which
+ * read back what the other writes.
+ */
+public class VocabularySnapshotTest {
+
+    @Test
+    public void roundTrip_keepsEveryField() throws IOException {
+        List<Vocabulary> vocabularies = Arrays.asList(
+                new Vocabulary(UUID.randomUUID().toString(), "apple", "a fruit", "noun", "/ˈæp.əl/", false),
+                new Vocabulary("text id", "naïve", null, null, null, true),
+                new Vocabulary("emoji", "😀 smile", "日本語, русский", "", "?", false));
+
+        assertRoundTrip(vocabularies);
+    }
+
+    @Test
+    public void roundTrip_keepsTextsLongerThanAChunk() throws IOException {
+        // Surrogate pairs fall on the chunk boundaries of the writer.
+        StringBuilder text = new StringBuilder("x");
+        for (int i = 0; i < 5000; i++) {
+            text.append("日本😀a");
+        }
+
+        assertRoundTrip(Arrays.asList(
+                new Vocabulary("long", text.toString(), text.substring(1), null, null, false),
+                new Vocabulary("after", "title", "description", null, null, false)));
+    }
+
+    @Test
+    public void roundTrip_ofAnEmptySnapshot() throws IOException {
+        assertRoundTrip(new ArrayList<>());
+    }
+
+    @Test
+    public void truncatedSnapshot_failsToRead() throws IOException {
+        byte[] snapshot = write(Arrays.asList(
+                new Vocabulary(UUID.randomUUID().toString(), "apple", "a fruit", null, null, false),
+                new Vocabulary("text id", "pear", "another fruit", null, null, true)));
+
+        for (int length = 0; length < snapshot.length; length++) {
+            try {
+                read(Arrays.copyOf(snapshot, length));
+                fail("Read a snapshot cut at " + length + " of " + snapshot.length + " bytes");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void textOverTheLimit_isRejectedAtWriteTime() throws IOException {
+        StringBuilder text = new StringBuilder();
+        while (text.length() <= VocabularySnapshotWriter.MAXIMUM_TEXT_BYTES / 3) {
+            text.append('日');
+        }
+        StringBuilder longestText = new StringBuilder();
+        while (longestText.length() < VocabularySnapshotWriter.MAXIMUM_TEXT_BYTES) {
+            longestText.append('a');
+        }
+        Vocabulary longest = new Vocabulary("longest", longestText.toString(), null, null, null, false);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (VocabularySnapshotWriter writer = new VocabularySnapshotWriter(output)) {
+            try {
+                writer.writeRow(new Vocabulary("too long", "title", text.toString(), null, null, false));
+                fail();
+            } catch (IOException expected) {
+            }
+            writer.writeRow(longest);
+        }
+
+        // Nothing of the rejected row was written.
+        assertEquals(1, read(output.toByteArray()).size());
+    }
+
+    private static void assertRoundTrip(List<Vocabulary> vocabularies) throws IOException {
+        List<Vocabulary> read = read(write(vocabularies));
+
+        assertEquals(vocabularies.size(), read.size());
+        for (int i = 0; i < vocabularies.size(); i++) {
+            Vocabulary expected = vocabularies.get(i);
+            Vocabulary actual = read.get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getPronounce(), actual.getPronounce());
+            assertEquals(expected.isCompleted(), actual.isCompleted());
+        }
+    }
+
+    private static byte[] write(List<Vocabulary> vocabularies) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (VocabularySnapshotWriter writer = new VocabularySnapshotWriter(output)) {
+            for (Vocabulary vocabulary : vocabularies) {
+                writer.writeRow(vocabulary);
+            }
+            assertEquals(vocabularies.size(), writer.getRowCount());
+        }
+        return output.toByteArray();
+    }
+
+    private static List<Vocabulary> read(byte[] snapshot) throws IOException {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        try (VocabularySnapshotReader reader = new VocabularySnapshotReader(new ByteArrayInputStream(snapshot))) {
+            while (reader.next()) {
+                vocabularies.add(reader.toVocabulary());
+            }
+            assertFalse(reader.next());
+            assertEquals(vocabularies.size(), reader.getRowCount());
+        }
+        return vocabularies;
+    }
+}
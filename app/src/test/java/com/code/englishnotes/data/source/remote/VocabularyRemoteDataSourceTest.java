@@ -0,0 +1,83 @@
+package com.code.englishnotes.data.source.remote;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyDelta;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.plugins.RxJavaPlugins;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+
+import static com.code.englishnotes.data.source.remote.VocabularyRemoteDataSource.SERVICE_LATENCY_IN_MILLIS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the simulated latency of {@link VocabularyRemoteDataSource}. Its data is static
+ * and shared by every test, so each one writes vocabularies of its own.
+ */
+public class VocabularyRemoteDataSourceTest {
+
+    private TestScheduler mScheduler;
+
+    private VocabularyRemoteDataSource mVocabularyRemoteDataSource;
+
+    @Before
+    public void setUp() {
+        mScheduler = new TestScheduler();
+        // Reads are delayed on the computation scheduler.
+        RxJavaPlugins.setComputationSchedulerHandler(scheduler -> mScheduler);
+        mVocabularyRemoteDataSource = VocabularyRemoteDataSource.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+    }
+
+    @Test
+    public void getVocabularysChangedSince_answersAfterOneRoundTrip() {
+        TestSubscriber<VocabularyDelta> subscriber = mVocabularyRemoteDataSource
+                .getVocabularysChangedSince(VocabularyDelta.INITIAL_SYNC_TOKEN)
+                .test();
+
+        mScheduler.advanceTimeBy(SERVICE_LATENCY_IN_MILLIS - 1, TimeUnit.MILLISECONDS);
+        subscriber.assertNoValues();
+
+        mScheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        subscriber.assertValueCount(1).assertComplete();
+    }
+
+    @Test
+    public void saveVocabularies_waitsOneRoundTripForTheWholeBatch() {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            vocabularies.add(new Vocabulary("word" + i, "description of word " + i));
+        }
+        long syncToken = getDelta(VocabularyDelta.INITIAL_SYNC_TOKEN).getSyncToken();
+
+        long start = System.nanoTime();
+        mVocabularyRemoteDataSource.saveVocabularies(vocabularies);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis >= SERVICE_LATENCY_IN_MILLIS);
+        assertTrue(elapsedMillis < 2 * SERVICE_LATENCY_IN_MILLIS);
+        VocabularyDelta delta = getDelta(syncToken);
+        assertEquals(vocabularies.size(), delta.getChangedVocabularies().size());
+    }
+
+    private VocabularyDelta getDelta(long syncToken) {
+        TestSubscriber<VocabularyDelta> subscriber = mVocabularyRemoteDataSource
+                .getVocabularysChangedSince(syncToken)
+                .test();
+        mScheduler.advanceTimeBy(SERVICE_LATENCY_IN_MILLIS, TimeUnit.MILLISECONDS);
+        return subscriber.values().get(0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.code.englishnotes.utils.csv;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link DelimitedReader}, on hand written input and on what
+ * {@link DelimitedWriter} writes.
+ */
+public class DelimitedReaderTest {
+
+    @Test
+    public void roundTrip_keepsQuotesDelimitersAndLineBreaks() throws IOException {
+        StringBuilder longField = new StringBuilder();
+        while (longField.length() < 20000) {
+            longField.append("\"quoted\", 😀\n");
+        }
+        List<List<String>> records = Arrays.asList(
+                Arrays.asList("title", "description"),
+                Arrays.asList("say \"hi\"", "one, two\tthree"),
+                Arrays.asList("line\nbreak", "crlf\r\nbreak\rand cr"),
+                Arrays.asList(" padded ", ""),
+                Collections.singletonList(""),
+                Arrays.asList("日本語", longField.toString()));
+
+        for (char delimiter : new char[]{DelimitedReader.COMMA, DelimitedReader.TAB}) {
+            assertEquals(records, read(write(records, delimiter), delimiter));
+        }
+    }
+
+    @Test
+    public void nullField_isReadBackEmpty() throws IOException {
+        String written = write(Collections.singletonList(Arrays.asList("word", null)), DelimitedReader.COMMA);
+
+        assertEquals(Collections.singletonList(Arrays.asList("word", "")), read(written, DelimitedReader.COMMA));
+    }
+
+    @Test
+    public void readRecord_acceptsEveryLineEndingAndSkipsTheByteOrderMark() throws IOException {
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d"),
+                Arrays.asList("e", "f"), Collections.singletonList("g")),
+                read("\uFEFFa,b\r\nc,d\re,f\ng", DelimitedReader.COMMA));
+    }
+
+    @Test
+    public void readRecord_failsOnAnUnterminatedQuotedField() throws IOException {
+        DelimitedReader reader = new DelimitedReader(new StringReader("a,b\n\"c,d\n"), DelimitedReader.COMMA);
+        assertEquals(Arrays.asList("a", "b"), reader.readRecord());
+        try {
+            reader.readRecord();
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private static String write(List<List<String>> records, char delimiter) throws IOException {
+        StringWriter output = new StringWriter();
+        try (DelimitedWriter writer = new DelimitedWriter(output, delimiter)) {
+            for (List<String> record : records) {
+                for (String field : record) {
+                    writer.writeField(field);
+                }
+                writer.endRecord();
+            }
+        }
+        return output.toString();
+    }
+
+    private static List<List<String>> read(String input, char delimiter) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (DelimitedReader reader = new DelimitedReader(new StringReader(input), delimiter)) {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                records.add(record);
+            }
+            assertEquals(records.size(), reader.getRecordCount());
+        }
+        return records;
+    }
+}
@@ -0,0 +1,152 @@
+package com.code.englishnotes.utils.database;
+
+import android.arch.persistence.db.SupportSQLiteDatabase;
+import android.arch.persistence.db.SupportSQLiteOpenHelper;
+
+import com.squareup.sqlbrite3.BriteDatabase;
+import com.squareup.sqlbrite3.SqlBrite;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit tests for {@link CommitActions}, on a {@link BriteDatabase} whose underlying database only
+ * tracks how deep in transactions it is.
+ */
+public class CommitActionsTest {
+
+    private BriteDatabase mDatabase;
+
+    private List<String> mActions;
+
+    @Before
+    public void setUp() {
+        mDatabase = new SqlBrite.Builder().build()
+                .wrapDatabaseHelper(new TransactionCountingHelper(), Schedulers.trampoline());
+        mActions = new ArrayList<>();
+    }
+
+    @Test
+    public void afterCommit_runsRightAwayOutsideOfATransaction() {
+        CommitActions.afterCommit(() -> mActions.add("write"));
+
+        assertEquals(Collections.singletonList("write"), mActions);
+    }
+
+    @Test
+    public void afterCommit_waitsForTheOutermostTransaction() {
+        BriteDatabase.Transaction outer = CommitActions.newTransaction(mDatabase);
+        BriteDatabase.Transaction inner = CommitActions.newTransaction(mDatabase);
+        CommitActions.afterCommit(() -> mActions.add("inner"));
+        inner.markSuccessful();
+        inner.end();
+        CommitActions.afterCommit(() -> mActions.add("outer"));
+        assertTrue(mActions.isEmpty());
+
+        outer.markSuccessful();
+        outer.end();
+
+        assertEquals(Arrays.asList("inner", "outer"), mActions);
+    }
+
+    @Test
+    public void rolledBackInnerTransaction_dropsEveryAction() {
+        BriteDatabase.Transaction outer = CommitActions.newTransaction(mDatabase);
+        CommitActions.afterCommit(() -> mActions.add("outer"));
+        BriteDatabase.Transaction inner = CommitActions.newTransaction(mDatabase);
+        CommitActions.afterCommit(() -> mActions.add("inner"));
+        inner.end();
+        outer.markSuccessful();
+        outer.end();
+
+        assertTrue(mActions.isEmpty());
+        // The next transaction starts over.
+        BriteDatabase.Transaction next = CommitActions.newTransaction(mDatabase);
+        CommitActions.afterCommit(() -> mActions.add("next"));
+        next.markSuccessful();
+        next.end();
+        assertEquals(Collections.singletonList("next"), mActions);
+    }
+
+    @Test
+    public void rolledBackOuterTransaction_dropsTheCommittedInnerActions() {
+        BriteDatabase.Transaction outer = CommitActions.newTransaction(mDatabase);
+        BriteDatabase.Transaction inner = CommitActions.newTransaction(mDatabase);
+        CommitActions.afterCommit(() -> mActions.add("inner"));
+        inner.markSuccessful();
+        inner.end();
+        outer.end();
+
+        assertTrue(mActions.isEmpty());
+    }
+
+    @Test
+    public void newTransaction_failsInsideATransactionBegunElsewhere() {
+        BriteDatabase.Transaction outer = mDatabase.newTransaction();
+        try {
+            CommitActions.newTransaction(mDatabase);
+            fail();
+        } catch (IllegalStateException expected) {
+        } finally {
+            outer.end();
+        }
+    }
+
+    private static final class TransactionCountingHelper implements SupportSQLiteOpenHelper {
+
+        private int mDepth;
+
+        private final SupportSQLiteDatabase mDatabase = (SupportSQLiteDatabase) Proxy.newProxyInstance(
+                SupportSQLiteDatabase.class.getClassLoader(), new Class<?>[]{SupportSQLiteDatabase.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "beginTransaction":
+                        case "beginTransactionNonExclusive":
+                        case "beginTransactionWithListener":
+                        case "beginTransactionWithListenerNonExclusive":
+                            mDepth++;
+                            return null;
+                        case "endTransaction":
+                            mDepth--;
+                            return null;
+                        case "inTransaction":
+                            return mDepth > 0;
+                        case "setTransactionSuccessful":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        @Override
+        public String getDatabaseName() {
+            return "test";
+        }
+
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return mDatabase;
+        }
+
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return mDatabase;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
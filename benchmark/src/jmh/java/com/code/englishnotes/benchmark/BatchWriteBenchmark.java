@@ -0,0 +1,124 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.source.FakeSyncTokenStore;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+import com.code.englishnotes.data.source.FakeVocabularyOutbox;
+import com.code.englishnotes.data.source.OutboxMetrics;
+import com.code.englishnotes.data.source.VocabularyOutboxFlusher;
+import com.code.englishnotes.data.source.VocabularyRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Completing and deleting {@link #count} vocabularies on a remote taking
+ * {@link #remoteLatencyMillis} per call, one call per vocabulary against one batch call. The
+ * repository variant goes through the outbox and checks that the remote saw a single call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BatchWriteBenchmark {
+
+    @Param({"10", "100"})
+    public int count;
+
+    @Param({"1"})
+    public long remoteLatencyMillis;
+
+    private List<Vocabulary> mVocabularies;
+
+    private List<String> mIds;
+
+    private FakeVocabularyDataSource mRemote;
+
+    private VocabularyRepository mRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mVocabularies = Fixtures.vocabularies(count);
+        mIds = new ArrayList<>(count);
+        for (Vocabulary vocabulary : mVocabularies) {
+            mIds.add(vocabulary.getId());
+        }
+        mRemote = new FakeVocabularyDataSource();
+        FakeVocabularyDataSource local = new FakeVocabularyDataSource();
+        local.saveVocabularies(mVocabularies);
+        VocabularyRepository.destroyInstance();
+        mRepository = VocabularyRepository.getInstance(mRemote, local,
+                new VocabularyOutboxFlusher(mRemote, new FakeVocabularyOutbox(), Schedulers.trampoline(),
+                        OutboxMetrics.NONE),
+                new FakeSyncTokenStore(), Schedulers.trampoline(), Long.MAX_VALUE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        VocabularyRepository.destroyInstance();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetRemote() {
+        mRemote.setWriteLatencyMillis(0);
+        mRemote.saveVocabularies(mVocabularies);
+        mRemote.resetCounters();
+        mRemote.setWriteLatencyMillis(remoteLatencyMillis);
+    }
+
+    @Benchmark
+    public void completeEach() {
+        for (String id : mIds) {
+            mRemote.completeVocabulary(id);
+        }
+        checkWriteCalls(count);
+    }
+
+    @Benchmark
+    public void completeBatch() {
+        mRemote.completeVocabularies(mIds);
+        checkWriteCalls(1);
+    }
+
+    @Benchmark
+    public void deleteEach() {
+        for (String id : mIds) {
+            mRemote.deleteVocabulary(id);
+        }
+        checkWriteCalls(count);
+    }
+
+    @Benchmark
+    public void deleteBatch() {
+        mRemote.deleteVocabularies(mIds);
+        checkWriteCalls(1);
+    }
+
+    /**
+     * The local write plus the flush of the outbox, which runs on the calling thread here.
+     */
+    @Benchmark
+    public void completeThroughRepository() {
+        mRepository.completeVocabularies(mIds);
+        checkWriteCalls(1);
+    }
+
+    private void checkWriteCalls(int expected) {
+        if (mRemote.getWriteCalls() != expected) {
+            throw new IllegalStateException(mRemote.getWriteCalls() + " remote calls instead of " + expected);
+        }
+    }
+}
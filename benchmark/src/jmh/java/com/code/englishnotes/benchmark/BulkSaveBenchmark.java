@@ -0,0 +1,108 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts per second into the shared database schema when a synced batch of {@link #BATCH}
+ * vocabularies is saved one vocabulary at a time, each in a transaction of its own, against one
+ * {@code saveVocabularies} call. Every invocation writes new vocabularies into a database created
+ * for the iteration, and the teardown fails unless every one of them ended up in the table.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class BulkSaveBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private SqliteVocabularyDataSource mDataSource;
+
+    private List<Vocabulary> mVocabularies;
+
+    private int mSaved;
+
+    @Setup(Level.Iteration)
+    public void createDatabase() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("bulksave", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+        }
+        mDataSource = new SqliteVocabularyDataSource(mConnection);
+        mSaved = 0;
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        mVocabularies = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            int word = mSaved++;
+            mVocabularies.add(new Vocabulary(String.format("word%08d", word), "word " + word,
+                    "description of word " + word, "noun", "/w3:d/", false));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteDatabase() throws SQLException {
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM vocabulary")) {
+            resultSet.next();
+            if (resultSet.getInt(1) != mSaved) {
+                throw new IllegalStateException(resultSet.getInt(1) + " rows saved instead of " + mSaved);
+            }
+        } finally {
+            mConnection.close();
+            for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+                new File(mDatabaseFile.getPath() + suffix).delete();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveEach() {
+        for (Vocabulary vocabulary : mVocabularies) {
+            mDataSource.saveVocabulary(vocabulary);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveAll() {
+        mDataSource.saveVocabularies(mVocabularies);
+    }
+}
@@ -0,0 +1,151 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyChange;
+import com.code.englishnotes.data.model.VocabularyId;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A subscriber holding all {@link #rows} vocabularies kept up to date across single-row writes:
+ * by the live query of {@code getVocabularys()}, which maps the whole table again after every
+ * write, or by applying the {@link VocabularyChange} of the write. Both include the write itself.
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the allocation per write. The setup
+ * fails unless both ways end up holding the same vocabularies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ChangeStreamBenchmark {
+
+    private static final String COLUMNS = "entryid, title, description, type, pronounce, completed";
+
+    private static final String SQL_UPDATE_TITLE = "UPDATE vocabulary SET title = ? WHERE entryid = ?";
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private PreparedStatement mUpdateTitle;
+
+    private PreparedStatement mSelectAll;
+
+    private List<Vocabulary> mVocabularies;
+
+    private Map<VocabularyId, Vocabulary> mHeldVocabularies;
+
+    private int mWrites;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("changes", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+            statement.execute("WITH RECURSIVE row(i) AS (SELECT 0 UNION ALL " +
+                    "SELECT i + 1 FROM row WHERE i + 1 < " + rows + ") " +
+                    "INSERT INTO vocabulary (" + COLUMNS + ") " +
+                    "SELECT printf('word%06d', i), 'word ' || i, 'description of word ' || i, " +
+                    "'noun', '/w3:d/', 0 FROM row");
+        }
+        mUpdateTitle = mConnection.prepareStatement(SQL_UPDATE_TITLE);
+        mSelectAll = mConnection.prepareStatement("SELECT " + COLUMNS + " FROM vocabulary");
+        mVocabularies = selectAll();
+        mHeldVocabularies = new LinkedHashMap<>();
+        for (Vocabulary vocabulary : mVocabularies) {
+            mHeldVocabularies.put(vocabulary.getVocabularyId(), vocabulary);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            applyChange();
+        }
+        if (!new ArrayList<>(mHeldVocabularies.values()).equals(selectAll())) {
+            throw new IllegalStateException("The changes applied differ from the table");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        mUpdateTitle.close();
+        mSelectAll.close();
+        mConnection.close();
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(mDatabaseFile.getPath() + suffix).delete();
+        }
+    }
+
+    @Benchmark
+    public List<Vocabulary> liveQuery() throws SQLException {
+        write();
+        return selectAll();
+    }
+
+    @Benchmark
+    public Map<VocabularyId, Vocabulary> applyChange() throws SQLException {
+        VocabularyChange change = VocabularyChange.upsert(write());
+        Vocabulary vocabulary = change.getVocabulary();
+        mHeldVocabularies.put(vocabulary.getVocabularyId(), vocabulary);
+        return mHeldVocabularies;
+    }
+
+    /**
+     * Renames the next vocabulary, as an edit would.
+     *
+     * @return the vocabulary written
+     */
+    private Vocabulary write() throws SQLException {
+        Vocabulary vocabulary = mVocabularies.get(mWrites++ % mVocabularies.size());
+        Vocabulary renamed = new Vocabulary(vocabulary.getVocabularyId(), "edited " + vocabulary.getTitle(),
+                vocabulary.getDescription(), vocabulary.getType(), vocabulary.getPronounce(), vocabulary.isCompleted());
+        mUpdateTitle.setString(1, renamed.getTitle());
+        mUpdateTitle.setString(2, renamed.getId());
+        mUpdateTitle.executeUpdate();
+        return renamed;
+    }
+
+    private List<Vocabulary> selectAll() throws SQLException {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        try (ResultSet resultSet = mSelectAll.executeQuery()) {
+            while (resultSet.next()) {
+                vocabularies.add(new Vocabulary(resultSet.getString(1), resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getString(4), resultSet.getString(5),
+                        resultSet.getInt(6) == 1));
+            }
+        }
+        return vocabularies;
+    }
+}
@@ -0,0 +1,154 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a primary key read while another connection keeps committing bulk writes, for each
+ * {@link ConnectionProfile}. Runs on the same SQLite engine through JDBC since the Android
+ * framework is not available on the JVM.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConnectionProfileBenchmark {
+
+    private static final int ROW_COUNT = 10000;
+
+    private static final int WRITE_BATCH_SIZE = 2000;
+
+    @Param({"DEFAULT", "ROLLBACK_JOURNAL"})
+    public String profile;
+
+    @Param({"true", "false"})
+    public boolean bulkWrite;
+
+    private File mDatabaseFile;
+
+    private Connection mReader;
+
+    private PreparedStatement mRead;
+
+    private Thread mWriter;
+
+    private volatile boolean mWriting;
+
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        ConnectionProfile connectionProfile = "DEFAULT".equals(profile)
+                ? ConnectionProfile.DEFAULT : ConnectionProfile.ROLLBACK_JOURNAL;
+        mDatabaseFile = File.createTempFile("profile", ".db");
+
+        final Connection writer = open(connectionProfile);
+        try (Statement statement = writer.createStatement()) {
+            statement.execute("CREATE TABLE vocabulary (entryid TEXT PRIMARY KEY, title TEXT, " +
+                    "description TEXT, completed INTEGER)");
+        }
+        write(writer, 0);
+
+        mReader = open(connectionProfile);
+        try (Statement statement = mReader.createStatement()) {
+            // Wait for the writer instead of failing with SQLITE_BUSY, as Android does.
+            statement.execute("PRAGMA busy_timeout = 10000");
+        }
+        mRead = mReader.prepareStatement("SELECT title FROM vocabulary WHERE entryid = ?");
+
+        if (bulkWrite) {
+            mWriting = true;
+            mWriter = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int round = 1; mWriting; round++) {
+                            write(writer, round);
+                        }
+                        writer.close();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, "bulk-writer");
+            mWriter.start();
+        } else {
+            writer.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, SQLException {
+        mWriting = false;
+        if (mWriter != null) {
+            mWriter.join();
+        }
+        mRead.close();
+        mReader.close();
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(mDatabaseFile.getPath() + suffix).delete();
+        }
+    }
+
+    @Benchmark
+    public String readByEntryId() throws SQLException {
+        mRead.setString(1, "word" + mNext);
+        mNext = (mNext + 1) % ROW_COUNT;
+        try (ResultSet resultSet = mRead.executeQuery()) {
+            return resultSet.next() ? resultSet.getString(1) : null;
+        }
+    }
+
+    private Connection open(ConnectionProfile connectionProfile) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = " +
+                    (connectionProfile.isWriteAheadLogging() ? "WAL" : "DELETE"));
+            for (String pragma : connectionProfile.getPragmas()) {
+                statement.execute(pragma);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Rewrites a batch of rows in one transaction, the way a sync saves a remote page.
+     */
+    private static void write(Connection connection, int round) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT OR REPLACE INTO vocabulary VALUES (?, ?, ?, ?)")) {
+            int count = round == 0 ? ROW_COUNT : WRITE_BATCH_SIZE;
+            int first = round == 0 ? 0 : (round * WRITE_BATCH_SIZE) % ROW_COUNT;
+            for (int i = first; i < first + count; i++) {
+                statement.setString(1, "word" + i);
+                statement.setString(2, "word" + i + " " + round);
+                statement.setString(3, "description of word " + i);
+                statement.setInt(4, i % 3 == 0 ? 1 : 0);
+                statement.executeUpdate();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.code.englishnotes.benchmark;
+
+import android.database.Cursor;
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.utils.database.CursorMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.functions.Function;
+
+/**
+ * Mapping the {@link #rows} rows of a query on 4 threads at once, each thread running its own
+ * queries as the database read scheduler does, every run of a query with a new cursor. Compares a {@link CursorMapper} created for every
+ * query, the single mapper shared by every query whose one slot of column indices it replaced,
+ * and looking the indices up on every row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CursorMapperBenchmark {
+
+    private static final String[] COLUMNS = {"entryid", "title", "description", "type", "pronounce", "completed"};
+
+    @Param({"20", "500"})
+    public int rows;
+
+    private Object[][] mRows;
+
+    private SharedSlotMapper mSharedMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Vocabulary> vocabularies = Fixtures.vocabularies(rows);
+        mRows = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            Vocabulary vocabulary = vocabularies.get(i);
+            mRows[i] = new Object[]{vocabulary.getId(), vocabulary.getTitle(), vocabulary.getDescription(),
+                    vocabulary.getType(), vocabulary.getPronounce(), vocabulary.isCompleted() ? 1L : 0L};
+        }
+        mSharedMapper = new SharedSlotMapper();
+    }
+
+    @Benchmark
+    public List<Vocabulary> mapperPerQuery() {
+        return mapAll(new ArrayCursor(COLUMNS, mRows), new VocabularyMapper());
+    }
+
+    @Benchmark
+    public List<Vocabulary> sharedMapper() {
+        return mapAll(new ArrayCursor(COLUMNS, mRows), mSharedMapper);
+    }
+
+    @Benchmark
+    public List<Vocabulary> lookupPerRow() {
+        Cursor cursor = new ArrayCursor(COLUMNS, mRows);
+        List<Vocabulary> vocabularies = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            int[] columnIndices = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                columnIndices[i] = cursor.getColumnIndexOrThrow(COLUMNS[i]);
+            }
+            vocabularies.add(read(cursor, columnIndices));
+        }
+        return vocabularies;
+    }
+
+    private static List<Vocabulary> mapAll(Cursor cursor, Function<Cursor, Vocabulary> mapper) {
+        List<Vocabulary> vocabularies = new ArrayList<>(cursor.getCount());
+        try {
+            while (cursor.moveToNext()) {
+                vocabularies.add(mapper.apply(cursor));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return vocabularies;
+    }
+
+    private static Vocabulary read(Cursor cursor, int[] columnIndices) {
+        return new Vocabulary(cursor.getString(columnIndices[0]), cursor.getString(columnIndices[1]),
+                cursor.getString(columnIndices[2]), cursor.getString(columnIndices[3]),
+                cursor.getString(columnIndices[4]), cursor.getInt(columnIndices[5]) == 1);
+    }
+
+    private static final class VocabularyMapper extends CursorMapper<Vocabulary> {
+
+        VocabularyMapper() {
+            super(COLUMNS);
+        }
+
+        @NonNull
+        @Override
+        protected Vocabulary map(@NonNull Cursor cursor, @NonNull int[] columnIndices) {
+            return read(cursor, columnIndices);
+        }
+    }
+
+    /**
+     * The shared design {@link CursorMapper} replaced: one volatile slot of column indices for
+     * every query, resolved again whenever another cursor used it last.
+     */
+    private static final class SharedSlotMapper implements Function<Cursor, Vocabulary> {
+
+        private volatile ColumnIndices mColumnIndices;
+
+        @Override
+        public Vocabulary apply(Cursor cursor) {
+            ColumnIndices columnIndices = mColumnIndices;
+            if (columnIndices == null || columnIndices.mCursor.get() != cursor) {
+                columnIndices = new ColumnIndices(cursor);
+                mColumnIndices = columnIndices;
+            }
+            return read(cursor, columnIndices.mIndices);
+        }
+    }
+
+    private static final class ColumnIndices {
+
+        final WeakReference<Cursor> mCursor;
+
+        final int[] mIndices;
+
+        ColumnIndices(Cursor cursor) {
+            mCursor = new WeakReference<>(cursor);
+            mIndices = new int[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                mIndices[i] = cursor.getColumnIndexOrThrow(COLUMNS[i]);
+            }
+        }
+    }
+}
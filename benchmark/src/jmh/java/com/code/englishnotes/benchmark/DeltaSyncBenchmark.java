@@ -0,0 +1,119 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.source.FakeSyncTokenStore;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+import com.code.englishnotes.data.source.FakeVocabularyOutbox;
+import com.code.englishnotes.data.source.OutboxMetrics;
+import com.code.englishnotes.data.source.VocabularyOutboxFlusher;
+import com.code.englishnotes.data.source.VocabularyRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A refresh of {@link VocabularyRepository} against an in-process remote after {@link #changes}
+ * remote rows were updated and one was deleted. Every refresh checks that exactly those rows were
+ * written and deleted locally, and fails the run otherwise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class DeltaSyncBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    @Param({"1", "100"})
+    public int changes;
+
+    private List<Vocabulary> mVocabularies;
+
+    private FakeVocabularyDataSource mRemote;
+
+    private FakeVocabularyDataSource mLocal;
+
+    private VocabularyRepository mRepository;
+
+    private int mNext;
+
+    private int mDeleted = -1;
+
+    private int mExpectedRowsWritten;
+
+    private int mRound;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mVocabularies = Fixtures.vocabularies(size);
+        mRemote = new FakeVocabularyDataSource();
+        mRemote.saveVocabularies(mVocabularies);
+        mLocal = new FakeVocabularyDataSource();
+        VocabularyRepository.destroyInstance();
+        mRepository = VocabularyRepository.getInstance(mRemote, mLocal,
+                new VocabularyOutboxFlusher(mRemote, new FakeVocabularyOutbox(), Schedulers.trampoline(),
+                        OutboxMetrics.NONE),
+                new FakeSyncTokenStore(), Schedulers.trampoline(), Long.MAX_VALUE);
+
+        // The first refresh has no sync token yet and transfers every row.
+        mRepository.refreshVocabularys();
+        mRepository.getVocabularys().blockingFirst();
+        check(size, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        VocabularyRepository.destroyInstance();
+    }
+
+    @Setup(Level.Invocation)
+    public void changeRemote() {
+        mLocal.resetCounters();
+        mExpectedRowsWritten = changes;
+        mRound++;
+        if (mDeleted >= 0) {
+            mRemote.saveVocabulary(mVocabularies.get(mDeleted));
+            mExpectedRowsWritten++;
+        }
+        for (int i = 0; i < changes; i++) {
+            Vocabulary vocabulary = mVocabularies.get(mNext);
+            mRemote.saveVocabulary(new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(),
+                    "revision " + mRound, vocabulary.getType(), vocabulary.getPronounce(),
+                    vocabulary.isCompleted()));
+            mNext = (mNext + 1) % size;
+        }
+        mDeleted = mNext;
+        mRemote.deleteVocabulary(mVocabularies.get(mDeleted).getId());
+        mNext = (mNext + 1) % size;
+    }
+
+    @Benchmark
+    public List<Vocabulary> refresh() {
+        mRepository.refreshVocabularys();
+        List<Vocabulary> vocabularies = mRepository.getVocabularys().blockingFirst();
+        check(mExpectedRowsWritten, 1);
+        return vocabularies;
+    }
+
+    private void check(int expectedRowsWritten, int expectedRowsDeleted) {
+        if (mLocal.getRowsWritten() != expectedRowsWritten
+                || mLocal.getRowsDeleted() != expectedRowsDeleted) {
+            throw new IllegalStateException("Refresh wrote " + mLocal.getRowsWritten() +
+                    " and deleted " + mLocal.getRowsDeleted() + " rows, expected " +
+                    expectedRowsWritten + " and " + expectedRowsDeleted);
+        }
+    }
+}
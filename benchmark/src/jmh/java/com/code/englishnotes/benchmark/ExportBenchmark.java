@@ -0,0 +1,330 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.model.Ids;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.source.local.VocabularySnapshotReader;
+import com.code.englishnotes.data.source.local.VocabularySnapshotWriter;
+import com.code.englishnotes.utils.csv.DelimitedReader;
+import com.code.englishnotes.utils.csv.DelimitedWriter;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting {@link #rows} vocabularies from the shared database schema: loading them into a list
+ * first, as going through {@code getVocabularys()} does, or streaming them from the result set
+ * as CSV or as a binary snapshot. Output is counted and discarded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+
+    private static final String[] TYPES = {"noun", "verb", "adjective", "adverb"};
+
+    private static final String COLUMNS =
+            "entryid, title, description, type, pronounce, completed, updated_at";
+
+    // Keeps the review schedule of the rows being replaced.
+    private static final String SQL_COPY_STAGING = "INSERT OR REPLACE INTO vocabulary (" + COLUMNS +
+            ", review_ease, review_interval, review_repetitions, review_due_at) SELECT s.*," +
+            " IFNULL(v.review_ease, 2500), IFNULL(v.review_interval, 0)," +
+            " IFNULL(v.review_repetitions, 0), IFNULL(v.review_due_at, 0)" +
+            " FROM vocabulary_staging s LEFT JOIN vocabulary v ON v.entryid = s.entryid";
+
+    private static final String SELECT_ALL =
+            "SELECT entryid, title, description, type, pronounce, completed FROM vocabulary";
+
+    @Param({"100000"})
+    public int rows;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("export", ".db");
+        mConnection = openDatabase(mDatabaseFile);
+        mConnection.setAutoCommit(false);
+        try (PreparedStatement insert = mConnection.prepareStatement(
+                "INSERT INTO vocabulary (" + COLUMNS + ") VALUES (?,?,?,?,?,?,?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, Ids.nextId().toString());
+                insert.setString(2, "word" + i);
+                insert.setString(3, i % 10 == 0 ? "description, quoted, of word " + i : "description of word " + i);
+                insert.setString(4, TYPES[i % TYPES.length]);
+                insert.setString(5, "/w3:d/");
+                insert.setBoolean(6, i % 3 == 0);
+                insert.setLong(7, 0);
+                insert.executeUpdate();
+            }
+        }
+        mConnection.commit();
+        mConnection.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        mConnection.close();
+        deleteDatabase(mDatabaseFile);
+    }
+
+    @Benchmark
+    public long exportCsvFromList() throws IOException, SQLException {
+        List<Vocabulary> vocabularies = new ArrayList<>();
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL)) {
+            while (resultSet.next()) {
+                vocabularies.add(new Vocabulary(resultSet.getString(1), resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getString(4), resultSet.getString(5),
+                        resultSet.getInt(6) == 1));
+            }
+        }
+        CountingOutputStream output = new CountingOutputStream(ByteStreams.nullOutputStream());
+        DelimitedWriter writer = newCsvWriter(output);
+        for (Vocabulary vocabulary : vocabularies) {
+            writer.writeField(vocabulary.getTitle());
+            writer.writeField(vocabulary.getDescription());
+            writer.writeField(vocabulary.getType());
+            writer.writeField(vocabulary.getPronounce());
+            writer.endRecord();
+        }
+        writer.flush();
+        return checkRows(vocabularies.size(), output);
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException, SQLException {
+        CountingOutputStream output = new CountingOutputStream(ByteStreams.nullOutputStream());
+        DelimitedWriter writer = newCsvWriter(output);
+        int count = 0;
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT title, description, type, pronounce FROM vocabulary")) {
+            while (resultSet.next()) {
+                for (int i = 1; i <= 4; i++) {
+                    writer.writeField(resultSet.getString(i));
+                }
+                writer.endRecord();
+                count++;
+            }
+        }
+        writer.flush();
+        return checkRows(count, output);
+    }
+
+    @Benchmark
+    public long exportSnapshot() throws IOException, SQLException {
+        CountingOutputStream output = new CountingOutputStream(ByteStreams.nullOutputStream());
+        writeSnapshot(mConnection, output);
+        return output.getCount();
+    }
+
+    private long checkRows(int count, CountingOutputStream output) {
+        if (count != rows) {
+            throw new IllegalStateException(count + " rows exported instead of " + rows);
+        }
+        return output.getCount();
+    }
+
+    private static DelimitedWriter newCsvWriter(CountingOutputStream output) throws IOException {
+        DelimitedWriter writer = new DelimitedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8), DelimitedReader.COMMA);
+        writer.writeField("title");
+        writer.writeField("description");
+        writer.writeField("type");
+        writer.writeField("pronunciation");
+        writer.endRecord();
+        return writer;
+    }
+
+    private static long writeSnapshot(Connection connection, OutputStream output)
+            throws IOException, SQLException {
+        VocabularySnapshotWriter writer = new VocabularySnapshotWriter(output);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SELECT_ALL)) {
+            while (resultSet.next()) {
+                writer.writeRow(resultSet.getString(1), resultSet.getString(2), resultSet.getString(3),
+                        resultSet.getString(4), resultSet.getString(5), resultSet.getInt(6) == 1);
+            }
+        }
+        writer.finish();
+        return writer.getRowCount();
+    }
+
+    private static Connection openDatabase(File file) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+        }
+        return connection;
+    }
+
+    private static void deleteDatabase(File file) {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+
+    /**
+     * Restoring a snapshot of {@link #rows} vocabularies into an empty database, staged and
+     * copied 1000 rows at a time as the local data source does: bound straight from the
+     * snapshot reader, or decoded into a list of vocabularies first. The run fails unless every
+     * row is restored.
+     */
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @State(Scope.Benchmark)
+    public static class Restore {
+
+        private static final int ROWS_PER_COPY = 1000;
+
+        @Param({"100000"})
+        public int rows;
+
+        private byte[] mSnapshot;
+
+        private File mDatabaseFile;
+
+        private Connection mConnection;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, SQLException {
+            ExportBenchmark export = new ExportBenchmark();
+            export.rows = rows;
+            export.setUp();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            writeSnapshot(export.mConnection, output);
+            export.tearDown();
+            mSnapshot = output.toByteArray();
+        }
+
+        @Setup(Level.Invocation)
+        public void createDatabase() throws IOException, SQLException {
+            mDatabaseFile = File.createTempFile("restore", ".db");
+            mConnection = openDatabase(mDatabaseFile);
+            try (Statement statement = mConnection.createStatement()) {
+                statement.execute("CREATE TEMP TABLE vocabulary_staging (" + COLUMNS + ")");
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void checkDatabase() throws SQLException {
+            try (Statement statement = mConnection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM vocabulary")) {
+                resultSet.next();
+                if (resultSet.getInt(1) != rows) {
+                    throw new IllegalStateException(resultSet.getInt(1) + " rows restored instead of " + rows);
+                }
+            } finally {
+                mConnection.close();
+                deleteDatabase(mDatabaseFile);
+            }
+        }
+
+        @Benchmark
+        public long restoreSnapshot() throws IOException, SQLException {
+            VocabularySnapshotReader reader = new VocabularySnapshotReader(new ByteArrayInputStream(mSnapshot));
+            mConnection.setAutoCommit(false);
+            try (PreparedStatement insert = prepareStagingInsert()) {
+                while (reader.next()) {
+                    bind(insert, reader.getId(), reader.getTitle(), reader.getDescription(),
+                            reader.getType(), reader.getPronounce(), reader.isCompleted());
+                    if (reader.getRowCount() % ROWS_PER_COPY == 0) {
+                        copyStaging();
+                    }
+                }
+            }
+            copyStaging();
+            mConnection.commit();
+            return reader.getRowCount();
+        }
+
+        @Benchmark
+        public long restoreSnapshotFromList() throws IOException, SQLException {
+            VocabularySnapshotReader reader = new VocabularySnapshotReader(new ByteArrayInputStream(mSnapshot));
+            List<Vocabulary> vocabularies = new ArrayList<>();
+            while (reader.next()) {
+                vocabularies.add(reader.toVocabulary());
+            }
+            mConnection.setAutoCommit(false);
+            try (PreparedStatement insert = prepareStagingInsert()) {
+                int count = 0;
+                for (Vocabulary vocabulary : vocabularies) {
+                    bind(insert, vocabulary.getId(), vocabulary.getTitle(), vocabulary.getDescription(),
+                            vocabulary.getType(), vocabulary.getPronounce(), vocabulary.isCompleted());
+                    if (++count % ROWS_PER_COPY == 0) {
+                        copyStaging();
+                    }
+                }
+            }
+            copyStaging();
+            mConnection.commit();
+            return vocabularies.size();
+        }
+
+        private PreparedStatement prepareStagingInsert() throws SQLException {
+            return mConnection.prepareStatement(
+                    "INSERT INTO vocabulary_staging (" + COLUMNS + ") VALUES (?,?,?,?,?,?,?)");
+        }
+
+        private static void bind(PreparedStatement insert, String id, String title, String description,
+                                 String type, String pronounce, boolean completed) throws SQLException {
+            insert.setString(1, id);
+            insert.setString(2, title);
+            insert.setString(3, description);
+            insert.setString(4, type);
+            insert.setString(5, pronounce);
+            insert.setBoolean(6, completed);
+            insert.setLong(7, 0);
+            insert.executeUpdate();
+        }
+
+        private void copyStaging() throws SQLException {
+            try (Statement statement = mConnection.createStatement()) {
+                statement.execute(SQL_COPY_STAGING);
+                statement.execute("DELETE FROM vocabulary_staging");
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.code.englishnotes.benchmark;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.data.Task;
+import com.code.englishnotes.data.data.source.TasksDataSource;
+import com.google.common.base.Optional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.Flowable;
+
+/**
+ * In-memory {@link TasksDataSource} without any latency, so benchmarks only measure the code
+ * sitting on top of it.
+ */
+final class FakeTasksDataSource implements TasksDataSource {
+
+    private final Map<String, Task> mTasks = new LinkedHashMap<>();
+
+    @Override
+    public Flowable<List<Task>> getTasks() {
+        return Flowable.fromCallable(() -> new ArrayList<>(mTasks.values()));
+    }
+
+    @Override
+    public Flowable<Optional<Task>> getTask(@NonNull String taskId) {
+        return Flowable.just(Optional.fromNullable(mTasks.get(taskId)));
+    }
+
+    @Override
+    public void saveTask(@NonNull Task task) {
+        mTasks.put(task.getId(), task);
+    }
+
+    @Override
+    public void completeTask(@NonNull Task task) {
+        completeTask(task.getId());
+    }
+
+    @Override
+    public void completeTask(@NonNull String taskId) {
+        Task task = mTasks.get(taskId);
+        if (task != null) {
+            mTasks.put(taskId, new Task(task.getTitle(), task.getDescription(), taskId, true));
+        }
+    }
+
+    @Override
+    public void activateTask(@NonNull Task task) {
+        activateTask(task.getId());
+    }
+
+    @Override
+    public void activateTask(@NonNull String taskId) {
+        Task task = mTasks.get(taskId);
+        if (task != null) {
+            mTasks.put(taskId, new Task(task.getTitle(), task.getDescription(), taskId));
+        }
+    }
+
+    @Override
+    public void clearCompletedTasks() {
+        Iterator<Task> it = mTasks.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isCompleted()) {
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public void refreshTasks() {
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        mTasks.clear();
+    }
+
+    @Override
+    public void deleteTask(@NonNull String taskId) {
+        mTasks.remove(taskId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.data.Task;
+import com.code.englishnotes.data.model.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    private static final String[] TYPES = {"noun", "verb", "adjective", "adverb"};
+
+    private Fixtures() {
+    }
+
+    static List<Vocabulary> vocabularies(int count) {
+        List<Vocabulary> vocabularies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vocabularies.add(new Vocabulary("word" + i, "word" + i, "description of word " + i,
+                    TYPES[i % TYPES.length], "/w3:d/", i % 3 == 0));
+        }
+        return vocabularies;
+    }
+
+    static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("task" + i, "description of task " + i, "task" + i, i % 3 == 0));
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,115 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.data.Task;
+import com.code.englishnotes.data.model.IdGenerator;
+import com.code.englishnotes.data.model.Ids;
+import com.code.englishnotes.data.model.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk creation of {@link #count} new models, as an import does, with ids from
+ * {@link UUID#randomUUID()} or from the default time ordered generator, and the insertion of
+ * existing vocabularies into a {@link HashMap}. Setting up the time ordered generator fails
+ * unless its ids increase strictly in their string form.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class IdGenerationBenchmark {
+
+    private static final IdGenerator RANDOM_UUID = new IdGenerator() {
+        @Override
+        public UUID nextId() {
+            return UUID.randomUUID();
+        }
+    };
+
+    @Param({"10000"})
+    public int count;
+
+    @Param({"randomUuid", "timeOrdered"})
+    public String generator;
+
+    private List<Vocabulary> mVocabularies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (generator.equals("randomUuid")) {
+            Ids.setGenerator(RANDOM_UUID);
+        } else {
+            Ids.setGenerator(null);
+            checkOrdered();
+        }
+        mVocabularies = newVocabularies();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Ids.setGenerator(null);
+    }
+
+    @Benchmark
+    public List<Vocabulary> newVocabularies() {
+        List<Vocabulary> vocabularies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vocabularies.add(new Vocabulary("word" + i, "description of word " + i));
+        }
+        return vocabularies;
+    }
+
+    @Benchmark
+    public List<Task> newTasks() {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("task" + i, "description of task " + i));
+        }
+        return tasks;
+    }
+
+    /**
+     * Inserts the vocabularies twice, the second time replacing every entry, so each
+     * vocabulary is hashed twice.
+     */
+    @Benchmark
+    public Map<Vocabulary, Boolean> hashMapInsert() {
+        Map<Vocabulary, Boolean> map = new HashMap<>();
+        for (Vocabulary vocabulary : mVocabularies) {
+            map.put(vocabulary, Boolean.FALSE);
+        }
+        for (Vocabulary vocabulary : mVocabularies) {
+            map.put(vocabulary, Boolean.TRUE);
+        }
+        if (map.size() != count) {
+            throw new IllegalStateException(map.size() + " distinct vocabularies instead of " + count);
+        }
+        return map;
+    }
+
+    private void checkOrdered() {
+        String previous = "";
+        for (int i = 0; i < 100_000; i++) {
+            String id = Ids.nextId().toString();
+            if (id.compareTo(previous) <= 0) {
+                throw new IllegalStateException(id + " generated after " + previous);
+            }
+            previous = id;
+        }
+    }
+}
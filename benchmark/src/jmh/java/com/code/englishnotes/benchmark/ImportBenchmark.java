@@ -0,0 +1,206 @@
+package com.code.englishnotes.benchmark;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.source.FakeSyncTokenStore;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+import com.code.englishnotes.data.source.FakeVocabularyOutbox;
+import com.code.englishnotes.data.source.OutboxMetrics;
+import com.code.englishnotes.data.source.VocabularyImporter;
+import com.code.englishnotes.data.source.VocabularyOutboxFlusher;
+import com.code.englishnotes.data.source.VocabularyRepository;
+import com.code.englishnotes.utils.csv.DelimitedReader;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+import com.code.englishnotes.utils.schedulers.BaseSchedulerProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Importing a CSV word list of {@link #rows} words from a file into the shared database schema,
+ * in a JVM limited to a 256 MB heap. Every tenth description is quoted and holds a delimiter, and
+ * every hundredth record has no title nor description. The run fails unless every other record
+ * ends up in the table.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+
+    private static final String[] TYPES = {"noun", "verb", "adjective", "adverb"};
+
+    @Param({"200000"})
+    public int rows;
+
+    private File mWordList;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private ExecutorService mWriterExecutor;
+
+    private VocabularyImporter mImporter;
+
+    private int mExpectedCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mWordList = File.createTempFile("words", ".csv");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(mWordList), StandardCharsets.UTF_8))) {
+            writer.write("title,description,type,pronunciation\n");
+            for (int i = 0; i < rows; i++) {
+                if (i % 100 == 99) {
+                    writer.write(",,noun,\n");
+                    continue;
+                }
+                mExpectedCount++;
+                String description = i % 10 == 0
+                        ? "\"description, quoted, of word " + i + "\""
+                        : "description of word " + i;
+                writer.write("word" + i + "," + description + "," + TYPES[i % TYPES.length] + ",/w3:d/\n");
+            }
+        }
+        mWriterExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @Setup(Level.Iteration)
+    public void createDatabase() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("import", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+        }
+        SqliteVocabularyDataSource local = new SqliteVocabularyDataSource(mConnection);
+        FakeVocabularyDataSource remote = new FakeVocabularyDataSource();
+        VocabularyRepository.destroyInstance();
+        VocabularyRepository repository = VocabularyRepository.getInstance(remote, local,
+                new VocabularyOutboxFlusher(remote, new FakeVocabularyOutbox(), Schedulers.trampoline(),
+                        OutboxMetrics.NONE),
+                new FakeSyncTokenStore(), Schedulers.trampoline());
+        mImporter = new VocabularyImporter(local, repository,
+                new ImportSchedulerProvider(Schedulers.from(mWriterExecutor)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkDatabase() throws SQLException {
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM vocabulary")) {
+            resultSet.next();
+            if (resultSet.getInt(1) != mExpectedCount) {
+                throw new IllegalStateException(resultSet.getInt(1) + " rows imported instead of " + mExpectedCount);
+            }
+        } finally {
+            mConnection.close();
+            for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+                new File(mDatabaseFile.getPath() + suffix).delete();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mWriterExecutor.shutdown();
+        mWordList.delete();
+    }
+
+    @Benchmark
+    public VocabularyImporter.Progress importCsv() {
+        VocabularyImporter.Progress progress = mImporter.importVocabularies(() -> new InputStreamReader(
+                new FileInputStream(mWordList), StandardCharsets.UTF_8), DelimitedReader.COMMA)
+                .blockingLast();
+        if (progress.getImportedCount() != mExpectedCount || progress.getSkippedCount() != rows - mExpectedCount) {
+            throw new IllegalStateException(progress + ", expected " + mExpectedCount + " imported");
+        }
+        return progress;
+    }
+
+    private static final class ImportSchedulerProvider implements BaseSchedulerProvider {
+
+        @NonNull
+        private final Scheduler mWriter;
+
+        ImportSchedulerProvider(@NonNull Scheduler writer) {
+            mWriter = writer;
+        }
+
+        @NonNull
+        @Override
+        public Scheduler computation() {
+            return Schedulers.computation();
+        }
+
+        @NonNull
+        @Override
+        public Scheduler io() {
+            return Schedulers.io();
+        }
+
+        @NonNull
+        @Override
+        public Scheduler ui() {
+            return Schedulers.trampoline();
+        }
+
+        @NonNull
+        @Override
+        public Scheduler databaseRead() {
+            return Schedulers.io();
+        }
+
+        @NonNull
+        @Override
+        public Scheduler databaseWrite() {
+            return mWriter;
+        }
+
+        @NonNull
+        @Override
+        public Scheduler background() {
+            return Schedulers.io();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.utils.database.Migration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upgrades a fixture of the shared database from each historical version to the current one
+ * through JDBC, the way {@code ProfiledOpenHelperCallback} does on a device, and checks that the
+ * result matches a database created from scratch. A mismatch fails the run.
+ * <p>
+ * Fixtures are built at version 1, filled with {@link #rows} rows per table and then brought to
+ * {@link #fromVersion} with the app's own migrations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class MigrationBenchmark {
+
+    private static final String INSERT_VOCABULARY_ROW =
+            "INSERT INTO vocabulary (entryid, title, description, type, pronounce, completed) " +
+                    "SELECT 'word' || i, 'word ' || i, " +
+                    "'description of word ' || i, 'noun', '/w3:d/', i % 3 = 0 FROM row";
+
+    private static final String INSERT_TASK_ROW =
+            "INSERT INTO tasks SELECT 'task' || i, 'task ' || i, " +
+                    "'description of task ' || i, i % 3 = 0 FROM row";
+
+    private static final String[] TABLES = {"vocabulary", "vocabulary_fts", "tasks"};
+
+    @Param({"1", "2", "3"})
+    public int fromVersion;
+
+    @Param({"100000"})
+    public int rows;
+
+    private Set<String> mExpectedSchema;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    @Setup(Level.Trial)
+    public void setUpSchema() throws IOException, SQLException {
+        File file = File.createTempFile("expected", ".db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file)) {
+            execute(connection, EnglishNotesSchema.CREATE);
+            mExpectedSchema = readSchema(connection);
+        } finally {
+            delete(file);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpFixture() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("fixture", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            for (String sql : EnglishNotesSchema.CREATE_VERSION_1) {
+                statement.execute(sql);
+            }
+            for (String insert : new String[]{INSERT_VOCABULARY_ROW, INSERT_TASK_ROW}) {
+                statement.execute("WITH RECURSIVE row(i) AS (SELECT 0 UNION ALL " +
+                        "SELECT i + 1 FROM row WHERE i + 1 < " + rows + ") " + insert);
+            }
+            statement.execute("PRAGMA user_version = 1");
+        }
+        migrate(mConnection, 1, fromVersion);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownFixture() throws SQLException {
+        mConnection.close();
+        delete(mDatabaseFile);
+    }
+
+    @Benchmark
+    public int upgrade() throws SQLException {
+        migrate(mConnection, fromVersion, EnglishNotesSchema.VERSION);
+
+        Set<String> schema = readSchema(mConnection);
+        if (!schema.equals(mExpectedSchema)) {
+            throw new IllegalStateException("Upgrading from " + fromVersion + " gave " + schema +
+                    " instead of " + mExpectedSchema);
+        }
+        for (String table : TABLES) {
+            int count = count(mConnection, table);
+            if (count != rows) {
+                throw new IllegalStateException("Upgrading from " + fromVersion + " left " + count +
+                        " rows in " + table + " instead of " + rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Same steps and transactions as {@code ProfiledOpenHelperCallback#migrate}, followed by the
+     * version bump {@code SQLiteOpenHelper} does.
+     */
+    private static void migrate(Connection connection, int oldVersion, int newVersion)
+            throws SQLException {
+        for (Migration migration : EnglishNotesSchema.MIGRATIONS.findPath(oldVersion, newVersion)) {
+            connection.setAutoCommit(false);
+            try {
+                execute(connection, migration.getStatements());
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA user_version = " + newVersion);
+        }
+    }
+
+    private static void execute(Connection connection, List<String> statements)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private static Set<String> readSchema(Connection connection) throws SQLException {
+        Set<String> schema = new TreeSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT type, name FROM sqlite_master WHERE name NOT LIKE 'sqlite_%'")) {
+            while (resultSet.next()) {
+                schema.add(resultSet.getString(1) + " " + resultSet.getString(2));
+            }
+        }
+        return schema;
+    }
+
+    private static int count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void delete(File file) {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+}
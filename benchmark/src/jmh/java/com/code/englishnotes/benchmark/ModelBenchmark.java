@@ -0,0 +1,77 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.data.Task;
+import com.code.englishnotes.data.model.Vocabulary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction, {@code equals} and {@code hashCode} of the immutable models.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ModelBenchmark {
+
+    private Vocabulary mVocabulary;
+
+    private Vocabulary mVocabularyCopy;
+
+    private Task mTask;
+
+    private Task mTaskCopy;
+
+    @Setup
+    public void setUp() {
+        mVocabulary = Fixtures.vocabularies(1).get(0);
+        mVocabularyCopy = new Vocabulary(new String(mVocabulary.getId()), mVocabulary.getTitle(),
+                mVocabulary.getDescription(), mVocabulary.getType(), mVocabulary.getPronounce(),
+                mVocabulary.isCompleted());
+        mTask = Fixtures.tasks(1).get(0);
+        mTaskCopy = new Task(mTask.getTitle(), mTask.getDescription(), new String(mTask.getId()),
+                mTask.isCompleted());
+    }
+
+    @Benchmark
+    public Vocabulary newVocabulary() {
+        return new Vocabulary("title", "description");
+    }
+
+    @Benchmark
+    public Vocabulary newVocabularyWithId() {
+        return new Vocabulary("id", "title", "description", "noun", "pronounce", false);
+    }
+
+    @Benchmark
+    public Task newTask() {
+        return new Task("title", "description");
+    }
+
+    @Benchmark
+    public boolean vocabularyEquals() {
+        return mVocabulary.equals(mVocabularyCopy);
+    }
+
+    @Benchmark
+    public int vocabularyHashCode() {
+        return mVocabulary.hashCode();
+    }
+
+    @Benchmark
+    public boolean taskEquals() {
+        return mTask.equals(mTaskCopy);
+    }
+
+    @Benchmark
+    public int taskHashCode() {
+        return mTask.hashCode();
+    }
+}
@@ -0,0 +1,193 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyMutation;
+import com.code.englishnotes.data.source.FakeSyncTokenStore;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+import com.code.englishnotes.data.source.FakeVocabularyOutbox;
+import com.code.englishnotes.data.source.OutboxMetrics;
+import com.code.englishnotes.data.source.VocabularyOutboxFlusher;
+import com.code.englishnotes.data.source.VocabularyRepository;
+import com.google.common.base.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * What a user action pays for a save when the remote takes {@link #remoteLatencyMillis} per
+ * write: sent synchronously before the local write, as the repository used to, or only enqueued
+ * in the outbox and sent by a background flusher. Each iteration is a burst of
+ * {@link #SAVES_PER_ITERATION} saves over {@link #ID_COUNT} ids; the outbox is drained after it
+ * and the run fails unless the remote ends up with the last saved version of every id.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = OutboxBenchmark.SAVES_PER_ITERATION)
+@Measurement(iterations = 5, batchSize = OutboxBenchmark.SAVES_PER_ITERATION)
+@State(Scope.Benchmark)
+public class OutboxBenchmark {
+
+    static final int SAVES_PER_ITERATION = 200;
+
+    private static final int ID_COUNT = 20;
+
+    @Param({"1"})
+    public long remoteLatencyMillis;
+
+    private List<Vocabulary> mVocabularies;
+
+    private FakeVocabularyDataSource mRemote;
+
+    private FakeVocabularyDataSource mLocal;
+
+    private ExecutorService mFlusherExecutor;
+
+    private VocabularyOutboxFlusher mOutboxFlusher;
+
+    private VocabularyRepository mRepository;
+
+    private final Map<String, Vocabulary> mLastSaved = new HashMap<>();
+
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mVocabularies = Fixtures.vocabularies(ID_COUNT);
+        mRemote = new FakeVocabularyDataSource();
+        mRemote.setWriteLatencyMillis(remoteLatencyMillis);
+        mLocal = new FakeVocabularyDataSource();
+        mFlusherExecutor = Executors.newSingleThreadExecutor();
+        mOutboxFlusher = new VocabularyOutboxFlusher(mRemote, new FakeVocabularyOutbox(),
+                Schedulers.from(mFlusherExecutor), OutboxMetrics.NONE);
+        VocabularyRepository.destroyInstance();
+        mRepository = VocabularyRepository.getInstance(mRemote, mLocal, mOutboxFlusher,
+                new FakeSyncTokenStore(), Schedulers.trampoline(), Long.MAX_VALUE);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkRemote() {
+        mOutboxFlusher.flush().blockingAwait();
+        if (mOutboxFlusher.getQueueDepth() != 0) {
+            throw new IllegalStateException(mOutboxFlusher.getQueueDepth() + " mutations left in the outbox");
+        }
+        for (Vocabulary expected : mLastSaved.values()) {
+            Optional<Vocabulary> actual = mRemote.getVocabulary(expected.getId()).blockingFirst();
+            if (!actual.isPresent() || !actual.get().equals(expected)) {
+                throw new IllegalStateException("Remote holds " + actual + " instead of " + expected);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        VocabularyRepository.destroyInstance();
+        mFlusherExecutor.shutdown();
+    }
+
+    @Benchmark
+    public void saveWriteThrough() {
+        Vocabulary vocabulary = nextVersion();
+        mRemote.saveVocabulary(vocabulary);
+        mLocal.saveVocabulary(vocabulary);
+    }
+
+    @Benchmark
+    public void saveThroughOutbox() {
+        mRepository.saveVocabulary(nextVersion());
+    }
+
+    private Vocabulary nextVersion() {
+        Vocabulary vocabulary = mVocabularies.get(mNext % ID_COUNT);
+        Vocabulary version = new Vocabulary(vocabulary.getVocabularyId(), vocabulary.getTitle(),
+                "revision " + mNext, vocabulary.getType(), vocabulary.getPronounce(), vocabulary.isCompleted());
+        mNext++;
+        mLastSaved.put(version.getId(), version);
+        return version;
+    }
+
+    /**
+     * Draining an outbox holding {@link #mutations} saves over {@link #ids} ids. Only the last
+     * save of each id in a batch reaches the remote, which the run checks.
+     */
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @State(Scope.Benchmark)
+    public static class Flush {
+
+        @Param({"1000"})
+        public int mutations;
+
+        @Param({"1", "100", "1000"})
+        public int ids;
+
+        private List<VocabularyMutation> mMutations;
+
+        private int mExpectedRowsWritten;
+
+        private FakeVocabularyDataSource mRemote;
+
+        private FakeVocabularyOutbox mOutbox;
+
+        private VocabularyOutboxFlusher mOutboxFlusher;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<Vocabulary> vocabularies = Fixtures.vocabularies(ids);
+            mMutations = new ArrayList<>(mutations);
+            for (int i = 0; i < mutations; i++) {
+                mMutations.add(VocabularyMutation.save(vocabularies.get(i % ids)));
+            }
+            for (int start = 0; start < mutations; start += VocabularyOutboxFlusher.DEFAULT_BATCH_SIZE) {
+                Set<String> batchIds = new HashSet<>();
+                int end = Math.min(mutations, start + VocabularyOutboxFlusher.DEFAULT_BATCH_SIZE);
+                for (VocabularyMutation mutation : mMutations.subList(start, end)) {
+                    batchIds.add(mutation.getVocabularyId());
+                }
+                mExpectedRowsWritten += batchIds.size();
+            }
+            mRemote = new FakeVocabularyDataSource();
+            mOutbox = new FakeVocabularyOutbox();
+            mOutboxFlusher = new VocabularyOutboxFlusher(mRemote, mOutbox, Schedulers.trampoline(),
+                    OutboxMetrics.NONE);
+        }
+
+        @Setup(Level.Invocation)
+        public void fillOutbox() {
+            mRemote.resetCounters();
+            mOutbox.enqueue(mMutations);
+        }
+
+        @Benchmark
+        public int flush() {
+            mOutboxFlusher.flush().blockingAwait();
+            if (mOutbox.size() != 0 || mRemote.getRowsWritten() != mExpectedRowsWritten) {
+                throw new IllegalStateException("Flush wrote " + mRemote.getRowsWritten() +
+                        " rows and left " + mOutbox.size() + " mutations, expected " +
+                        mExpectedRowsWritten + " rows");
+            }
+            return mRemote.getRowsWritten();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.source.local.VocabularyPersistenceContract;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up one vocabulary by id among {@link #rows}, with the equality predicate of the local
+ * data source, which reads the primary key index, or with the {@code LIKE} predicate it used to
+ * have, which scans the table. The first should stay close to flat as the table grows ten times,
+ * the second should grow with it. The setup fails unless the query plans are the expected ones,
+ * including the one of {@code clearCompletedVocabularys} reading the index on {@code completed}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PointLookupBenchmark {
+
+    private static final String COLUMNS = "entryid, title, description, type, pronounce, completed";
+
+    private static final String SQL_BY_ID = "SELECT " + COLUMNS + " FROM vocabulary WHERE entryid = ?";
+
+    private static final String SQL_BY_ID_LIKE = "SELECT " + COLUMNS + " FROM vocabulary WHERE entryid LIKE ?";
+
+    private static final String SQL_CLEAR_COMPLETED = "DELETE FROM vocabulary WHERE completed = ?";
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private PreparedStatement mById;
+
+    private PreparedStatement mByIdLike;
+
+    private final Random mRandom = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("lookup", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+            statement.execute("WITH RECURSIVE row(i) AS (SELECT 0 UNION ALL " +
+                    "SELECT i + 1 FROM row WHERE i + 1 < " + rows + ") " +
+                    "INSERT INTO vocabulary (" + COLUMNS + ") " +
+                    "SELECT printf('word%06d', i), 'word ' || i, 'description of word ' || i, " +
+                    "'noun', '/w3:d/', i % 10 = 0 FROM row");
+            statement.execute("ANALYZE");
+            checkPlan(statement, SQL_BY_ID, "INDEX sqlite_autoindex_vocabulary_1 (entryid=?)");
+            checkPlan(statement, SQL_CLEAR_COMPLETED, "INDEX " +
+                    VocabularyPersistenceContract.VocabularyEntry.INDEX_NAME_COMPLETED + " (completed=?)");
+        }
+        mById = mConnection.prepareStatement(SQL_BY_ID);
+        mByIdLike = mConnection.prepareStatement(SQL_BY_ID_LIKE);
+        String id = nextId();
+        if (!lookUp(mById, id).equals(lookUp(mByIdLike, id))) {
+            throw new IllegalStateException("The lookups found different vocabularies for " + id);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        mById.close();
+        mByIdLike.close();
+        mConnection.close();
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(mDatabaseFile.getPath() + suffix).delete();
+        }
+    }
+
+    @Benchmark
+    public String byId() throws SQLException {
+        return lookUp(mById, nextId());
+    }
+
+    @Benchmark
+    public String byIdLike() throws SQLException {
+        return lookUp(mByIdLike, nextId());
+    }
+
+    private String nextId() {
+        return String.format("word%06d", mRandom.nextInt(rows));
+    }
+
+    private static String lookUp(PreparedStatement query, String id) throws SQLException {
+        query.setString(1, id);
+        try (ResultSet resultSet = query.executeQuery()) {
+            if (!resultSet.next()) {
+                throw new IllegalStateException("No vocabulary " + id);
+            }
+            return resultSet.getString(2);
+        }
+    }
+
+    private static void checkPlan(Statement statement, String sql, String expected) throws SQLException {
+        try (ResultSet plan = statement.executeQuery("EXPLAIN QUERY PLAN " + sql.replace("?", "0"))) {
+            StringBuilder details = new StringBuilder();
+            while (plan.next()) {
+                details.append(plan.getString(4)).append('\n');
+            }
+            if (!details.toString().contains(expected)) {
+                throw new IllegalStateException("Expected " + expected + " in the plan of " + sql + ":\n" + details);
+            }
+        }
+    }
+}
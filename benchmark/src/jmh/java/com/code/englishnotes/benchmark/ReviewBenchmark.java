@@ -0,0 +1,332 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.model.ReviewScheduler;
+import com.code.englishnotes.data.model.ReviewState;
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.model.VocabularyReview;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the next {@link #batchSize} reviews among {@link #cards} vocabularies, a third of them
+ * never reviewed and the others due anywhere from 30 days ago to 30 days from now: with the
+ * query of the local data source, which reads the index on {@code review_due_at}, or by scanning
+ * every row as filtering {@code getVocabularys()} would. The run fails unless the query plan
+ * uses the index without sorting and both pick the same reviews.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ReviewBenchmark {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    // Nine in the morning of the first simulated day.
+    private static final long START = 1_500_000_000_000L - 1_500_000_000_000L % DAY_MILLIS + TimeUnit.HOURS.toMillis(9);
+
+    private static final String REVIEW_COLUMNS =
+            "entryid, title, description, type, pronounce, completed," +
+                    " review_ease, review_interval, review_repetitions, review_due_at";
+
+    private static final String SQL_DUE = "SELECT " + REVIEW_COLUMNS + " FROM vocabulary" +
+            " WHERE review_due_at > 0 AND review_due_at <= ? ORDER BY review_due_at LIMIT ?";
+
+    private static final String SQL_NEW = "SELECT " + REVIEW_COLUMNS + " FROM vocabulary" +
+            " WHERE review_due_at = 0 LIMIT ?";
+
+    private static final String SQL_SAVE_REVIEW_STATE = "UPDATE vocabulary SET review_ease = ?," +
+            " review_interval = ?, review_repetitions = ?, review_due_at = ? WHERE entryid = ?";
+
+    @Param({"100000"})
+    public int cards;
+
+    @Param({"20"})
+    public int batchSize;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private PreparedStatement mDueQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("review", ".db");
+        mConnection = openDatabase(mDatabaseFile, cards);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("UPDATE vocabulary SET review_repetitions = 3, review_interval = 20," +
+                    " review_due_at = " + START + " + ((rowid * 7919) % 60 - 30) * " + DAY_MILLIS +
+                    " + rowid % 1000 WHERE rowid % 3 != 0");
+            try (ResultSet plan = statement.executeQuery("EXPLAIN QUERY PLAN " +
+                    SQL_DUE.replace("?", "0"))) {
+                StringBuilder details = new StringBuilder();
+                while (plan.next()) {
+                    details.append(plan.getString(4)).append('\n');
+                }
+                if (!details.toString().contains("USING INDEX index_vocabulary_review_due_at") ||
+                        details.toString().contains("TEMP B-TREE")) {
+                    throw new IllegalStateException("The due query does not read the index:\n" + details);
+                }
+            }
+        }
+        mDueQuery = mConnection.prepareStatement(SQL_DUE);
+        List<VocabularyReview> indexed = nextDueBatch();
+        List<VocabularyReview> scanned = nextDueBatchByScan();
+        if (indexed.size() != batchSize || !indexed.equals(scanned)) {
+            throw new IllegalStateException("The due query picked " + indexed + " instead of " + scanned);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        mDueQuery.close();
+        mConnection.close();
+        deleteDatabase(mDatabaseFile);
+    }
+
+    @Benchmark
+    public List<VocabularyReview> nextDueBatch() throws SQLException {
+        mDueQuery.setLong(1, START);
+        mDueQuery.setInt(2, batchSize);
+        return readReviews(mDueQuery);
+    }
+
+    @Benchmark
+    public List<VocabularyReview> nextDueBatchByScan() throws SQLException {
+        List<VocabularyReview> due = new ArrayList<>();
+        try (Statement statement = mConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + REVIEW_COLUMNS + " FROM vocabulary")) {
+            while (resultSet.next()) {
+                VocabularyReview review = readReview(resultSet);
+                if (review.getReviewState().isDue(START)) {
+                    due.add(review);
+                }
+            }
+        }
+        due.sort((first, second) -> Long.compare(
+                first.getReviewState().getDueAt(), second.getReviewState().getDueAt()));
+        return new ArrayList<>(due.subList(0, Math.min(batchSize, due.size())));
+    }
+
+    private static List<VocabularyReview> readReviews(PreparedStatement query) throws SQLException {
+        List<VocabularyReview> reviews = new ArrayList<>();
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                reviews.add(readReview(resultSet));
+            }
+        }
+        return reviews;
+    }
+
+    private static VocabularyReview readReview(ResultSet resultSet) throws SQLException {
+        Vocabulary vocabulary = new Vocabulary(resultSet.getString(1), resultSet.getString(2),
+                resultSet.getString(3), resultSet.getString(4), resultSet.getString(5),
+                resultSet.getInt(6) == 1);
+        return new VocabularyReview(vocabulary, new ReviewState(resultSet.getInt(7),
+                resultSet.getInt(8), resultSet.getInt(9), resultSet.getLong(10)));
+    }
+
+    /**
+     * @return a database of the current schema holding {@code cards} vocabularies never reviewed
+     */
+    private static Connection openDatabase(File file, int cards) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+            statement.execute("WITH RECURSIVE row(i) AS (SELECT 0 UNION ALL " +
+                    "SELECT i + 1 FROM row WHERE i + 1 < " + cards + ") " +
+                    "INSERT INTO vocabulary (entryid, title, description, type, pronounce, completed) " +
+                    "SELECT printf('word%06d', i), 'word ' || i, 'description of word ' || i, " +
+                    "'noun', '/w3:d/', 0 FROM row");
+        }
+        return connection;
+    }
+
+    private static void deleteDatabase(File file) {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+
+    /**
+     * A year of daily review sessions over {@link #cards} vocabularies never reviewed before,
+     * picked {@link #batchSize} at a time with the queries of the local data source and
+     * scheduled by {@link ReviewScheduler}. Each day every due review is done, up to
+     * {@link #maximumReviewsPerDay}, then {@link #newPerDay} new vocabularies are introduced. A
+     * session is one transaction. Recall is drawn from a seeded random, more likely for
+     * vocabularies recalled before.
+     * <p>
+     * The run fails if a picked review is not due or out of order, if the schedule in the table
+     * differs from the one computed along the way, or if two runs do not review the same number
+     * of vocabularies.
+     */
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @State(Scope.Benchmark)
+    public static class Year {
+
+        private static final int DAYS = 365;
+
+        @Param({"100000"})
+        public int cards;
+
+        @Param({"20"})
+        public int batchSize;
+
+        @Param({"20"})
+        public int newPerDay;
+
+        @Param({"500"})
+        public int maximumReviewsPerDay;
+
+        private File mDatabaseFile;
+
+        private Connection mConnection;
+
+        private final Map<String, ReviewState> mExpectedStates = new HashMap<>();
+
+        private int mReviews;
+
+        private int mExpectedReviews = -1;
+
+        @Setup(Level.Invocation)
+        public void createDatabase() throws IOException, SQLException {
+            mDatabaseFile = File.createTempFile("year", ".db");
+            mConnection = openDatabase(mDatabaseFile, cards);
+            mExpectedStates.clear();
+            mReviews = 0;
+        }
+
+        @TearDown(Level.Invocation)
+        public void checkDatabase() throws SQLException {
+            try (Statement statement = mConnection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT " + REVIEW_COLUMNS +
+                         " FROM vocabulary WHERE review_due_at > 0")) {
+                int scheduled = 0;
+                while (resultSet.next()) {
+                    VocabularyReview review = readReview(resultSet);
+                    if (!review.getReviewState().equals(mExpectedStates.get(review.getVocabulary().getId()))) {
+                        throw new IllegalStateException(review + " was scheduled " +
+                                mExpectedStates.get(review.getVocabulary().getId()));
+                    }
+                    scheduled++;
+                }
+                if (scheduled != mExpectedStates.size()) {
+                    throw new IllegalStateException(scheduled + " vocabularies scheduled instead of " +
+                            mExpectedStates.size());
+                }
+            } finally {
+                mConnection.close();
+                deleteDatabase(mDatabaseFile);
+            }
+            if (mExpectedReviews == -1) {
+                mExpectedReviews = mReviews;
+            } else if (mReviews != mExpectedReviews) {
+                throw new IllegalStateException(mReviews + " reviews instead of " + mExpectedReviews);
+            }
+        }
+
+        @Benchmark
+        public int simulateYear() throws SQLException {
+            Random random = new Random(42);
+            try (PreparedStatement dueQuery = mConnection.prepareStatement(SQL_DUE);
+                 PreparedStatement newQuery = mConnection.prepareStatement(SQL_NEW);
+                 PreparedStatement save = mConnection.prepareStatement(SQL_SAVE_REVIEW_STATE)) {
+                for (int day = 0; day < DAYS; day++) {
+                    long now = START + day * DAY_MILLIS;
+                    mConnection.setAutoCommit(false);
+                    int reviewed = 0;
+                    while (reviewed < maximumReviewsPerDay) {
+                        dueQuery.setLong(1, now);
+                        dueQuery.setInt(2, Math.min(batchSize, maximumReviewsPerDay - reviewed));
+                        List<VocabularyReview> batch = readReviews(dueQuery);
+                        if (batch.isEmpty()) {
+                            break;
+                        }
+                        long previousDueAt = 0;
+                        for (VocabularyReview review : batch) {
+                            ReviewState state = review.getReviewState();
+                            if (!state.isDue(now) || state.getDueAt() < previousDueAt) {
+                                throw new IllegalStateException(review + " picked out of order on day " + day);
+                            }
+                            previousDueAt = state.getDueAt();
+                            review(save, review.getVocabulary().getId(), state, random, now);
+                        }
+                        reviewed += batch.size();
+                    }
+                    newQuery.setInt(1, newPerDay);
+                    for (VocabularyReview review : readReviews(newQuery)) {
+                        if (!review.getReviewState().isNew()) {
+                            throw new IllegalStateException(review + " picked as new on day " + day);
+                        }
+                        review(save, review.getVocabulary().getId(), review.getReviewState(), random, now);
+                    }
+                    mConnection.commit();
+                    mConnection.setAutoCommit(true);
+                }
+            }
+            return mReviews;
+        }
+
+        private void review(PreparedStatement save, String vocabularyId, ReviewState state,
+                            Random random, long now) throws SQLException {
+            double recall = state.getRepetitions() == 0 ? 0.7 : 0.9;
+            ReviewScheduler.Grade grade;
+            if (random.nextDouble() >= recall) {
+                grade = ReviewScheduler.Grade.AGAIN;
+            } else {
+                double quality = random.nextDouble();
+                grade = quality < 0.15 ? ReviewScheduler.Grade.HARD
+                        : quality < 0.85 ? ReviewScheduler.Grade.GOOD
+                        : ReviewScheduler.Grade.EASY;
+            }
+            ReviewState next = ReviewScheduler.review(state, grade, now);
+            save.setInt(1, next.getEase());
+            save.setInt(2, next.getIntervalDays());
+            save.setInt(3, next.getRepetitions());
+            save.setLong(4, next.getDueAt());
+            save.setString(5, vocabularyId);
+            if (save.executeUpdate() != 1) {
+                throw new IllegalStateException("No vocabulary " + vocabularyId);
+            }
+            mExpectedStates.put(vocabularyId, next);
+            mReviews++;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching {@link #rows} vocabularies for {@link #query} with the full-text query of the local
+ * data source, ranked and limited to {@link #LIMIT} results, against the same ranking by a query
+ * that sorts every hit and against a {@code LIKE} scan of every title and description. Titles and
+ * descriptions are made of words of three syllables out of twenty, so a word is the title of
+ * about 12 vocabularies and in about 110, a four letter prefix in 250 titles and 2,200
+ * vocabularies, and a two letter one, the first keystroke of a search, in 5,000 titles and 37,000
+ * vocabularies. The setup fails unless the search finds vocabularies, every one of them holds
+ * each searched prefix and both rankings agree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "zo", "mi", "ru", "te", "lo", "pa", "ni", "se",
+            "bu", "do", "ve", "ga", "fi", "ho", "je", "ly", "wu", "qi", "xe"};
+
+    private static final int WORDS_PER_DESCRIPTION = 8;
+
+    private static final int LIMIT = 20;
+
+    private static final String COLUMNS = "entryid, title, description, type, pronounce, completed";
+
+    private static final String SQL_TITLE_HITS = "SELECT docid FROM vocabulary_fts WHERE title MATCH ?";
+
+    private static final String SQL_SEARCH_ARM = "SELECT * FROM (SELECT " + COLUMNS + " FROM vocabulary" +
+            " WHERE rowid IN (%s) ORDER BY length(title), title LIMIT ?)";
+
+    // The query of the local data source: title hits, then description-only hits.
+    private static final String SQL_SEARCH = String.format(SQL_SEARCH_ARM, SQL_TITLE_HITS) + " UNION ALL " +
+            String.format(SQL_SEARCH_ARM, "SELECT docid FROM vocabulary_fts WHERE vocabulary_fts MATCH ?" +
+                    " EXCEPT " + SQL_TITLE_HITS) + " LIMIT ?";
+
+    // The same ranking by a single query, which reads and sorts every hit.
+    private static final String SQL_SEARCH_RANKING_ALL = "SELECT " + COLUMNS + " FROM vocabulary" +
+            " WHERE rowid IN (SELECT docid FROM vocabulary_fts WHERE vocabulary_fts MATCH ?)" +
+            " ORDER BY rowid IN (" + SQL_TITLE_HITS + ") DESC, length(title), title LIMIT ?";
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"ka", "kazo", "kazomi", "kazomi ru"})
+    public String query;
+
+    private File mDatabaseFile;
+
+    private Connection mConnection;
+
+    private PreparedStatement mSearch;
+
+    private PreparedStatement mSearchRankingAll;
+
+    private PreparedStatement mScan;
+
+    private String mMatchQuery;
+
+    private String[] mTokens;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mDatabaseFile = File.createTempFile("search", ".db");
+        mConnection = DriverManager.getConnection("jdbc:sqlite:" + mDatabaseFile);
+        try (Statement statement = mConnection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+            for (String sql : EnglishNotesSchema.CREATE) {
+                statement.execute(sql);
+            }
+        }
+        fill();
+
+        mTokens = query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        StringBuilder matchQuery = new StringBuilder();
+        StringBuilder scan = new StringBuilder("SELECT " + COLUMNS + " FROM vocabulary WHERE 1");
+        for (String token : mTokens) {
+            matchQuery.append(matchQuery.length() > 0 ? " " : "").append(token).append('*');
+            scan.append(" AND (title LIKE ? OR description LIKE ?)");
+        }
+        mMatchQuery = matchQuery.toString();
+        mSearch = mConnection.prepareStatement(SQL_SEARCH);
+        mSearchRankingAll = mConnection.prepareStatement(SQL_SEARCH_RANKING_ALL);
+        mScan = mConnection.prepareStatement(scan + " ORDER BY length(title), title LIMIT " + LIMIT);
+
+        List<String> found = search();
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Nothing found for " + query);
+        }
+        if (!found.equals(searchRankingAll())) {
+            throw new IllegalStateException("The queries rank the vocabularies found for " + query + " differently");
+        }
+        for (String text : found) {
+            for (String token : mTokens) {
+                if (!(" " + text).contains(" " + token)) {
+                    throw new IllegalStateException("'" + text + "' was found for " + query);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        mSearch.close();
+        mSearchRankingAll.close();
+        mScan.close();
+        mConnection.close();
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(mDatabaseFile.getPath() + suffix).delete();
+        }
+    }
+
+    @Benchmark
+    public List<String> search() throws SQLException {
+        mSearch.setString(1, mMatchQuery);
+        mSearch.setInt(2, LIMIT);
+        mSearch.setString(3, mMatchQuery);
+        mSearch.setString(4, mMatchQuery);
+        mSearch.setInt(5, LIMIT);
+        mSearch.setInt(6, LIMIT);
+        return read(mSearch);
+    }
+
+    @Benchmark
+    public List<String> searchRankingAll() throws SQLException {
+        mSearchRankingAll.setString(1, mMatchQuery);
+        mSearchRankingAll.setString(2, mMatchQuery);
+        mSearchRankingAll.setInt(3, LIMIT);
+        return read(mSearchRankingAll);
+    }
+
+    @Benchmark
+    public List<String> scan() throws SQLException {
+        int index = 1;
+        for (String token : mTokens) {
+            mScan.setString(index++, "%" + token + "%");
+            mScan.setString(index++, "%" + token + "%");
+        }
+        return read(mScan);
+    }
+
+    private static List<String> read(PreparedStatement query) throws SQLException {
+        List<String> texts = new ArrayList<>(LIMIT);
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                texts.add(resultSet.getString(2) + " " + resultSet.getString(3));
+            }
+        }
+        return texts;
+    }
+
+    private void fill() throws SQLException {
+        Random random = new Random(42);
+        mConnection.setAutoCommit(false);
+        try (PreparedStatement insert = mConnection.prepareStatement(
+                "INSERT INTO vocabulary (" + COLUMNS + ") VALUES (?,?,?,'noun','/w3:d/',0)")) {
+            for (int i = 0; i < rows; i++) {
+                StringBuilder description = new StringBuilder();
+                for (int word = 0; word < WORDS_PER_DESCRIPTION; word++) {
+                    description.append(word > 0 ? " " : "").append(randomWord(random));
+                }
+                insert.setString(1, String.format("word%06d", i));
+                insert.setString(2, randomWord(random));
+                insert.setString(3, description.toString());
+                insert.executeUpdate();
+            }
+        }
+        mConnection.commit();
+        mConnection.setAutoCommit(true);
+    }
+
+    private static String randomWord(Random random) {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)] +
+                SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+}
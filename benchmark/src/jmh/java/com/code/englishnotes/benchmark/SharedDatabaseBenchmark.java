@@ -0,0 +1,127 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.data.source.local.TasksSchema;
+import com.code.englishnotes.data.database.EnglishNotesSchema;
+import com.code.englishnotes.data.source.local.VocabularySchema;
+import com.code.englishnotes.utils.database.ConnectionProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold open of the data layer: opening the database files, configuring the connections and
+ * running the first query on each table, with one file per table as before and with the shared
+ * database.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@State(Scope.Benchmark)
+public class SharedDatabaseBenchmark {
+
+    private static final int ROW_COUNT = 10000;
+
+    private File mVocabularyFile;
+
+    private File mTasksFile;
+
+    private File mSharedFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        mVocabularyFile = create(VocabularySchema.CREATE, true, false);
+        mTasksFile = create(TasksSchema.CREATE, false, true);
+        mSharedFile = create(EnglishNotesSchema.CREATE, true, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        delete(mVocabularyFile);
+        delete(mTasksFile);
+        delete(mSharedFile);
+    }
+
+    @Benchmark
+    public int openSeparateDatabases() throws SQLException {
+        try (Connection vocabulary = open(mVocabularyFile);
+             Connection tasks = open(mTasksFile)) {
+            return count(vocabulary, "vocabulary") + count(tasks, "tasks");
+        }
+    }
+
+    @Benchmark
+    public int openSharedDatabase() throws SQLException {
+        try (Connection shared = open(mSharedFile)) {
+            return count(shared, "vocabulary") + count(shared, "tasks");
+        }
+    }
+
+    private static Connection open(File file) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode = WAL");
+            for (String pragma : ConnectionProfile.DEFAULT.getPragmas()) {
+                statement.execute(pragma);
+            }
+        }
+        return connection;
+    }
+
+    private static File create(List<String> schema, boolean vocabulary, boolean tasks)
+            throws IOException, SQLException {
+        File file = File.createTempFile("open", ".db");
+        try (Connection connection = open(file);
+             Statement statement = connection.createStatement()) {
+            for (String sql : schema) {
+                statement.execute(sql);
+            }
+            String rows = "WITH RECURSIVE row(i) AS (SELECT 0 UNION ALL " +
+                    "SELECT i + 1 FROM row WHERE i + 1 < " + ROW_COUNT + ") ";
+            if (vocabulary) {
+                statement.execute(rows + "INSERT INTO vocabulary (entryid, title, description, type, " +
+                        "pronounce, completed) SELECT 'word' || i, " +
+                        "'word ' || i, 'description of word ' || i, 'noun', '/w3:d/', " +
+                        "i % 3 = 0 FROM row");
+            }
+            if (tasks) {
+                statement.execute(rows + "INSERT INTO tasks SELECT 'task' || i, 'task ' || i, " +
+                        "'description of task ' || i, i % 3 = 0 FROM row");
+            }
+        }
+        return file;
+    }
+
+    private static int count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void delete(File file) {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            new File(file.getPath() + suffix).delete();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.code.englishnotes.benchmark;
+
+import android.support.annotation.NonNull;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+
+/**
+ * Writes vocabularies over JDBC the way the local data source does. A single vocabulary is
+ * updated in place, or inserted when it has no row, in a transaction of its own. A batch is
+ * written in one transaction, and batches of more than {@link #MAXIMUM_ROWS_WRITTEN_DIRECTLY}
+ * rows are staged in a temporary table and copied into the vocabulary table by a single statement.
+ */
+final class SqliteVocabularyDataSource extends FakeVocabularyDataSource {
+
+    private static final int MAXIMUM_ROWS_WRITTEN_DIRECTLY = 4;
+
+    private static final String COLUMNS =
+            "entryid, title, description, type, pronounce, completed, updated_at";
+
+    private static final String SQL_UPDATE = "UPDATE vocabulary SET title = ?, description = ?," +
+            " type = ?, pronounce = ?, completed = ?, updated_at = ? WHERE entryid = ?";
+
+    private static final String SQL_INSERT = "INSERT OR REPLACE INTO vocabulary (" + COLUMNS +
+            ") VALUES (?,?,?,?,?,?,?)";
+
+    // Keeps the review schedule of the rows being replaced.
+    private static final String SQL_COPY_STAGING = "INSERT OR REPLACE INTO vocabulary (" + COLUMNS +
+            ", review_ease, review_interval, review_repetitions, review_due_at) SELECT s.*," +
+            " IFNULL(v.review_ease, 2500), IFNULL(v.review_interval, 0)," +
+            " IFNULL(v.review_repetitions, 0), IFNULL(v.review_due_at, 0)" +
+            " FROM vocabulary_staging s LEFT JOIN vocabulary v ON v.entryid = s.entryid";
+
+    @NonNull
+    private final Connection mConnection;
+
+    SqliteVocabularyDataSource(@NonNull Connection connection) {
+        mConnection = connection;
+    }
+
+    @Override
+    public void saveVocabulary(@NonNull Vocabulary vocabulary) {
+        try {
+            mConnection.setAutoCommit(false);
+            try (PreparedStatement update = mConnection.prepareStatement(SQL_UPDATE);
+                 PreparedStatement insert = mConnection.prepareStatement(SQL_INSERT)) {
+                upsert(update, insert, vocabulary, System.currentTimeMillis());
+            }
+            mConnection.commit();
+            mConnection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void saveVocabularies(@NonNull Collection<Vocabulary> vocabularies) {
+        if (vocabularies.isEmpty()) {
+            return;
+        }
+        long updatedAt = System.currentTimeMillis();
+        try {
+            mConnection.setAutoCommit(false);
+            if (vocabularies.size() <= MAXIMUM_ROWS_WRITTEN_DIRECTLY) {
+                try (PreparedStatement update = mConnection.prepareStatement(SQL_UPDATE);
+                     PreparedStatement insert = mConnection.prepareStatement(SQL_INSERT)) {
+                    for (Vocabulary vocabulary : vocabularies) {
+                        upsert(update, insert, vocabulary, updatedAt);
+                    }
+                }
+            } else {
+                try (Statement statement = mConnection.createStatement()) {
+                    statement.execute("CREATE TEMP TABLE IF NOT EXISTS vocabulary_staging (" + COLUMNS + ")");
+                    try (PreparedStatement insert = mConnection.prepareStatement(
+                            "INSERT INTO vocabulary_staging (" + COLUMNS + ") VALUES (?,?,?,?,?,?,?)")) {
+                        for (Vocabulary vocabulary : vocabularies) {
+                            bind(insert, vocabulary, updatedAt);
+                            insert.executeUpdate();
+                        }
+                    }
+                    statement.execute(SQL_COPY_STAGING);
+                    statement.execute("DELETE FROM vocabulary_staging");
+                }
+            }
+            mConnection.commit();
+            mConnection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void upsert(@NonNull PreparedStatement update, @NonNull PreparedStatement insert,
+                               @NonNull Vocabulary vocabulary, long updatedAt) throws SQLException {
+        update.setString(1, vocabulary.getTitle());
+        update.setString(2, vocabulary.getDescription());
+        update.setString(3, vocabulary.getType());
+        update.setString(4, vocabulary.getPronounce());
+        update.setBoolean(5, vocabulary.isCompleted());
+        update.setLong(6, updatedAt);
+        update.setString(7, vocabulary.getId());
+        if (update.executeUpdate() == 0) {
+            bind(insert, vocabulary, updatedAt);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void bind(@NonNull PreparedStatement insert, @NonNull Vocabulary vocabulary,
+                             long updatedAt) throws SQLException {
+        insert.setString(1, vocabulary.getId());
+        insert.setString(2, vocabulary.getTitle());
+        insert.setString(3, vocabulary.getDescription());
+        insert.setString(4, vocabulary.getType());
+        insert.setString(5, vocabulary.getPronounce());
+        insert.setBoolean(6, vocabulary.isCompleted());
+        insert.setLong(7, updatedAt);
+    }
+}
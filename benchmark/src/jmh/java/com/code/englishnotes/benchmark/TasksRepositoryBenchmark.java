@@ -0,0 +1,73 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.data.Task;
+import com.code.englishnotes.data.data.source.TasksRepository;
+import com.google.common.base.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache hit and miss paths of {@link TasksRepository} and the list rebuilt by
+ * {@link TasksRepository#getTasks()} on every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class TasksRepositoryBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private TasksRepository mRepository;
+
+    private List<Task> mTasks;
+
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mTasks = Fixtures.tasks(size);
+        TasksRepository.destroyInstance();
+        FakeTasksDataSource local = new FakeTasksDataSource();
+        for (Task task : mTasks) {
+            local.saveTask(task);
+        }
+        mRepository = TasksRepository.getInstance(new FakeTasksDataSource(), local);
+        // Fill the cache from the local data source.
+        mRepository.getTasks().blockingFirst();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        TasksRepository.destroyInstance();
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskCacheHit() {
+        Task task = mTasks.get(mNext);
+        mNext = (mNext + 1) % mTasks.size();
+        return mRepository.getTask(task.getId()).blockingFirst();
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskCacheMiss() {
+        return mRepository.getTask("missing").blockingFirst(Optional.<Task>absent());
+    }
+
+    @Benchmark
+    public List<Task> getTasksCached() {
+        return mRepository.getTasks().blockingFirst();
+    }
+}
@@ -0,0 +1,143 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.model.Vocabulary;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained heap per entry of a deck of {@link #size} vocabularies with UUID ids, built the way a
+ * cursor hands them over, every string a fresh copy. {@code stringsBytesPerEntry} is the layout
+ * {@link Vocabulary} had before, six plain fields; {@code compactBytesPerEntry} is the current
+ * one. Both are reported as secondary results, which JMH sums over iterations, hence the single
+ * measurement iteration. The run fails unless the compact layout is smaller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 1, time = 1)
+@State(Scope.Benchmark)
+public class VocabularyFootprintBenchmark {
+
+    private static final String[] TYPES = {"noun", "verb", "adjective", "adverb"};
+
+    @Param({"100000"})
+    public int size;
+
+    // Keeps the deck being measured reachable.
+    private Object mRetained;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long stringsBytesPerEntry;
+
+        public long compactBytesPerEntry;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            stringsBytesPerEntry = 0;
+            compactBytesPerEntry = 0;
+        }
+    }
+
+    @Benchmark
+    public void measure(Footprint footprint) {
+        footprint.stringsBytesPerEntry = measureBytesPerEntry(false);
+        footprint.compactBytesPerEntry = measureBytesPerEntry(true);
+        if (footprint.compactBytesPerEntry >= footprint.stringsBytesPerEntry) {
+            throw new IllegalStateException("Compact vocabularies take " + footprint.compactBytesPerEntry +
+                    " bytes per entry, the plain layout " + footprint.stringsBytesPerEntry);
+        }
+    }
+
+    private long measureBytesPerEntry(boolean compact) {
+        mRetained = null;
+        long before = usedHeap();
+        mRetained = compact ? compactDeck() : stringsDeck();
+        long after = usedHeap();
+        return (after - before) / size;
+    }
+
+    private List<Vocabulary> compactDeck() {
+        Random random = new Random(size);
+        List<Vocabulary> deck = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            deck.add(new Vocabulary(uuid(random), "word" + i, "description of word " + i,
+                    new String(TYPES[i % TYPES.length]), new String("/w3:d/"), i % 3 == 0));
+        }
+        return deck;
+    }
+
+    private List<StringsVocabulary> stringsDeck() {
+        Random random = new Random(size);
+        List<StringsVocabulary> deck = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            deck.add(new StringsVocabulary(uuid(random), "word" + i, "description of word " + i,
+                    new String(TYPES[i % TYPES.length]), new String("/w3:d/"), i % 3 == 0));
+        }
+        return deck;
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The fields {@link Vocabulary} used to have.
+     */
+    private static final class StringsVocabulary {
+
+        final String mId;
+
+        final String mTitle;
+
+        final String mDescription;
+
+        final String mType;
+
+        final String mPronounce;
+
+        final boolean mCompleted;
+
+        StringsVocabulary(String id, String title, String description, String type,
+                          String pronounce, boolean completed) {
+            mId = id;
+            mTitle = title;
+            mDescription = description;
+            mType = type;
+            mPronounce = pronounce;
+            mCompleted = completed;
+        }
+    }
+}
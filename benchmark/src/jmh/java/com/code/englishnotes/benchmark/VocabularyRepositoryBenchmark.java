@@ -0,0 +1,137 @@
+package com.code.englishnotes.benchmark;
+
+import com.code.englishnotes.data.model.Vocabulary;
+import com.code.englishnotes.data.source.FakeSyncTokenStore;
+import com.code.englishnotes.data.source.FakeVocabularyDataSource;
+import com.code.englishnotes.data.source.FakeVocabularyOutbox;
+import com.code.englishnotes.data.source.OutboxMetrics;
+import com.code.englishnotes.data.source.VocabularyOutboxFlusher;
+import com.code.englishnotes.data.source.VocabularyRepository;
+import com.google.common.base.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Cache hit and miss paths of {@link VocabularyRepository} and the cost of building the list
+ * returned by {@link VocabularyRepository#getVocabularys()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class VocabularyRepositoryBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private VocabularyRepository mRepository;
+
+    private List<Vocabulary> mVocabularies;
+
+    private int mNext;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mVocabularies = Fixtures.vocabularies(size);
+        mRepository = newRepository(mVocabularies);
+        // Fill the cache from the local data source.
+        mRepository.getVocabularys().blockingFirst();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        VocabularyRepository.destroyInstance();
+    }
+
+    @Benchmark
+    public Optional<Vocabulary> getVocabularyCacheHit() {
+        return mRepository.getVocabulary(nextVocabulary().getId()).blockingFirst();
+    }
+
+    @Benchmark
+    public Optional<Vocabulary> getVocabularyCacheMiss() {
+        return mRepository.getVocabulary("missing").blockingFirst(Optional.<Vocabulary>absent());
+    }
+
+    @Benchmark
+    public List<Vocabulary> getVocabularysCached() {
+        return mRepository.getVocabularys().blockingFirst();
+    }
+
+    /**
+     * A write invalidates the cached list, so the next read pays for rebuilding it.
+     */
+    @Benchmark
+    public List<Vocabulary> getVocabularysAfterWrite() {
+        mRepository.saveVocabulary(nextVocabulary());
+        return mRepository.getVocabularys().blockingFirst();
+    }
+
+    private Vocabulary nextVocabulary() {
+        Vocabulary vocabulary = mVocabularies.get(mNext);
+        mNext = (mNext + 1) % mVocabularies.size();
+        return vocabulary;
+    }
+
+    static VocabularyRepository newRepository(List<Vocabulary> localVocabularies) {
+        VocabularyRepository.destroyInstance();
+        FakeVocabularyDataSource local = new FakeVocabularyDataSource();
+        local.saveVocabularies(localVocabularies);
+        FakeVocabularyDataSource remote = new FakeVocabularyDataSource();
+        // Flushes on the calling thread, like the remote writes this benchmark was written for.
+        VocabularyOutboxFlusher outboxFlusher = new VocabularyOutboxFlusher(remote,
+                new FakeVocabularyOutbox(), Schedulers.trampoline(), OutboxMetrics.NONE);
+        // Unbounded, so every size stays fully cached and only the hit paths are measured.
+        return VocabularyRepository.getInstance(remote, local, outboxFlusher, new FakeSyncTokenStore(),
+                Schedulers.trampoline(), Long.MAX_VALUE);
+    }
+
+    /**
+     * First load through a fresh repository: local query plus filling the cache.
+     */
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @State(Scope.Benchmark)
+    public static class ColdLoad {
+
+        @Param({"1000", "10000"})
+        public int size;
+
+        private List<Vocabulary> mVocabularies;
+
+        private VocabularyRepository mRepository;
+
+        @Setup(Level.Trial)
+        public void setUpFixtures() {
+            mVocabularies = Fixtures.vocabularies(size);
+        }
+
+        @Setup(Level.Invocation)
+        public void setUpRepository() {
+            mRepository = newRepository(mVocabularies);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            VocabularyRepository.destroyInstance();
+        }
+
+        @Benchmark
+        public List<Vocabulary> getVocabularysFromLocal() {
+            return mRepository.getVocabularys().blockingFirst();
+        }
+    }
+}